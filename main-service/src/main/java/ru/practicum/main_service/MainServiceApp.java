@@ -2,8 +2,13 @@ package ru.practicum.main_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import ru.practicum.stats_common.VirtualThreadsConfig;
 
+@EnableScheduling
 @SpringBootApplication(scanBasePackages = {"ru.practicum.stats_client", "ru.practicum.main_service"})
+@Import(VirtualThreadsConfig.class)
 public class MainServiceApp {
     public static void main(String[] args) {
         SpringApplication.run(MainServiceApp.class, args);
@@ -2,10 +2,36 @@ package ru.practicum.main_service.compilation.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.main_service.compilation.model.Compilation;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
 
 public interface CompilationRepository extends JpaRepository<Compilation, Long> {
+    String PASS_DISTINCT_THROUGH = "hibernate.query.passDistinctThrough";
+
     List<Compilation> findAllByPinned(Boolean pinned, Pageable pageable);
+
+    @Query("SELECT DISTINCT c " +
+            "FROM Compilation AS c " +
+            "LEFT JOIN FETCH c.events AS e " +
+            "LEFT JOIN FETCH e.category " +
+            "LEFT JOIN FETCH e.location " +
+            "LEFT JOIN FETCH e.initiator " +
+            "WHERE c.id IN ?1")
+    @QueryHints(@QueryHint(name = PASS_DISTINCT_THROUGH, value = "false"))
+    List<Compilation> findAllWithEventsByIdIn(List<Long> compIds);
+
+    @Query("SELECT DISTINCT c " +
+            "FROM Compilation AS c " +
+            "LEFT JOIN FETCH c.events AS e " +
+            "LEFT JOIN FETCH e.category " +
+            "LEFT JOIN FETCH e.location " +
+            "LEFT JOIN FETCH e.initiator " +
+            "WHERE c.id = ?1")
+    @QueryHints(@QueryHint(name = PASS_DISTINCT_THROUGH, value = "false"))
+    Optional<Compilation> findWithEventsById(Long compId);
 }
@@ -22,6 +22,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -99,6 +101,8 @@ public class CompilationServiceImpl implements CompilationService {
             compilations = compilationRepository.findAllByPinned(pinned, pageable);
         }
 
+        compilations = fetchEvents(compilations);
+
         Set<Event> uniqueEvents = new HashSet<>();
         compilations.forEach(compilation -> uniqueEvents.addAll(compilation.getEvents()));
 
@@ -121,7 +125,8 @@ public class CompilationServiceImpl implements CompilationService {
     public CompilationDto getById(Long compId) {
         log.info("Вывод подборки событий с id {}", compId);
 
-        Compilation compilation = getCompilationById(compId);
+        Compilation compilation = compilationRepository.findWithEventsById(compId)
+                .orElseThrow(() -> new NotFoundException("Подборки с таким id не существует."));
 
         List<EventShortDto> eventsShortDto = eventService.toEventsShortDto(compilation.getEvents());
 
@@ -133,6 +138,21 @@ public class CompilationServiceImpl implements CompilationService {
                 .orElseThrow(() -> new NotFoundException("Подборки с таким id не существует."));
     }
 
+    private List<Compilation> fetchEvents(List<Compilation> compilations) {
+        if (compilations.isEmpty()) {
+            return compilations;
+        }
+
+        Map<Long, Compilation> withEvents = compilationRepository.findAllWithEventsByIdIn(compilations.stream()
+                        .map(Compilation::getId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(Compilation::getId, Function.identity()));
+
+        return compilations.stream()
+                .map(compilation -> withEvents.get(compilation.getId()))
+                .collect(Collectors.toList());
+    }
+
     private void checkSize(List<Event> events, List<Long> eventsIdToUpdate) {
         if (events.size() != eventsIdToUpdate.size()) {
             throw new NotFoundException("Некоторые события не найдены.");
@@ -2,6 +2,7 @@ package ru.practicum.main_service.event.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,8 +12,10 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.main_service.event.dto.ParticipationRequestDto;
+import ru.practicum.main_service.event.service.RequestAdmissionQueue;
 import ru.practicum.main_service.event.service.RequestService;
 
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -20,6 +23,7 @@ import java.util.List;
 @RequestMapping("/users/{userId}/requests")
 public class RequestPrivateController {
     private final RequestService requestService;
+    private final RequestAdmissionQueue requestAdmissionQueue;
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
@@ -28,10 +32,17 @@ public class RequestPrivateController {
     }
 
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public ParticipationRequestDto createEventRequest(@PathVariable Long userId,
-                                                      @RequestParam Long eventId) {
-        return requestService.createEventRequest(userId, eventId);
+    public ResponseEntity<ParticipationRequestDto> createEventRequest(@PathVariable Long userId,
+                                                                      @RequestParam Long eventId) {
+        if (requestAdmissionQueue.isEnabled(eventId)) {
+            return requestAdmissionQueue.submit(userId, eventId)
+                    .map(request -> ResponseEntity.status(HttpStatus.CREATED).body(request))
+                    .orElseGet(() -> ResponseEntity.accepted()
+                            .location(URI.create("/users/" + userId + "/requests"))
+                            .build());
+        }
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(requestService.createEventRequest(userId, eventId));
     }
 
     @PatchMapping("/{requestId}/cancel")
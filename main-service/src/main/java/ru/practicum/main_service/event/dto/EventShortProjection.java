@@ -0,0 +1,33 @@
+package ru.practicum.main_service.event.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EventShortProjection {
+    Long id;
+    String title;
+    String annotation;
+    Long categoryId;
+    String categoryName;
+    Long initiatorId;
+    String initiatorName;
+    Boolean paid;
+    LocalDateTime eventDate;
+    Long confirmedRequests;
+    Integer participantLimit;
+    LocalDateTime publishedOn;
+    Long views;
+}
@@ -8,13 +8,16 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.FieldDefaults;
 
+import java.time.LocalDateTime;
+
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-public class RequestStats {
-    Long eventId;
-    Long confirmedRequests;
+public class EventViewsProjection {
+    Long id;
+    LocalDateTime publishedOn;
+    Long views;
 }
@@ -0,0 +1,5 @@
+package ru.practicum.main_service.event.enums;
+
+public enum HitOverflowPolicy {
+    DROP, BLOCK
+}
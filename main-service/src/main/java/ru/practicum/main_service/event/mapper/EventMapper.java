@@ -6,6 +6,7 @@ import ru.practicum.main_service.category.mapper.CategoryMapper;
 import ru.practicum.main_service.category.model.Category;
 import ru.practicum.main_service.event.dto.EventFullDto;
 import ru.practicum.main_service.event.dto.EventShortDto;
+import ru.practicum.main_service.event.dto.EventShortProjection;
 import ru.practicum.main_service.event.dto.NewEventDto;
 import ru.practicum.main_service.event.enums.EventState;
 import ru.practicum.main_service.event.model.Event;
@@ -21,10 +22,23 @@ public interface EventMapper {
     @Mapping(target = "category", source = "category")
     @Mapping(target = "location", source = "location")
     @Mapping(target = "publishedOn", expression = "java(null)")
+    @Mapping(target = "confirmedRequests", ignore = true)
+    @Mapping(target = "views", ignore = true)
     Event toEvent(NewEventDto newEventDto, User initiator, Category category, Location location, LocalDateTime createdOn,
                   EventState state);
 
+    @Mapping(target = "confirmedRequests", source = "confirmedRequests")
+    @Mapping(target = "views", source = "views")
     EventFullDto toEventFullDto(Event event, Long confirmedRequests, Long views);
 
+    @Mapping(target = "confirmedRequests", source = "confirmedRequests")
+    @Mapping(target = "views", source = "views")
     EventShortDto toEventShortDto(Event event, Long confirmedRequests, Long views);
+
+    @Mapping(target = "category.id", source = "event.categoryId")
+    @Mapping(target = "category.name", source = "event.categoryName")
+    @Mapping(target = "initiator.id", source = "event.initiatorId")
+    @Mapping(target = "initiator.name", source = "event.initiatorName")
+    @Mapping(target = "views", source = "views")
+    EventShortDto toEventShortDto(EventShortProjection event, Long views);
 }
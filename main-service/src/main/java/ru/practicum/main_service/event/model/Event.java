@@ -24,11 +24,18 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.Table;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "events", schema = "public")
+@NamedEntityGraph(name = Event.GRAPH_DETAILS, attributeNodes = {
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("location"),
+        @NamedAttributeNode("initiator")
+})
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Getter
 @Setter
@@ -36,6 +43,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 public class Event {
+    public static final String GRAPH_DETAILS = "Event.details";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
@@ -46,7 +55,7 @@ public class Event {
     @Column(nullable = false, length = MainCommonUtils.MAX_LENGTH_ANNOTATION)
     String annotation;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", referencedColumnName = "id")
     Category category;
 
@@ -62,7 +71,7 @@ public class Event {
     @Column(nullable = false)
     LocalDateTime eventDate;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "location_id", referencedColumnName = "id")
     Location location;
 
@@ -75,11 +84,19 @@ public class Event {
 
     LocalDateTime publishedOn;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", referencedColumnName = "id")
     @OnDelete(action = OnDeleteAction.CASCADE)
     User initiator;
 
     @Column(nullable = false)
     Boolean requestModeration;
+
+    @Column(name = "confirmed_requests", nullable = false, updatable = false)
+    @Builder.Default
+    Long confirmedRequests = 0L;
+
+    @Column(name = "views", nullable = false, updatable = false)
+    @Builder.Default
+    Long views = 0L;
 }
@@ -1,5 +1,7 @@
 package ru.practicum.main_service.event.repository;
 
+import ru.practicum.main_service.event.dto.EventShortProjection;
+import ru.practicum.main_service.event.enums.EventSortType;
 import ru.practicum.main_service.event.enums.EventState;
 import ru.practicum.main_service.event.model.Event;
 
@@ -10,6 +12,9 @@ public interface EventCustomRepository {
     List<Event> getEventsByAdmin(List<Long> users, List<EventState> states, List<Long> categories,
                                  LocalDateTime rangeStart, LocalDateTime rangeEnd, Integer from, Integer size);
 
-    List<Event> getEventsByPublic(String text, List<Long> categories, Boolean paid, LocalDateTime rangeStart,
-                                  LocalDateTime rangeEnd, Integer from, Integer size);
+    List<EventShortProjection> getEventsByPublic(String text, List<Long> categories, Boolean paid,
+                                                 LocalDateTime rangeStart, LocalDateTime rangeEnd, Boolean onlyAvailable,
+                                                 EventSortType sort, Long after, Integer from, Integer size);
+
+    List<EventShortProjection> getEventsShortByIds(List<Long> eventIds);
 }
@@ -1,21 +1,35 @@
 package ru.practicum.main_service.event.repository;
 
+import org.springframework.beans.factory.annotation.Value;
+import ru.practicum.main_service.category.model.Category;
+import ru.practicum.main_service.event.dto.EventShortProjection;
+import ru.practicum.main_service.event.enums.EventSortType;
 import ru.practicum.main_service.event.enums.EventState;
 import ru.practicum.main_service.event.model.Event;
+import ru.practicum.main_service.user.model.User;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CompoundSelection;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
 import java.time.LocalDateTime;
 import java.util.List;
 
 public class EventCustomRepositoryImpl implements EventCustomRepository {
+    private static final String FETCH_GRAPH = "javax.persistence.fetchgraph";
+
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Value("${spring.sql.init.platform:}")
+    private String platform;
+
     public List<Event> getEventsByAdmin(List<Long> users, List<EventState> states, List<Long> categories,
                                                LocalDateTime rangeStart, LocalDateTime rangeEnd, Integer from, Integer size) {
         CriteriaBuilder builder = entityManager.getCriteriaBuilder();
@@ -43,20 +57,26 @@ public class EventCustomRepositoryImpl implements EventCustomRepository {
             criteria = builder.and(criteria, builder.lessThanOrEqualTo(root.get("eventDate"), rangeEnd));
         }
 
-        query.select(root).where(criteria);
-        return entityManager.createQuery(query).setFirstResult(from).setMaxResults(size).getResultList();
+        query.select(root).where(criteria).orderBy(builder.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setHint(FETCH_GRAPH, entityManager.getEntityGraph(Event.GRAPH_DETAILS))
+                .setFirstResult(from)
+                .setMaxResults(size)
+                .getResultList();
     }
 
-    public List<Event> getEventsByPublic(String text, List<Long> categories, Boolean paid, LocalDateTime rangeStart,
-                                         LocalDateTime rangeEnd, Integer from, Integer size) {
+    public List<EventShortProjection> getEventsByPublic(String text, List<Long> categories, Boolean paid,
+                                                        LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                                        Boolean onlyAvailable, EventSortType sort, Long after, Integer from, Integer size) {
         CriteriaBuilder builder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Event> query = builder.createQuery(Event.class);
+        CriteriaQuery<EventShortProjection> query = builder.createQuery(EventShortProjection.class);
         Root<Event> root = query.from(Event.class);
         Predicate criteria = builder.conjunction();
+        boolean hasText = text != null && !text.isBlank();
 
-        if (text != null && !text.isBlank()) {
-            Predicate annotation = builder.like(builder.lower(root.get("annotation")), "%" + text.toLowerCase() + "%");
-            Predicate description = builder.like(builder.lower(root.get("description")), "%" + text.toLowerCase() + "%");
+        if (hasText) {
+            Predicate annotation = builder.like(builder.lower(root.get("annotation")), EventTextSearch.pattern(text));
+            Predicate description = builder.like(builder.lower(root.get("description")), EventTextSearch.pattern(text));
             criteria = builder.and(criteria, builder.or(annotation, description));
         }
 
@@ -80,9 +100,92 @@ public class EventCustomRepositoryImpl implements EventCustomRepository {
             }
         }
 
+        if (Boolean.TRUE.equals(onlyAvailable)) {
+            criteria = builder.and(criteria, builder.or(
+                    builder.equal(root.get("participantLimit"), 0),
+                    builder.lt(root.get("confirmedRequests"), root.get("participantLimit"))));
+        }
+
         criteria = builder.and(criteria, root.get("state").in(EventState.PUBLISHED));
 
-        query.select(root).where(criteria);
-        return entityManager.createQuery(query).setFirstResult(from).setMaxResults(size).getResultList();
+        boolean keyset = after != null;
+
+        if (hasText && sort == EventSortType.RELEVANCE) {
+            keyset = false;
+            query.orderBy(builder.desc(EventTextSearch.of(platform).relevance(builder, root, text)),
+                    builder.asc(root.get("id")));
+        } else if (sort == EventSortType.EVENT_DATE) {
+            if (keyset) {
+                criteria = builder.and(criteria, seek(builder, query, root, "eventDate", LocalDateTime.class, after, true));
+            }
+            query.orderBy(builder.asc(root.get("eventDate")), builder.asc(root.get("id")));
+        } else if (sort == EventSortType.VIEWS) {
+            if (keyset) {
+                criteria = builder.and(criteria, seek(builder, query, root, "views", Long.class, after, true));
+            }
+            query.orderBy(builder.asc(root.get("views")), builder.asc(root.get("id")));
+        } else {
+            if (keyset) {
+                criteria = builder.and(criteria, builder.greaterThan(root.get("id"), after));
+            }
+            query.orderBy(builder.asc(root.get("id")));
+        }
+
+        query.select(toEventShortProjection(builder, root)).where(criteria);
+
+        return entityManager.createQuery(query)
+                .setFirstResult(keyset ? 0 : from)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    public List<EventShortProjection> getEventsShortByIds(List<Long> eventIds) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EventShortProjection> query = builder.createQuery(EventShortProjection.class);
+        Root<Event> root = query.from(Event.class);
+
+        query.select(toEventShortProjection(builder, root))
+                .where(root.get("id").in(eventIds))
+                .orderBy(builder.asc(root.get("id")));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private <T extends Comparable<? super T>> Predicate seek(CriteriaBuilder builder, CriteriaQuery<?> query,
+                                                             Root<Event> root, String field, Class<T> type,
+                                                             Long after, boolean ascending) {
+        Subquery<T> cursor = query.subquery(type);
+        Root<Event> cursorRoot = cursor.from(Event.class);
+        cursor.select(cursorRoot.get(field)).where(builder.equal(cursorRoot.get("id"), after));
+
+        Expression<T> value = root.get(field);
+        Expression<Long> id = root.get("id");
+
+        if (ascending) {
+            return builder.or(builder.greaterThan(value, cursor),
+                    builder.and(builder.equal(value, cursor), builder.greaterThan(id, after)));
+        }
+
+        return builder.or(builder.lessThan(value, cursor),
+                builder.and(builder.equal(value, cursor), builder.lessThan(id, after)));
+    }
+
+    private CompoundSelection<EventShortProjection> toEventShortProjection(CriteriaBuilder builder, Root<Event> root) {
+        Join<Event, Category> category = root.join("category");
+        Join<Event, User> initiator = root.join("initiator");
+
+        return builder.construct(EventShortProjection.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("annotation"),
+                category.get("id"),
+                category.get("name"),
+                initiator.get("id"),
+                initiator.get("name"),
+                root.get("paid"),
+                root.get("eventDate"),
+                root.get("confirmedRequests"),
+                root.get("participantLimit"),
+                root.get("publishedOn"),
+                root.get("views"));
     }
 }
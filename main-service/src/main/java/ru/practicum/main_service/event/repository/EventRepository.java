@@ -1,16 +1,104 @@
 package ru.practicum.main_service.event.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.main_service.event.dto.EventViewsProjection;
+import ru.practicum.main_service.event.enums.EventState;
 import ru.practicum.main_service.event.model.Event;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface EventRepository extends JpaRepository<Event, Long>, EventCustomRepository {
+    @Override
+    @EntityGraph(Event.GRAPH_DETAILS)
+    Optional<Event> findById(Long eventId);
+
+    @EntityGraph(Event.GRAPH_DETAILS)
     List<Event> findAllByInitiatorId(Long userId, Pageable pageable);
 
+    @EntityGraph(Event.GRAPH_DETAILS)
     Optional<Event> findByIdAndInitiatorId(Long eventId, Long userId);
 
+    @EntityGraph(Event.GRAPH_DETAILS)
     List<Event> findAllByIdIn(List<Long> eventsId);
+
+    @EntityGraph(Event.GRAPH_DETAILS)
+    Slice<Event> findAllByState(EventState state, Pageable pageable);
+
+    @Query("SELECT new ru.practicum.main_service.event.dto.EventViewsProjection(e.id, e.publishedOn, e.views) " +
+            "FROM Event AS e " +
+            "WHERE e.state = ?1 " +
+            "AND e.id > ?2 " +
+            "ORDER BY e.id")
+    List<EventViewsProjection> findViewsByStateAfterId(EventState state, Long lastId, Pageable pageable);
+
+    @Query("SELECT new ru.practicum.main_service.event.dto.EventViewsProjection(e.id, e.publishedOn, e.views) " +
+            "FROM Event AS e " +
+            "WHERE e.state = ?1 " +
+            "AND e.eventDate >= ?2 " +
+            "AND e.id > ?3 " +
+            "ORDER BY e.id")
+    List<EventViewsProjection> findViewsByStateAndEventDateAfterId(EventState state, LocalDateTime eventDateFrom,
+                                                                   Long lastId, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e " +
+            "FROM Event AS e " +
+            "WHERE e.id = ?1")
+    Optional<Event> findByIdForUpdate(Long eventId);
+
+    @Modifying
+    @Query("UPDATE Event AS e " +
+            "SET e.confirmedRequests = e.confirmedRequests + ?2 " +
+            "WHERE e.id = ?1")
+    int addConfirmedRequests(Long eventId, long delta);
+
+    @Modifying
+    @Query("UPDATE Event AS e " +
+            "SET e.confirmedRequests = e.confirmedRequests + ?2 " +
+            "WHERE e.id = ?1 " +
+            "AND (e.participantLimit = 0 OR e.confirmedRequests + ?2 <= e.participantLimit)")
+    int admitConfirmedRequests(Long eventId, long count);
+
+    @Modifying
+    @Query("UPDATE Event AS e " +
+            "SET e.views = ?2 " +
+            "WHERE e.id = ?1")
+    int updateViews(Long eventId, Long views);
+
+    @Query("SELECT e.confirmedRequests " +
+            "FROM Event AS e " +
+            "WHERE e.id = ?1")
+    Long getConfirmedRequests(Long eventId);
+
+    @Query(value = "SELECT e.id " +
+            "FROM events AS e " +
+            "WHERE e.confirmed_requests <> (SELECT COUNT(r.id) FROM requests AS r " +
+            "WHERE r.event_id = e.id AND r.status = 'CONFIRMED') " +
+            "ORDER BY e.id", nativeQuery = true)
+    List<Long> findIdsWithDriftedConfirmedRequests();
+
+    @Query(value = "SELECT e.id " +
+            "FROM events AS e " +
+            "WHERE e.id IN (?1) " +
+            "ORDER BY e.id " +
+            "FOR UPDATE", nativeQuery = true)
+    List<Long> lockAllByIdIn(List<Long> eventIds);
+
+    @Modifying
+    @Query(value = "UPDATE events AS e " +
+            "SET confirmed_requests = (SELECT COUNT(r.id) FROM requests AS r " +
+            "WHERE r.event_id = e.id AND r.status = 'CONFIRMED') " +
+            "WHERE e.id IN (?1) " +
+            "AND e.confirmed_requests <> (SELECT COUNT(r.id) FROM requests AS r " +
+            "WHERE r.event_id = e.id AND r.status = 'CONFIRMED')", nativeQuery = true)
+    int reconcileConfirmedRequests(List<Long> eventIds);
 }
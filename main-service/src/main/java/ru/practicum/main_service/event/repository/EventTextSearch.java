@@ -0,0 +1,50 @@
+package ru.practicum.main_service.event.repository;
+
+import ru.practicum.main_service.event.model.Event;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Root;
+
+enum EventTextSearch {
+    POSTGRESQL {
+        @Override
+        Expression<Double> relevance(CriteriaBuilder builder, Root<Event> root, String text) {
+            return builder.sum(
+                    builder.prod(wordSimilarity(builder, text, root.get("annotation")), ANNOTATION_WEIGHT),
+                    wordSimilarity(builder, text, root.get("description")));
+        }
+
+        private Expression<Double> wordSimilarity(CriteriaBuilder builder, String text, Expression<String> field) {
+            return builder.function("word_similarity", Double.class, builder.literal(text.toLowerCase()),
+                    builder.lower(field));
+        }
+    },
+    DEFAULT {
+        @Override
+        Expression<Double> relevance(CriteriaBuilder builder, Root<Event> root, String text) {
+            return builder.sum(
+                    matchWeight(builder, root.get("annotation"), text, ANNOTATION_WEIGHT),
+                    matchWeight(builder, root.get("description"), text, 1.0));
+        }
+
+        private Expression<Double> matchWeight(CriteriaBuilder builder, Expression<String> field, String text,
+                                               Double weight) {
+            return builder.<Double>selectCase()
+                    .when(builder.like(builder.lower(field), pattern(text)), weight)
+                    .otherwise(0.0);
+        }
+    };
+
+    private static final Double ANNOTATION_WEIGHT = 2.0;
+
+    abstract Expression<Double> relevance(CriteriaBuilder builder, Root<Event> root, String text);
+
+    static String pattern(String text) {
+        return "%" + text.toLowerCase() + "%";
+    }
+
+    static EventTextSearch of(String platform) {
+        return "postgresql".equals(platform) ? POSTGRESQL : DEFAULT;
+    }
+}
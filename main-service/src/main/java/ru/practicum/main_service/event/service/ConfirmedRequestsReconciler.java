@@ -0,0 +1,40 @@
+package ru.practicum.main_service.event.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.main_service.event.repository.EventRepository;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConfirmedRequestsReconciler {
+    private static final int CHUNK_SIZE = 500;
+
+    private final EventRepository eventRepository;
+
+    @Scheduled(cron = "${events.confirmed-requests.reconcile-cron:0 0 3 * * *}")
+    @Transactional
+    public int reconcile() {
+        List<Long> driftedIds = eventRepository.findIdsWithDriftedConfirmedRequests();
+        int repaired = 0;
+
+        for (int i = 0; i < driftedIds.size(); i += CHUNK_SIZE) {
+            List<Long> chunk = driftedIds.subList(i, Math.min(i + CHUNK_SIZE, driftedIds.size()));
+            eventRepository.lockAllByIdIn(chunk);
+            repaired += eventRepository.reconcileConfirmedRequests(chunk);
+        }
+
+        if (repaired > 0) {
+            log.warn("Исправлено количество подтвержденных запросов у {} событий", repaired);
+        } else {
+            log.info("Количество подтвержденных запросов у событий согласовано");
+        }
+
+        return repaired;
+    }
+}
@@ -0,0 +1,426 @@
+package ru.practicum.main_service.event.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.main_service.event.enums.EventSearchEngine;
+import ru.practicum.main_service.event.enums.EventState;
+import ru.practicum.main_service.event.model.Event;
+import ru.practicum.main_service.event.repository.EventRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class EventSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    private final EventRepository eventRepository;
+    private final boolean enabled;
+    private final int buildPageSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> gramIds = new HashMap<>();
+    private final List<IntPostings> grams = new ArrayList<>();
+    private final Map<Long, IntPostings> categories = new HashMap<>();
+    private final IntPostings paid = new IntPostings();
+    private final IntPostings free = new IntPostings();
+    private final IntPostings all = new IntPostings();
+    private final NavigableMap<LocalDate, IntPostings> days = new TreeMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final Map<Integer, IndexedEvent> pending = new LinkedHashMap<>();
+    private volatile boolean ready;
+
+    @Autowired
+    public EventSearchIndex(EventRepository eventRepository,
+                            @Value("${events.search.engine:DATABASE}") EventSearchEngine engine,
+                            @Value("${events.search.index.build-page-size:1000}") int buildPageSize) {
+        if (buildPageSize <= 0) {
+            throw new IllegalArgumentException("Размер страницы построения поискового индекса должен быть положительным.");
+        }
+
+        this.eventRepository = eventRepository;
+        this.enabled = engine == EventSearchEngine.INDEX;
+        this.buildPageSize = buildPageSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+
+        log.info("Построение поискового индекса опубликованных событий");
+
+        Pageable pageable = PageRequest.of(0, buildPageSize, Sort.by("id"));
+        Slice<Event> events;
+        int count = 0;
+
+        do {
+            events = eventRepository.findAllByState(EventState.PUBLISHED, pageable);
+            lock.writeLock().lock();
+            try {
+                events.forEach(event -> index(toInt(event.getId()), toIndexedEvent(event)));
+            } finally {
+                lock.writeLock().unlock();
+            }
+            count += events.getNumberOfElements();
+            pageable = events.nextPageable();
+        } while (events.hasNext());
+
+        lock.writeLock().lock();
+        try {
+            log.info("Применение {} изменений событий, закоммиченных во время построения индекса", pending.size());
+
+            pending.forEach(this::index);
+            pending.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Поисковый индекс построен, событий в индексе: {}", count);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void update(Event event) {
+        if (!enabled) {
+            return;
+        }
+
+        int eventId = toInt(event.getId());
+        IndexedEvent indexedEvent = toIndexedEvent(event);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(eventId, indexedEvent);
+                }
+            });
+        } else {
+            apply(eventId, indexedEvent);
+        }
+    }
+
+    public List<Long> search(String text, List<Long> categoryIds, Boolean isPaid, LocalDateTime rangeStart,
+                             LocalDateTime rangeEnd, Integer from, Integer size) {
+        LocalDateTime start = rangeStart == null && rangeEnd == null ? LocalDateTime.now() : rangeStart;
+        String needle = text == null || text.isBlank() ? null : text.toLowerCase();
+        List<Long> result = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            List<IntPostings> postings = new ArrayList<>();
+            TextMatcher matcher = null;
+
+            if (needle != null) {
+                matcher = getTextMatcher(needle);
+
+                if (matcher == null) {
+                    return result;
+                }
+
+                postings.addAll(matcher.getPostings());
+            }
+
+            if (categoryIds != null && !categoryIds.isEmpty()) {
+                postings.add(IntPostings.union(categoryIds.stream()
+                        .map(categories::get)
+                        .filter(posting -> posting != null)
+                        .collect(Collectors.toList())));
+            }
+
+            if (isPaid != null) {
+                postings.add(isPaid ? paid : free);
+            }
+
+            IntPostings candidates = postings.isEmpty() ? all : IntPostings.intersect(postings);
+            BitSet dates = getDateFilter(start, rangeEnd, candidates.size());
+            IntPostings.Cursor cursor = candidates.cursor();
+            int skipped = 0;
+
+            while (cursor.hasNext() && result.size() < size) {
+                int eventId = cursor.next();
+
+                if (dates != null ? !dates.get(eventId) : !documents.get(eventId).isWithin(start, rangeEnd)) {
+                    continue;
+                }
+
+                if (matcher != null && !matcher.matches(eventId)) {
+                    continue;
+                }
+
+                if (skipped++ >= from) {
+                    result.add((long) eventId);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return result;
+    }
+
+    /**
+     * Строки до {@value GRAM_LENGTH} символов ищутся по списку событий с такой n-граммой. Более длинная строка
+     * покрывается триграммами со сдвигами 0, 3, 6, ... и последней, и событие подходит, если в одном поле
+     * все они стоят на своих позициях относительно общего начала.
+     */
+    private TextMatcher getTextMatcher(String needle) {
+        if (needle.length() <= GRAM_LENGTH) {
+            Integer gramId = gramIds.get(needle);
+
+            return gramId == null ? null : new TextMatcher(List.of(grams.get(gramId)), new int[0]);
+        }
+
+        int last = needle.length() - GRAM_LENGTH;
+        int[] offsets = new int[last / GRAM_LENGTH + (last % GRAM_LENGTH == 0 ? 1 : 2)];
+        List<IntPostings> postings = new ArrayList<>(offsets.length);
+
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = Math.min(i * GRAM_LENGTH, last);
+
+            Integer gramId = gramIds.get(needle.substring(offsets[i], offsets[i] + GRAM_LENGTH));
+
+            if (gramId == null) {
+                return null;
+            }
+
+            postings.add(grams.get(gramId));
+        }
+
+        return new TextMatcher(postings, offsets);
+    }
+
+    private BitSet getDateFilter(LocalDateTime start, LocalDateTime end, int candidates) {
+        NavigableMap<LocalDate, IntPostings> range = days;
+
+        if (start != null) {
+            range = range.tailMap(start.toLocalDate(), true);
+        }
+
+        if (end != null) {
+            range = range.headMap(end.toLocalDate(), true);
+        }
+
+        int inRange = 0;
+
+        for (IntPostings posting : range.values()) {
+            inRange += posting.size();
+
+            if (inRange > candidates) {
+                return null;
+            }
+        }
+
+        BitSet dates = new BitSet();
+
+        range.forEach((day, posting) -> {
+            boolean edge = (start != null && day.equals(start.toLocalDate()))
+                    || (end != null && day.equals(end.toLocalDate()));
+            IntPostings.Cursor cursor = posting.cursor();
+
+            while (cursor.hasNext()) {
+                int eventId = cursor.next();
+
+                if (!edge || documents.get(eventId).isWithin(start, end)) {
+                    dates.set(eventId);
+                }
+            }
+        });
+
+        return dates;
+    }
+
+    private void apply(int eventId, IndexedEvent indexedEvent) {
+        lock.writeLock().lock();
+        try {
+            if (ready) {
+                index(eventId, indexedEvent);
+            } else {
+                pending.put(eventId, indexedEvent);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(int eventId, IndexedEvent indexedEvent) {
+        Document previous = documents.remove(eventId);
+
+        if (previous != null) {
+            IntPostings.Cursor gramCursor = previous.getGramIds().cursor();
+
+            while (gramCursor.hasNext()) {
+                grams.get(gramCursor.next()).remove(eventId);
+            }
+
+            removePosting(categories, previous.getCategoryId(), eventId);
+            (previous.isPaid() ? paid : free).remove(eventId);
+            removePosting(days, previous.getEventDate().toLocalDate(), eventId);
+            all.remove(eventId);
+        }
+
+        if (indexedEvent != null) {
+            int[] documentGramIds = new int[indexedEvent.getGrams().size()];
+            int gramCount = 0;
+
+            for (Map.Entry<String, int[]> gram : indexedEvent.getGrams().entrySet()) {
+                int gramId = gramIds.computeIfAbsent(gram.getKey(), key -> {
+                    grams.add(new IntPostings(key.length() == GRAM_LENGTH));
+                    return grams.size() - 1;
+                });
+
+                grams.get(gramId).add(eventId, gram.getValue());
+                documentGramIds[gramCount++] = gramId;
+            }
+
+            Arrays.sort(documentGramIds);
+            documents.put(eventId, new Document(IntPostings.of(documentGramIds, gramCount),
+                    indexedEvent.getCategoryId(), indexedEvent.isPaid(), indexedEvent.getEventDate()));
+            categories.computeIfAbsent(indexedEvent.getCategoryId(), key -> new IntPostings()).add(eventId);
+            (indexedEvent.isPaid() ? paid : free).add(eventId);
+            days.computeIfAbsent(indexedEvent.getEventDate().toLocalDate(), key -> new IntPostings()).add(eventId);
+            all.add(eventId);
+        }
+    }
+
+    private <K> void removePosting(Map<K, IntPostings> postings, K key, int eventId) {
+        IntPostings posting = postings.get(key);
+
+        if (posting != null && posting.remove(eventId) && posting.isEmpty()) {
+            postings.remove(key);
+        }
+    }
+
+    private IndexedEvent toIndexedEvent(Event event) {
+        if (event.getState() != EventState.PUBLISHED) {
+            return null;
+        }
+
+        Map<String, List<Integer>> positions = new HashMap<>();
+        int offset = 0;
+
+        for (String field : List.of(event.getAnnotation().toLowerCase(), event.getDescription().toLowerCase())) {
+            for (int i = 0; i < field.length(); i++) {
+                for (int length = 1; length <= GRAM_LENGTH && i + length <= field.length(); length++) {
+                    List<Integer> gramPositions = positions.computeIfAbsent(field.substring(i, i + length),
+                            key -> new ArrayList<>());
+
+                    if (length == GRAM_LENGTH) {
+                        gramPositions.add(offset + i);
+                    }
+                }
+            }
+
+            // Разрыв больше шага покрывающих триграмм, чтобы совпадение не переходило из аннотации в описание.
+            offset += field.length() + GRAM_LENGTH + 1;
+        }
+
+        return new IndexedEvent(
+                positions.entrySet().stream()
+                        .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().stream()
+                                .mapToInt(Integer::intValue)
+                                .toArray())),
+                event.getCategory().getId(),
+                event.getPaid(),
+                event.getEventDate());
+    }
+
+    private int toInt(Long eventId) {
+        return Math.toIntExact(eventId);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class IndexedEvent {
+        private final Map<String, int[]> grams;
+        private final Long categoryId;
+        private final boolean paid;
+        private final LocalDateTime eventDate;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class Document {
+        private final IntPostings gramIds;
+        private final Long categoryId;
+        private final boolean paid;
+        private final LocalDateTime eventDate;
+
+        private boolean isWithin(LocalDateTime start, LocalDateTime end) {
+            return (start == null || !eventDate.isBefore(start)) && (end == null || !eventDate.isAfter(end));
+        }
+    }
+
+    private static class TextMatcher {
+        @Getter
+        private final List<IntPostings> postings;
+        private final int[] offsets;
+        private final IntPostings.Cursor[] cursors;
+
+        private TextMatcher(List<IntPostings> postings, int[] offsets) {
+            this.postings = postings;
+            this.offsets = offsets;
+            this.cursors = new IntPostings.Cursor[offsets.length];
+
+            for (int i = 0; i < offsets.length; i++) {
+                cursors[i] = postings.get(i).cursor();
+            }
+        }
+
+        private boolean matches(int eventId) {
+            if (offsets.length == 0) {
+                return true;
+            }
+
+            int[][] positions = new int[offsets.length][];
+
+            for (int i = 0; i < offsets.length; i++) {
+                cursors[i].advance(eventId);
+                positions[i] = cursors[i].positions();
+            }
+
+            for (int start : positions[0]) {
+                boolean found = true;
+
+                for (int i = 1; i < offsets.length && found; i++) {
+                    found = Arrays.binarySearch(positions[i], start + offsets[i]) >= 0;
+                }
+
+                if (found) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+}
@@ -30,7 +30,7 @@ public interface EventService {
 
     List<EventShortDto> getEventsByPublic(String text, List<Long> categories, Boolean paid, LocalDateTime rangeStart,
                                           LocalDateTime rangeEnd, Boolean onlyAvailable, EventSortType sort,
-                                          Integer from, Integer size, HttpServletRequest request);
+                                          Long after, Integer from, Integer size, HttpServletRequest request);
 
     EventFullDto getEventByPublic(Long id, HttpServletRequest request);
 
@@ -9,6 +9,7 @@ import ru.practicum.main_service.category.model.Category;
 import ru.practicum.main_service.category.service.CategoryService;
 import ru.practicum.main_service.event.dto.EventFullDto;
 import ru.practicum.main_service.event.dto.EventShortDto;
+import ru.practicum.main_service.event.dto.EventShortProjection;
 import ru.practicum.main_service.event.dto.LocationDto;
 import ru.practicum.main_service.event.dto.NewEventDto;
 import ru.practicum.main_service.event.dto.UpdateEventAdminRequest;
@@ -21,6 +22,7 @@ import ru.practicum.main_service.event.model.Event;
 import ru.practicum.main_service.event.model.Location;
 import ru.practicum.main_service.event.repository.EventRepository;
 import ru.practicum.main_service.event.repository.LocationRepository;
+import ru.practicum.main_service.exception.BadRequestException;
 import ru.practicum.main_service.exception.ForbiddenException;
 import ru.practicum.main_service.exception.NotFoundException;
 import ru.practicum.main_service.user.model.User;
@@ -29,10 +31,9 @@ import ru.practicum.main_service.user.service.UserService;
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -47,6 +48,7 @@ public class EventServiceImpl implements EventService {
     private final EventRepository eventRepository;
     private final EventMapper eventMapper;
     private final LocationMapper locationMapper;
+    private final EventSearchIndex eventSearchIndex;
 
     @Override
     public List<EventFullDto> getEventsByAdmin(List<Long> users, List<EventState> states, List<Long> categories,
@@ -127,7 +129,7 @@ public class EventServiceImpl implements EventService {
             event.setTitle(updateEventAdminRequest.getTitle());
         }
 
-        return toEventFullDto(eventRepository.save(event));
+        return toEventFullDto(saveAndIndex(event));
     }
 
     @Override
@@ -155,7 +157,7 @@ public class EventServiceImpl implements EventService {
         Event newEvent = eventMapper.toEvent(newEventDto, eventUser, eventCategory, eventLocation, LocalDateTime.now(),
                 EventState.PENDING);
 
-        return toEventFullDto(eventRepository.save(newEvent));
+        return toEventFullDto(saveAndIndex(newEvent));
     }
 
     @Override
@@ -232,42 +234,53 @@ public class EventServiceImpl implements EventService {
             event.setTitle(updateEventUserRequest.getTitle());
         }
 
-        return toEventFullDto(eventRepository.save(event));
+        return toEventFullDto(saveAndIndex(event));
     }
 
     @Override
     public List<EventShortDto> getEventsByPublic(
             String text, List<Long> categories, Boolean paid, LocalDateTime rangeStart, LocalDateTime rangeEnd,
-            Boolean onlyAvailable, EventSortType sort, Integer from, Integer size, HttpServletRequest request) {
+            Boolean onlyAvailable, EventSortType sort, Long after, Integer from, Integer size,
+            HttpServletRequest request) {
         log.info("Вывод событий на публичный запрос с параметрами text = {}, categoriesId = {}, paid = {}, rangeStart = {}, " +
-                "rangeEnd = {}, onlyAvailable = {}, sort = {}, from = {}, size = {}",
-                text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort, from, size);
+                "rangeEnd = {}, onlyAvailable = {}, sort = {}, after = {}, from = {}, size = {}",
+                text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort, after, from, size);
 
         checkStartIsBeforeEnd(rangeStart, rangeEnd);
 
-        List<Event> events = eventRepository.getEventsByPublic(text, categories, paid, rangeStart, rangeEnd, from, size);
+        if (after != null && !eventRepository.existsById(after)) {
+            throw new BadRequestException(String.format("Field: after. Error: события с таким id не существует. " +
+                    "Value: %d", after));
+        }
+
+        List<EventShortProjection> events;
+
+        if (useSearchIndex(onlyAvailable, sort, after)) {
+            List<Long> eventIds = eventSearchIndex.search(text, categories, paid, rangeStart, rangeEnd, from, size);
+
+            events = eventIds.isEmpty() ? List.of() : eventRepository.getEventsShortByIds(eventIds);
+        } else {
+            events = eventRepository.getEventsByPublic(text, categories, paid, rangeStart, rangeEnd, onlyAvailable,
+                    sort, after, from, size);
+        }
 
         if (events.isEmpty()) {
             return List.of();
         }
 
-        Map<Long, Integer> eventsParticipantLimit = new HashMap<>();
-        events.forEach(event -> eventsParticipantLimit.put(event.getId(), event.getParticipantLimit()));
+        Map<Long, Long> views;
 
-        List<EventShortDto> eventsShortDto = toEventsShortDto(events);
-
-        if (onlyAvailable) {
-            eventsShortDto = eventsShortDto.stream()
-                    .filter(eventShort -> (eventsParticipantLimit.get(eventShort.getId()) == 0 ||
-                            eventsParticipantLimit.get(eventShort.getId()) > eventShort.getConfirmedRequests()))
-                    .collect(Collectors.toList());
+        if (sort == EventSortType.VIEWS) {
+            views = events.stream()
+                    .collect(Collectors.toMap(EventShortProjection::getId, EventShortProjection::getViews));
+        } else {
+            views = statsService.getViewsByPublishedOn(events.stream()
+                    .collect(Collectors.toMap(EventShortProjection::getId, EventShortProjection::getPublishedOn)));
         }
 
-        if (needSort(sort, EventSortType.VIEWS)) {
-            eventsShortDto.sort(Comparator.comparing(EventShortDto::getViews));
-        } else if (needSort(sort, EventSortType.EVENT_DATE)) {
-            eventsShortDto.sort(Comparator.comparing(EventShortDto::getEventDate));
-        }
+        List<EventShortDto> eventsShortDto = events.stream()
+                .map(event -> eventMapper.toEventShortDto(event, views.getOrDefault(event.getId(), 0L)))
+                .collect(Collectors.toList());
 
         statsService.addHit(request);
 
@@ -312,8 +325,9 @@ public class EventServiceImpl implements EventService {
     public List<EventShortDto> toEventsShortDto(List<Event> events) {
         log.info("Преобразование в EventShortDto списка событий events {}", events);
 
-        Map<Long, Long> views = statsService.getViews(events);
+        CompletableFuture<Map<Long, Long>> viewsFuture = statsService.getViewsAsync(events);
         Map<Long, Long> confirmedRequests = statsService.getConfirmedRequests(events);
+        Map<Long, Long> views = viewsFuture.join();
 
         return events.stream()
                 .map((event) -> eventMapper.toEventShortDto(
@@ -324,8 +338,9 @@ public class EventServiceImpl implements EventService {
     }
 
     private List<EventFullDto> toEventsFullDto(List<Event> events) {
-        Map<Long, Long> views = statsService.getViews(events);
+        CompletableFuture<Map<Long, Long>> viewsFuture = statsService.getViewsAsync(events);
         Map<Long, Long> confirmedRequests = statsService.getConfirmedRequests(events);
+        Map<Long, Long> views = viewsFuture.join();
 
         return events.stream()
                 .map((event) -> eventMapper.toEventFullDto(
@@ -352,8 +367,16 @@ public class EventServiceImpl implements EventService {
                 .orElseGet(() -> locationRepository.save(newLocation));
     }
 
-    private Boolean needSort(EventSortType sort, EventSortType typeToCompare) {
-        return sort != null && sort.equals(typeToCompare);
+    private Event saveAndIndex(Event event) {
+        Event savedEvent = eventRepository.save(event);
+
+        eventSearchIndex.update(savedEvent);
+
+        return savedEvent;
+    }
+
+    private boolean useSearchIndex(Boolean onlyAvailable, EventSortType sort, Long after) {
+        return eventSearchIndex.isReady() && !onlyAvailable && sort == null && after == null;
     }
 
     private void checkStartIsBeforeEnd(LocalDateTime rangeStart, LocalDateTime rangeEnd) {
@@ -0,0 +1,192 @@
+package ru.practicum.main_service.event.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats_common.VirtualThreads;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+@Component
+@Slf4j
+public class EventViewsCache {
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
+    private final AsyncCache<Long, ViewCount> cache;
+    private final ExecutorService executor;
+    private final long refreshAfterMs;
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public EventViewsCache(@Value("${stats-server.views-cache.maximum-size:10000}") long maximumSize,
+                           @Value("${stats-server.views-cache.refresh-after-ms:10000}") long refreshAfterMs,
+                           @Value("${stats-server.views-cache.expire-after-ms:60000}") long expireAfterMs,
+                           @Value("${stats-server.views-cache.threads:2}") int threads,
+                           @Value("${stats-server.views-cache.queue-capacity:100}") int queueCapacity,
+                           @Value("${" + VirtualThreads.ENABLED_PROPERTY + ":false}") boolean virtualThreads) {
+        if (maximumSize <= 0 || refreshAfterMs <= 0 || expireAfterMs <= 0 || threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Параметры кэша просмотров должны быть положительными.");
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        this.refreshAfterMs = refreshAfterMs;
+        this.executor = virtualThreads ? VirtualThreads.newExecutor("event-views-loader-")
+                : new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                            Thread thread = new Thread(runnable, "event-views-loader-" + threadNumber.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }, new ThreadPoolExecutor.AbortPolicy());
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterMs))
+                .executor(Runnable::run)
+                .buildAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+
+        try {
+            executor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Map<Long, Long> getAll(Set<Long> eventIds, Function<Set<Long>, Map<Long, Long>> loader) {
+        try {
+            return getAllAsync(eventIds, loader).join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw exception;
+        }
+    }
+
+    public CompletableFuture<Map<Long, Long>> getAllAsync(Set<Long> eventIds,
+                                                          Function<Set<Long>, Map<Long, Long>> loader) {
+        return getAllNonBlocking(eventIds, missing -> CompletableFuture.supplyAsync(() -> loader.apply(missing), executor))
+                .exceptionally(exception -> {
+                    Throwable cause = exception instanceof CompletionException ? exception.getCause() : exception;
+
+                    if (!(cause instanceof RejectedExecutionException)) {
+                        throw exception instanceof CompletionException ? (CompletionException) exception
+                                : new CompletionException(exception);
+                    }
+
+                    log.warn("Очередь загрузки просмотров заполнена, для событий {} использованы сохраненные значения",
+                            eventIds);
+                    return getAllPresent(eventIds);
+                });
+    }
+
+    public CompletableFuture<Map<Long, Long>> getAllNonBlocking(
+            Set<Long> eventIds, Function<Set<Long>, CompletableFuture<Map<Long, Long>>> loader) {
+        return cache.getAll(eventIds, (missing, loaderExecutor) -> load(toSet(missing), loader))
+                .thenApply(counts -> toViews(counts, loader));
+    }
+
+    public Map<Long, Long> getAllPresent(Set<Long> eventIds) {
+        Map<Long, Long> views = new HashMap<>();
+
+        eventIds.forEach(eventId -> {
+            CompletableFuture<ViewCount> count = cache.getIfPresent(eventId);
+
+            views.put(eventId, count != null && count.isDone() && !count.isCompletedExceptionally()
+                    ? count.join().getViews() : 0L);
+        });
+
+        return views;
+    }
+
+    private Map<Long, Long> toViews(Map<Long, ViewCount> counts,
+                                    Function<Set<Long>, CompletableFuture<Map<Long, Long>>> loader) {
+        long now = System.currentTimeMillis();
+        Set<Long> stale = new HashSet<>();
+        Map<Long, Long> views = new HashMap<>();
+
+        counts.forEach((eventId, count) -> {
+            views.put(eventId, count.getViews());
+
+            if (now - count.getLoadedAt() >= refreshAfterMs && refreshing.add(eventId)) {
+                stale.add(eventId);
+            }
+        });
+
+        if (!stale.isEmpty()) {
+            refresh(stale, loader);
+        }
+
+        return views;
+    }
+
+    private void refresh(Set<Long> eventIds, Function<Set<Long>, CompletableFuture<Map<Long, Long>>> loader) {
+        load(eventIds, loader).whenComplete((counts, exception) -> {
+            if (exception == null) {
+                counts.forEach((eventId, count) -> cache.put(eventId, CompletableFuture.completedFuture(count)));
+            } else {
+                log.warn("Не удалось обновить просмотры для событий {}: {}", eventIds, exception.getMessage());
+            }
+
+            refreshing.removeAll(eventIds);
+        });
+    }
+
+    private CompletableFuture<Map<Long, ViewCount>> load(
+            Set<Long> eventIds, Function<Set<Long>, CompletableFuture<Map<Long, Long>>> loader) {
+        CompletableFuture<Map<Long, Long>> views;
+
+        try {
+            views = loader.apply(eventIds);
+        } catch (RuntimeException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+
+        return views.thenApply(loaded -> {
+            long loadedAt = System.currentTimeMillis();
+            Map<Long, ViewCount> counts = new HashMap<>();
+
+            eventIds.forEach(eventId -> counts.put(eventId,
+                    new ViewCount(loaded.getOrDefault(eventId, 0L), loadedAt)));
+
+            return counts;
+        });
+    }
+
+    private Set<Long> toSet(Iterable<? extends Long> eventIds) {
+        Set<Long> result = new HashSet<>();
+        eventIds.forEach(result::add);
+        return result;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class ViewCount {
+        private final long views;
+        private final long loadedAt;
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.main_service.event.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.main_service.event.dto.EventViewsProjection;
+import ru.practicum.main_service.event.enums.EventState;
+import ru.practicum.main_service.event.repository.EventRepository;
+import ru.practicum.stats_client.StatsClient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class EventViewsRefresher {
+    private final EventRepository eventRepository;
+    private final StatsClient statsClient;
+    private final TransactionTemplate transactionTemplate;
+    private final int pageSize;
+    private final long activeDays;
+
+    @Autowired
+    public EventViewsRefresher(EventRepository eventRepository,
+                               StatsClient statsClient,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${events.views.refresh-page-size:500}") int pageSize,
+                               @Value("${events.views.refresh-active-days:7}") long activeDays) {
+        if (pageSize <= 0 || activeDays <= 0) {
+            throw new IllegalArgumentException("Параметры обновления просмотров должны быть положительными.");
+        }
+
+        this.eventRepository = eventRepository;
+        this.statsClient = statsClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pageSize = pageSize;
+        this.activeDays = activeDays;
+    }
+
+    @Scheduled(initialDelayString = "${events.views.refresh-initial-delay-ms:10000}",
+            fixedDelayString = "${events.views.refresh-interval-ms:60000}")
+    public int refresh() {
+        return refresh(LocalDateTime.now().minusDays(activeDays));
+    }
+
+    @Scheduled(initialDelayString = "${events.views.refresh-initial-delay-ms:10000}",
+            fixedDelayString = "${events.views.full-refresh-interval-ms:3600000}")
+    public int refreshAll() {
+        return refresh(null);
+    }
+
+    private int refresh(LocalDateTime eventDateFrom) {
+        Pageable limit = PageRequest.of(0, pageSize);
+        List<EventViewsProjection> events;
+        long lastId = 0;
+        int updated = 0;
+
+        do {
+            events = eventDateFrom == null
+                    ? eventRepository.findViewsByStateAfterId(EventState.PUBLISHED, lastId, limit)
+                    : eventRepository.findViewsByStateAndEventDateAfterId(EventState.PUBLISHED, eventDateFrom,
+                    lastId, limit);
+
+            if (events.isEmpty()) {
+                break;
+            }
+
+            try {
+                updated += refreshPage(events);
+            } catch (RuntimeException exception) {
+                log.warn("Не удалось обновить просмотры событий: {}", exception.getMessage());
+                return updated;
+            }
+
+            lastId = events.get(events.size() - 1).getId();
+        } while (events.size() == pageSize);
+
+        log.info("Обновлены просмотры у {} событий{}", updated,
+                eventDateFrom == null ? "" : " с датой не раньше " + eventDateFrom);
+
+        return updated;
+    }
+
+    private int refreshPage(List<EventViewsProjection> events) {
+        LocalDateTime start = events.stream()
+                .map(EventViewsProjection::getPublishedOn)
+                .min(LocalDateTime::compareTo)
+                .orElseThrow();
+        Map<Long, Long> views = statsClient.getEventViews(start, LocalDateTime.now(),
+                events.stream().map(EventViewsProjection::getId).collect(Collectors.toList()), null);
+        List<EventViewsProjection> changed = events.stream()
+                .filter(event -> !views.getOrDefault(event.getId(), 0L).equals(event.getViews()))
+                .collect(Collectors.toList());
+
+        if (!changed.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> changed.forEach(event ->
+                    eventRepository.updateViews(event.getId(), views.getOrDefault(event.getId(), 0L))));
+        }
+
+        return changed.size();
+    }
+}
@@ -0,0 +1,432 @@
+package ru.practicum.main_service.event.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+class IntPostings {
+    private static final int BLOCK_SIZE = 128;
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final boolean positional;
+    private byte[][] blocks = new byte[1][];
+    private int[] blockLength = new int[1];
+    private int[] blockFirst = new int[1];
+    private int[] blockSize = new int[1];
+    private int blockCount;
+    private int size;
+    private int last;
+
+    IntPostings() {
+        this(false);
+    }
+
+    IntPostings(boolean positional) {
+        this.positional = positional;
+    }
+
+    static IntPostings of(int[] values, int count) {
+        IntPostings postings = new IntPostings();
+
+        for (int i = 0; i < count; i++) {
+            postings.append(values[i], NO_POSITIONS);
+        }
+
+        return postings;
+    }
+
+    static IntPostings union(Collection<IntPostings> postings) {
+        int total = postings.stream()
+                .mapToInt(IntPostings::size)
+                .sum();
+        int[] merged = new int[total];
+        int position = 0;
+
+        for (IntPostings posting : postings) {
+            Cursor cursor = posting.cursor();
+
+            while (cursor.hasNext()) {
+                merged[position++] = cursor.next();
+            }
+        }
+
+        Arrays.sort(merged, 0, position);
+
+        int unique = 0;
+        for (int i = 0; i < position; i++) {
+            if (unique == 0 || merged[unique - 1] != merged[i]) {
+                merged[unique++] = merged[i];
+            }
+        }
+
+        return of(merged, unique);
+    }
+
+    static IntPostings intersect(List<IntPostings> postings) {
+        List<IntPostings> bySize = new ArrayList<>(postings);
+        bySize.sort(Comparator.comparingInt(IntPostings::size));
+
+        Cursor smallest = bySize.get(0).cursor();
+        Cursor[] others = new Cursor[bySize.size() - 1];
+        IntPostings result = new IntPostings();
+
+        for (int i = 0; i < others.length; i++) {
+            others[i] = bySize.get(i + 1).cursor();
+        }
+
+        while (smallest.hasNext()) {
+            int value = smallest.next();
+            boolean found = true;
+
+            for (int i = 0; i < others.length && found; i++) {
+                int other = others[i].advance(value);
+
+                if (other < 0) {
+                    return result;
+                }
+
+                found = other == value;
+            }
+
+            if (found) {
+                result.append(value, NO_POSITIONS);
+            }
+        }
+
+        return result;
+    }
+
+    boolean add(int value) {
+        return add(value, NO_POSITIONS);
+    }
+
+    boolean add(int value, int[] positions) {
+        if (size == 0 || last < value) {
+            append(value, positions);
+            return true;
+        }
+
+        int block = findBlock(value);
+        Block decoded = decode(block);
+        int index = Arrays.binarySearch(decoded.values, 0, decoded.size, value);
+
+        if (index >= 0) {
+            return false;
+        }
+
+        decoded.insert(-index - 1, value, positions);
+        size++;
+
+        if (decoded.size > BLOCK_SIZE * 2) {
+            insertBlock(block + 1);
+            encode(block, decoded, 0, BLOCK_SIZE);
+            encode(block + 1, decoded, BLOCK_SIZE, decoded.size);
+        } else {
+            encode(block, decoded, 0, decoded.size);
+        }
+
+        return true;
+    }
+
+    boolean remove(int value) {
+        if (size == 0 || value < blockFirst[0] || value > last) {
+            return false;
+        }
+
+        int block = findBlock(value);
+        Block decoded = decode(block);
+        int index = Arrays.binarySearch(decoded.values, 0, decoded.size, value);
+
+        if (index < 0) {
+            return false;
+        }
+
+        decoded.delete(index);
+        size--;
+
+        if (decoded.size == 0) {
+            deleteBlock(block);
+        } else {
+            encode(block, decoded, 0, decoded.size);
+        }
+
+        if (value == last && size > 0) {
+            Block lastBlock = decode(blockCount - 1);
+            last = lastBlock.values[lastBlock.size - 1];
+        }
+
+        return true;
+    }
+
+    boolean contains(int value) {
+        return size > 0 && cursor().advance(value) == value;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    int[] toArray() {
+        int[] values = new int[size];
+        Cursor cursor = cursor();
+
+        for (int i = 0; i < size; i++) {
+            values[i] = cursor.next();
+        }
+
+        return values;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int sizeInBytes() {
+        int bytes = 0;
+
+        for (int i = 0; i < blockCount; i++) {
+            bytes += blockLength[i];
+        }
+
+        return bytes;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void append(int value, int[] positions) {
+        if (blockCount == 0 || blockSize[blockCount - 1] >= BLOCK_SIZE) {
+            insertBlock(blockCount);
+            blockFirst[blockCount - 1] = value;
+            writeEntry(blockCount - 1, value, positions);
+        } else {
+            writeEntry(blockCount - 1, value - last, positions);
+        }
+
+        blockSize[blockCount - 1]++;
+        last = value;
+        size++;
+    }
+
+    private int findBlock(int value) {
+        int block = Arrays.binarySearch(blockFirst, 0, blockCount, value);
+
+        return block >= 0 ? block : Math.max(0, -block - 2);
+    }
+
+    private Block decode(int block) {
+        Block decoded = new Block(blockSize[block] + 1);
+        Cursor cursor = new Cursor(block);
+
+        for (int i = 0; i < blockSize[block]; i++) {
+            decoded.values[i] = cursor.next();
+
+            if (positional) {
+                decoded.positions[i] = cursor.positions();
+            }
+        }
+
+        decoded.size = blockSize[block];
+        return decoded;
+    }
+
+    private void encode(int block, Block decoded, int from, int to) {
+        blockLength[block] = 0;
+        blockFirst[block] = decoded.values[from];
+        blockSize[block] = to - from;
+
+        for (int i = from; i < to; i++) {
+            writeEntry(block, i == from ? decoded.values[i] : decoded.values[i] - decoded.values[i - 1],
+                    positional ? decoded.positions[i] : NO_POSITIONS);
+        }
+    }
+
+    private void insertBlock(int block) {
+        if (blockCount == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blockCount * 2);
+            blockLength = Arrays.copyOf(blockLength, blockCount * 2);
+            blockFirst = Arrays.copyOf(blockFirst, blockCount * 2);
+            blockSize = Arrays.copyOf(blockSize, blockCount * 2);
+        }
+
+        int moved = blockCount - block;
+        System.arraycopy(blocks, block, blocks, block + 1, moved);
+        System.arraycopy(blockLength, block, blockLength, block + 1, moved);
+        System.arraycopy(blockFirst, block, blockFirst, block + 1, moved);
+        System.arraycopy(blockSize, block, blockSize, block + 1, moved);
+
+        blocks[block] = null;
+        blockLength[block] = 0;
+        blockSize[block] = 0;
+        blockCount++;
+    }
+
+    private void deleteBlock(int block) {
+        int moved = blockCount - block - 1;
+        System.arraycopy(blocks, block + 1, blocks, block, moved);
+        System.arraycopy(blockLength, block + 1, blockLength, block, moved);
+        System.arraycopy(blockFirst, block + 1, blockFirst, block, moved);
+        System.arraycopy(blockSize, block + 1, blockSize, block, moved);
+
+        blockCount--;
+        blocks[blockCount] = null;
+    }
+
+    private void writeEntry(int block, int delta, int[] positions) {
+        writeVarint(block, delta);
+
+        if (positional) {
+            writeVarint(block, positions.length);
+
+            for (int i = 0; i < positions.length; i++) {
+                writeVarint(block, i == 0 ? positions[i] : positions[i] - positions[i - 1]);
+            }
+        }
+    }
+
+    private void writeVarint(int block, int value) {
+        byte[] bytes = blocks[block];
+        int length = blockLength[block];
+
+        if (bytes == null) {
+            bytes = new byte[16];
+        } else if (length + 5 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+
+        while ((value & ~0x7F) != 0) {
+            bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        bytes[length++] = (byte) value;
+        blocks[block] = bytes;
+        blockLength[block] = length;
+    }
+
+    private static class Block {
+        private final int[] values;
+        private final int[][] positions;
+        private int size;
+
+        private Block(int capacity) {
+            values = new int[capacity];
+            positions = new int[capacity][];
+        }
+
+        private void insert(int index, int value, int[] valuePositions) {
+            System.arraycopy(values, index, values, index + 1, size - index);
+            System.arraycopy(positions, index, positions, index + 1, size - index);
+            values[index] = value;
+            positions[index] = valuePositions;
+            size++;
+        }
+
+        private void delete(int index) {
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            System.arraycopy(positions, index + 1, positions, index, size - index - 1);
+            size--;
+        }
+    }
+
+    class Cursor {
+        private int block;
+        private int index;
+        private int offset;
+        private int value;
+        private int positionsOffset;
+        private int positionsCount;
+        private boolean started;
+
+        private Cursor() {
+        }
+
+        private Cursor(int block) {
+            this.block = block;
+        }
+
+        boolean hasNext() {
+            return block < blockCount && (index < blockSize[block] || block + 1 < blockCount);
+        }
+
+        int next() {
+            if (index == blockSize[block]) {
+                moveTo(block + 1);
+            }
+
+            int delta = readVarint();
+
+            value = index == 0 ? delta : value + delta;
+            index++;
+            started = true;
+
+            if (positional) {
+                positionsCount = readVarint();
+                positionsOffset = offset;
+
+                for (int i = 0; i < positionsCount; i++) {
+                    readVarint();
+                }
+            }
+
+            return value;
+        }
+
+        int advance(int target) {
+            if (started && value >= target) {
+                return value;
+            }
+
+            int targetBlock = findBlock(target);
+
+            if (targetBlock > block) {
+                moveTo(targetBlock);
+            }
+
+            while (hasNext()) {
+                if (next() >= target) {
+                    return value;
+                }
+            }
+
+            return -1;
+        }
+
+        int[] positions() {
+            int[] result = new int[positionsCount];
+            int end = offset;
+
+            offset = positionsOffset;
+            for (int i = 0; i < positionsCount; i++) {
+                result[i] = i == 0 ? readVarint() : result[i - 1] + readVarint();
+            }
+            offset = end;
+
+            return result;
+        }
+
+        private void moveTo(int nextBlock) {
+            block = nextBlock;
+            index = 0;
+            offset = 0;
+        }
+
+        private int readVarint() {
+            byte[] bytes = blocks[block];
+            int result = 0;
+            int shift = 0;
+            byte current;
+
+            do {
+                current = bytes[offset++];
+                result |= (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package ru.practicum.main_service.event.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.main_service.event.dto.ParticipationRequestDto;
+import ru.practicum.main_service.event.enums.EventState;
+import ru.practicum.main_service.event.enums.RequestStatus;
+import ru.practicum.main_service.event.mapper.RequestMapper;
+import ru.practicum.main_service.event.model.Event;
+import ru.practicum.main_service.event.model.Request;
+import ru.practicum.main_service.event.repository.EventRepository;
+import ru.practicum.main_service.event.repository.RequestRepository;
+import ru.practicum.main_service.exception.ForbiddenException;
+import ru.practicum.main_service.exception.NotFoundException;
+import ru.practicum.main_service.exception.TooManyRequestsException;
+import ru.practicum.main_service.user.model.User;
+import ru.practicum.main_service.user.repository.UserRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class RequestAdmissionQueue {
+    private static final long POLL_TIMEOUT_MS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
+    private final EventRepository eventRepository;
+    private final RequestRepository requestRepository;
+    private final UserRepository userRepository;
+    private final RequestMapper requestMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Long> eventIds;
+    private final List<BlockingQueue<Ticket>> shards;
+    private final List<Thread> workers;
+    private final int batchSize;
+    private final long replyTimeoutMs;
+    private final long retryAfterSeconds;
+    private volatile boolean running;
+
+    @Autowired
+    public RequestAdmissionQueue(EventRepository eventRepository,
+                                 RequestRepository requestRepository,
+                                 UserRepository userRepository,
+                                 RequestMapper requestMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${requests.admission.event-ids:}") Set<Long> eventIds,
+                                 @Value("${requests.admission.shards:4}") int shards,
+                                 @Value("${requests.admission.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${requests.admission.batch-size:100}") int batchSize,
+                                 @Value("${requests.admission.reply-timeout-ms:1000}") long replyTimeoutMs) {
+        if (shards <= 0 || queueCapacity <= 0 || batchSize <= 0 || replyTimeoutMs <= 0) {
+            throw new IllegalArgumentException("Параметры очереди заявок на участие должны быть положительными.");
+        }
+
+        this.eventRepository = eventRepository;
+        this.requestRepository = requestRepository;
+        this.userRepository = userRepository;
+        this.requestMapper = requestMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventIds = Set.copyOf(eventIds);
+        this.batchSize = batchSize;
+        this.replyTimeoutMs = replyTimeoutMs;
+        this.retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(replyTimeoutMs + 999));
+        this.shards = new ArrayList<>(shards);
+        this.workers = new ArrayList<>(shards);
+
+        for (int i = 0; i < shards; i++) {
+            BlockingQueue<Ticket> shard = new ArrayBlockingQueue<>(queueCapacity);
+            Thread worker = new Thread(() -> drainLoop(shard), "request-admission-" + (i + 1));
+            worker.setDaemon(true);
+
+            this.shards.add(shard);
+            this.workers.add(worker);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+
+        running = true;
+        workers.forEach(Thread::start);
+
+        log.info("Очередь заявок на участие запущена для событий {}", eventIds);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+
+        for (Thread worker : workers) {
+            if (worker.isAlive()) {
+                try {
+                    worker.join(SHUTDOWN_TIMEOUT_MS);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        for (BlockingQueue<Ticket> shard : shards) {
+            List<Ticket> remaining = new ArrayList<>(shard.size());
+            shard.drainTo(remaining);
+
+            for (int i = 0; i < remaining.size(); i += batchSize) {
+                admit(remaining.subList(i, Math.min(i + batchSize, remaining.size())));
+            }
+        }
+    }
+
+    public boolean isEnabled(Long eventId) {
+        return eventIds.contains(eventId);
+    }
+
+    public Optional<ParticipationRequestDto> submit(Long userId, Long eventId) {
+        log.info("Постановка в очередь запроса на участие в событии с id {} пользователем с id {}", eventId, userId);
+
+        Ticket ticket = new Ticket(userId, eventId, LocalDateTime.now());
+
+        if (!running || !shards.get(Math.floorMod(eventId.hashCode(), shards.size())).offer(ticket)) {
+            throw new TooManyRequestsException("Очередь заявок на участие в событии переполнена, повторите запрос позже.",
+                    retryAfterSeconds);
+        }
+
+        try {
+            return Optional.of(ticket.getResult().get(replyTimeoutMs, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException exception) {
+            log.info("Запрос на участие в событии с id {} пользователем с id {} еще обрабатывается", eventId, userId);
+            return Optional.empty();
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw new IllegalStateException(exception.getCause());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private void drainLoop(BlockingQueue<Ticket> shard) {
+        List<Ticket> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                Ticket ticket = shard.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+                if (ticket != null) {
+                    batch.add(ticket);
+                    shard.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException exception) {
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                admit(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    private void admit(List<Ticket> batch) {
+        Map<Long, List<Ticket>> byEvent = batch.stream()
+                .collect(Collectors.groupingBy(Ticket::getEventId, LinkedHashMap::new, Collectors.toList()));
+
+        byEvent.forEach((eventId, tickets) -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> admitEventRequests(eventId, tickets));
+            } catch (RuntimeException exception) {
+                log.warn("Не удалось обработать {} запросов на участие в событии с id {}: {}",
+                        tickets.size(), eventId, exception.getMessage());
+                tickets.forEach(ticket -> ticket.setError(exception));
+            }
+
+            tickets.forEach(Ticket::complete);
+        });
+    }
+
+    private void admitEventRequests(Long eventId, List<Ticket> tickets) {
+        Optional<Event> optionalEvent = eventRepository.findByIdForUpdate(eventId);
+
+        if (optionalEvent.isEmpty()) {
+            tickets.forEach(ticket -> ticket.setError(new NotFoundException("События с таким id не существует.")));
+            return;
+        }
+
+        Event event = optionalEvent.get();
+
+        if (!event.getState().equals(EventState.PUBLISHED)) {
+            tickets.forEach(ticket -> ticket.setError(
+                    new ForbiddenException("Нельзя создавать запрос на неопубликованное событие.")));
+            return;
+        }
+
+        List<Long> userIds = tickets.stream()
+                .map(Ticket::getUserId)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Set<Long> requesters = requestRepository.findAllByEventIdAndRequesterIdIn(eventId, userIds).stream()
+                .map(request -> request.getRequester().getId())
+                .collect(Collectors.toCollection(HashSet::new));
+
+        boolean confirm = !event.getRequestModeration() || event.getParticipantLimit() == 0;
+        long free = event.getParticipantLimit() == 0 ? Long.MAX_VALUE :
+                event.getParticipantLimit() - event.getConfirmedRequests();
+        List<Ticket> accepted = new ArrayList<>();
+        List<Request> requests = new ArrayList<>();
+
+        for (Ticket ticket : tickets) {
+            User user = users.get(ticket.getUserId());
+
+            if (user == null) {
+                ticket.setError(new NotFoundException("Пользователя с таким id не существует."));
+            } else if (Objects.equals(event.getInitiator().getId(), user.getId())) {
+                ticket.setError(new ForbiddenException("Нельзя создавать запрос на собственное событие."));
+            } else if (!requesters.add(user.getId())) {
+                ticket.setError(new ForbiddenException("Создавать повторный запрос запрещено."));
+            } else if (free <= 0) {
+                ticket.setError(new ForbiddenException(String.format(
+                        "Достигнут лимит подтвержденных запросов на участие: %d", event.getParticipantLimit())));
+            } else {
+                if (confirm) {
+                    free--;
+                }
+
+                accepted.add(ticket);
+                requests.add(Request.builder()
+                        .event(event)
+                        .requester(user)
+                        .created(ticket.getCreated())
+                        .status(confirm ? RequestStatus.CONFIRMED : RequestStatus.PENDING)
+                        .build());
+            }
+        }
+
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        if (confirm) {
+            eventRepository.addConfirmedRequests(eventId, requests.size());
+        }
+
+        List<Request> savedRequests = requestRepository.saveAll(requests);
+
+        for (int i = 0; i < accepted.size(); i++) {
+            accepted.get(i).setRequest(requestMapper.toParticipationRequestDto(savedRequests.get(i)));
+        }
+
+        log.info("Обработано {} запросов на участие в событии с id {}, принято {}",
+                tickets.size(), eventId, accepted.size());
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class Ticket {
+        private final Long userId;
+        private final Long eventId;
+        private final LocalDateTime created;
+        private final CompletableFuture<ParticipationRequestDto> result = new CompletableFuture<>();
+        private ParticipationRequestDto request;
+        private RuntimeException error;
+
+        private void setRequest(ParticipationRequestDto request) {
+            this.request = request;
+        }
+
+        private void setError(RuntimeException error) {
+            this.request = null;
+            this.error = error;
+        }
+
+        private void complete() {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(request);
+            }
+        }
+    }
+}
@@ -13,6 +13,7 @@ import ru.practicum.main_service.event.enums.RequestStatusAction;
 import ru.practicum.main_service.event.mapper.RequestMapper;
 import ru.practicum.main_service.event.model.Event;
 import ru.practicum.main_service.event.model.Request;
+import ru.practicum.main_service.event.repository.EventRepository;
 import ru.practicum.main_service.event.repository.RequestRepository;
 import ru.practicum.main_service.exception.ForbiddenException;
 import ru.practicum.main_service.exception.NotFoundException;
@@ -33,7 +34,7 @@ import java.util.stream.Collectors;
 public class RequestServiceImpl implements RequestService {
     private final UserService userService;
     private final EventService eventService;
-    private final StatsService statsService;
+    private final EventRepository eventRepository;
     private final RequestRepository requestRepository;
     private final RequestMapper requestMapper;
 
@@ -68,10 +69,7 @@ public class RequestServiceImpl implements RequestService {
             throw new ForbiddenException("Создавать повторный запрос запрещено.");
         }
 
-        checkIsNewLimitGreaterOld(
-                statsService.getConfirmedRequests(List.of(event)).getOrDefault(eventId, 0L) + 1,
-                event.getParticipantLimit()
-        );
+        checkIsNewLimitGreaterOld(event.getConfirmedRequests() + 1, event.getParticipantLimit());
 
         Request newRequest = Request.builder()
                 .event(event)
@@ -85,6 +83,10 @@ public class RequestServiceImpl implements RequestService {
             newRequest.setStatus(RequestStatus.PENDING);
         }
 
+        if (newRequest.getStatus().equals(RequestStatus.CONFIRMED)) {
+            admitConfirmedRequests(event, 1);
+        }
+
         return requestMapper.toParticipationRequestDto(requestRepository.save(newRequest));
     }
 
@@ -100,6 +102,10 @@ public class RequestServiceImpl implements RequestService {
 
         checkUserIsOwner(request.getRequester().getId(), userId);
 
+        if (RequestStatus.CONFIRMED.equals(request.getStatus())) {
+            addConfirmedRequests(request.getEvent(), -1);
+        }
+
         request.setStatus(RequestStatus.CANCELED);
 
         return requestMapper.toParticipationRequestDto(requestRepository.save(request));
@@ -150,17 +156,22 @@ public class RequestServiceImpl implements RequestService {
             throw new ForbiddenException("Изменять можно только заявки, находящиеся в ожидании.");
         }
 
+        if (!requests.stream()
+                .map(request -> request.getEvent().getId())
+                .allMatch(eventId::equals)) {
+            throw new ForbiddenException("Изменять можно только заявки на участие в этом событии.");
+        }
+
         if (eventRequestStatusUpdateRequest.getStatus().equals(RequestStatusAction.REJECTED)) {
             rejectedList.addAll(changeStatusAndSave(requests, RequestStatus.REJECTED));
         } else {
-            Long newConfirmedRequests = statsService.getConfirmedRequests(List.of(event)).getOrDefault(eventId, 0L) +
-                    eventRequestStatusUpdateRequest.getRequestIds().size();
+            checkIsNewLimitGreaterOld(event.getConfirmedRequests() + requests.size(), event.getParticipantLimit());
 
-            checkIsNewLimitGreaterOld(newConfirmedRequests, event.getParticipantLimit());
+            admitConfirmedRequests(event, requests.size());
 
             confirmedList.addAll(changeStatusAndSave(requests, RequestStatus.CONFIRMED));
 
-            if (newConfirmedRequests >= event.getParticipantLimit()) {
+            if (event.getConfirmedRequests() >= event.getParticipantLimit()) {
                 rejectedList.addAll(changeStatusAndSave(
                         requestRepository.findAllByEventIdAndStatus(eventId, RequestStatus.PENDING),
                         RequestStatus.REJECTED)
@@ -183,13 +194,30 @@ public class RequestServiceImpl implements RequestService {
         return requestRepository.saveAll(requests);
     }
 
+    private void admitConfirmedRequests(Event event, long count) {
+        if (eventRepository.admitConfirmedRequests(event.getId(), count) == 0) {
+            throw limitReached(event.getParticipantLimit());
+        }
+
+        event.setConfirmedRequests(eventRepository.getConfirmedRequests(event.getId()));
+    }
+
+    private void addConfirmedRequests(Event event, long delta) {
+        eventRepository.addConfirmedRequests(event.getId(), delta);
+        event.setConfirmedRequests(eventRepository.getConfirmedRequests(event.getId()));
+    }
+
     private void checkIsNewLimitGreaterOld(Long newLimit, Integer eventParticipantLimit) {
         if (eventParticipantLimit != 0 && (newLimit > eventParticipantLimit)) {
-            throw new ForbiddenException(String.format("Достигнут лимит подтвержденных запросов на участие: %d",
-                    eventParticipantLimit));
+            throw limitReached(eventParticipantLimit);
         }
     }
 
+    private ForbiddenException limitReached(Integer eventParticipantLimit) {
+        return new ForbiddenException(String.format("Достигнут лимит подтвержденных запросов на участие: %d",
+                eventParticipantLimit));
+    }
+
     private void checkUserIsOwner(Long id, Long userId) {
         if (!Objects.equals(id, userId)) {
             throw new ForbiddenException("Пользователь не является владельцем.");
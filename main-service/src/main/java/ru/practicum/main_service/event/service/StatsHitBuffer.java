@@ -0,0 +1,159 @@
+package ru.practicum.main_service.event.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import ru.practicum.main_service.event.enums.HitOverflowPolicy;
+import ru.practicum.stats_client.StatsClient;
+import ru.practicum.stats_common.model.EndpointHit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@Slf4j
+public class StatsHitBuffer {
+    private static final long POLL_TIMEOUT_MS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
+    private final StatsClient statsClient;
+    private final BlockingQueue<EndpointHit> queue;
+    private final int flushSize;
+    private final long flushIntervalMs;
+    private final HitOverflowPolicy overflowPolicy;
+    private final AtomicLong droppedHits = new AtomicLong();
+    private final Thread worker;
+    private volatile boolean running;
+
+    @Autowired
+    public StatsHitBuffer(StatsClient statsClient,
+                          @Value("${stats-server.hits.buffer-capacity:10000}") int capacity,
+                          @Value("${stats-server.hits.flush-size:100}") int flushSize,
+                          @Value("${stats-server.hits.flush-interval-ms:1000}") long flushIntervalMs,
+                          @Value("${stats-server.hits.overflow-policy:DROP}") HitOverflowPolicy overflowPolicy) {
+        if (capacity <= 0 || flushSize <= 0 || flushIntervalMs <= 0) {
+            throw new IllegalArgumentException("Параметры буфера обращений должны быть положительными.");
+        }
+
+        this.statsClient = statsClient;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.flushSize = flushSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.overflowPolicy = overflowPolicy;
+        this.worker = new Thread(this::drainLoop, "stats-hit-flusher");
+        this.worker.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+
+        if (worker.isAlive()) {
+            try {
+                worker.join(SHUTDOWN_TIMEOUT_MS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        List<EndpointHit> remaining = new ArrayList<>(queue.size());
+        queue.drainTo(remaining);
+
+        for (int i = 0; i < remaining.size(); i += flushSize) {
+            flush(remaining.subList(i, Math.min(i + flushSize, remaining.size())));
+        }
+
+        log.info("Буфер обращений остановлен, отправлено при остановке {}, отброшено за время работы {}",
+                remaining.size(), droppedHits.get());
+    }
+
+    public void add(EndpointHit endpointHit) {
+        if (overflowPolicy == HitOverflowPolicy.BLOCK) {
+            try {
+                queue.put(endpointHit);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                droppedHits.incrementAndGet();
+            }
+        } else if (!queue.offer(endpointHit)) {
+            long dropped = droppedHits.incrementAndGet();
+            log.warn("Буфер обращений переполнен, обращение {} отброшено. Всего отброшено: {}", endpointHit, dropped);
+        }
+    }
+
+    public long getDroppedHits() {
+        return droppedHits.get();
+    }
+
+    private void drainLoop() {
+        List<EndpointHit> batch = new ArrayList<>(flushSize);
+        long deadline = System.currentTimeMillis() + flushIntervalMs;
+
+        while (running) {
+            try {
+                EndpointHit endpointHit = queue.poll(
+                        Math.min(POLL_TIMEOUT_MS, Math.max(0, deadline - System.currentTimeMillis())),
+                        TimeUnit.MILLISECONDS);
+
+                if (endpointHit != null) {
+                    batch.add(endpointHit);
+                    queue.drainTo(batch, flushSize - batch.size());
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+
+            if (batch.size() >= flushSize || System.currentTimeMillis() >= deadline) {
+                flush(batch);
+                batch = new ArrayList<>(flushSize);
+                deadline = System.currentTimeMillis() + flushIntervalMs;
+            }
+        }
+
+        flush(batch);
+    }
+
+    private void flush(List<EndpointHit> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            statsClient.addHits(batch);
+        } catch (RestClientResponseException exception) {
+            if (exception.getRawStatusCode() == HttpStatus.BAD_REQUEST.value() && batch.size() > 1) {
+                log.warn("Сервер статистики отклонил пакет из {} обращений, отправка по одному", batch.size());
+                batch.forEach(this::flushSingle);
+            } else {
+                log.warn("Не удалось отправить {} обращений на сервер статистики: {}", batch.size(),
+                        exception.getMessage());
+            }
+        } catch (RuntimeException exception) {
+            log.warn("Не удалось отправить {} обращений на сервер статистики: {}", batch.size(), exception.getMessage());
+        }
+    }
+
+    private void flushSingle(EndpointHit endpointHit) {
+        try {
+            statsClient.addHit(endpointHit);
+        } catch (RuntimeException exception) {
+            log.warn("Не удалось отправить обращение {} на сервер статистики: {}", endpointHit, exception.getMessage());
+        }
+    }
+}
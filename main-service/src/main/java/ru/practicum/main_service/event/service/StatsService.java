@@ -7,13 +7,16 @@ import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface StatsService {
     void addHit(HttpServletRequest request);
 
     List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique);
 
-    Map<Long, Long> getViews(List<Event> events);
+    CompletableFuture<Map<Long, Long>> getViewsAsync(List<Event> events);
+
+    Map<Long, Long> getViewsByPublishedOn(Map<Long, LocalDateTime> publishedOn);
 
     Map<Long, Long> getConfirmedRequests(List<Event> events);
 }
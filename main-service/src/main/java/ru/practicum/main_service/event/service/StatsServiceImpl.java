@@ -1,27 +1,26 @@
 package ru.practicum.main_service.event.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.main_service.MainCommonUtils;
 import ru.practicum.main_service.event.model.Event;
-import ru.practicum.main_service.event.repository.RequestRepository;
+import ru.practicum.stats_client.StatsAsyncClient;
 import ru.practicum.stats_client.StatsClient;
+import ru.practicum.stats_common.StatsCommonUtils;
+import ru.practicum.stats_common.model.EndpointHit;
 import ru.practicum.stats_common.model.ViewStats;
 
 import javax.servlet.http.HttpServletRequest;
-import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,18 +29,29 @@ import java.util.stream.Collectors;
 @Slf4j
 public class StatsServiceImpl implements StatsService {
     private final StatsClient statsClient;
-    private final RequestRepository requestRepository;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final StatsAsyncClient statsAsyncClient;
+    private final StatsHitBuffer statsHitBuffer;
+    private final EventViewsCache eventViewsCache;
 
     @Value(value = "${app.name}")
     private String appName;
 
+    @Value(value = "${stats-server.views.timeout-ms:1000}")
+    private long viewsTimeoutMs;
+
+    @Value(value = "${stats-server.client.async:false}")
+    private boolean asyncClient;
+
     @Override
     public void addHit(HttpServletRequest request) {
         log.info("Отправлен запрос на регистрацию обращения к серверу статистики с параметрами request = {}", request);
 
-        statsClient.addHit(appName, request.getRequestURI(), request.getRemoteAddr(),
-                LocalDateTime.parse(LocalDateTime.now().format(MainCommonUtils.DT_FORMATTER), MainCommonUtils.DT_FORMATTER));
+        statsHitBuffer.add(EndpointHit.builder()
+                .app(appName)
+                .uri(request.getRequestURI())
+                .ip(request.getRemoteAddr())
+                .timestampMillis(StatsCommonUtils.toEpochMillis(LocalDateTime.now()))
+                .build());
     }
 
     @Override
@@ -49,64 +59,63 @@ public class StatsServiceImpl implements StatsService {
         log.info("Отправлен запрос на получение статистики к серверу статистики с параметрами " +
                         "start = {}, end = {}, uris = {}, unique = {}", start, end, uris, unique);
 
-        ResponseEntity<Object> response = statsClient.getStats(start, end, uris, unique);
-
-        try {
-            return Arrays.asList(mapper.readValue(mapper.writeValueAsString(response.getBody()), ViewStats[].class));
-        } catch (IOException exception) {
-            throw new ClassCastException(exception.getMessage());
-        }
+        return statsClient.getStats(start, end, uris, unique);
     }
 
     @Override
-    public Map<Long, Long> getViews(List<Event> events) {
+    public CompletableFuture<Map<Long, Long>> getViewsAsync(List<Event> events) {
         log.info("Отправлен запрос на получение статистики неуникальных посещений в виде Map<eventId, count> " +
                 "для списка событий.");
 
-        Map<Long, Long> views = new HashMap<>();
+        return getViewsByPublishedOnAsync(getPublished(events).stream()
+                .collect(Collectors.toMap(Event::getId, Event::getPublishedOn, (first, second) -> first)));
+    }
 
-        List<Event> publishedEvents = getPublished(events);
+    @Override
+    public Map<Long, Long> getViewsByPublishedOn(Map<Long, LocalDateTime> publishedOn) {
+        return getViewsByPublishedOnAsync(publishedOn).join();
+    }
 
-        if (events.isEmpty()) {
-            return views;
+    private CompletableFuture<Map<Long, Long>> getViewsByPublishedOnAsync(Map<Long, LocalDateTime> publishedOn) {
+        if (publishedOn.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
         }
 
-        Optional<LocalDateTime> minPublishedOn = publishedEvents.stream()
-                .map(Event::getPublishedOn)
-                .filter(Objects::nonNull)
-                .min(LocalDateTime::compareTo);
-
-        if (minPublishedOn.isPresent()) {
-            LocalDateTime start = minPublishedOn.get();
-            LocalDateTime end = LocalDateTime.now();
-            List<String> uris = publishedEvents.stream()
-                    .map(Event::getId)
-                    .map(id -> ("/events/" + id))
-                    .collect(Collectors.toList());
-
-            List<ViewStats> stats = getStats(start, end, uris, null);
-            stats.forEach(stat -> {
-                Long eventId = Long.parseLong(stat.getUri()
-                        .split("/", 0)[2]);
-                views.put(eventId, views.getOrDefault(eventId, 0L) + stat.getHits());
-            });
-        }
+        CompletableFuture<Map<Long, Long>> views = asyncClient
+                ? eventViewsCache.getAllNonBlocking(publishedOn.keySet(), eventIds -> loadViewsAsync(eventIds, publishedOn))
+                : eventViewsCache.getAllAsync(publishedOn.keySet(), eventIds -> loadViews(eventIds, publishedOn));
 
-        return views;
+        return views.orTimeout(viewsTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(exception -> {
+                    log.warn("Не удалось получить просмотры событий {} с сервера статистики, использованы " +
+                            "сохраненные значения: {}", publishedOn.keySet(), exception.toString());
+                    return eventViewsCache.getAllPresent(publishedOn.keySet());
+                });
+    }
+
+    private Map<Long, Long> loadViews(Set<Long> eventIds, Map<Long, LocalDateTime> publishedOn) {
+        return statsClient.getEventViews(getStart(eventIds, publishedOn), LocalDateTime.now(),
+                new ArrayList<>(eventIds), null);
+    }
+
+    private CompletableFuture<Map<Long, Long>> loadViewsAsync(Set<Long> eventIds,
+                                                              Map<Long, LocalDateTime> publishedOn) {
+        return statsAsyncClient.getEventViews(getStart(eventIds, publishedOn), LocalDateTime.now(),
+                new ArrayList<>(eventIds), null);
+    }
+
+    private LocalDateTime getStart(Set<Long> eventIds, Map<Long, LocalDateTime> publishedOn) {
+        return eventIds.stream()
+                .map(publishedOn::get)
+                .min(LocalDateTime::compareTo)
+                .orElseThrow();
     }
 
     @Override
     public Map<Long, Long> getConfirmedRequests(List<Event> events) {
-        List<Long> eventsId = getPublished(events).stream()
-                .map(Event::getId)
-                .collect(Collectors.toList());
-
         Map<Long, Long> requestStats = new HashMap<>();
 
-        if (!eventsId.isEmpty()) {
-            requestRepository.getConfirmedRequests(eventsId)
-                    .forEach(stat -> requestStats.put(stat.getEventId(), stat.getConfirmedRequests()));
-        }
+        getPublished(events).forEach(event -> requestStats.put(event.getId(), event.getConfirmedRequests()));
 
         return requestStats;
     }
@@ -4,7 +4,9 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -43,7 +45,8 @@ public class ErrorHandler {
                 LocalDateTime.now().format(MainCommonUtils.DT_FORMATTER));
     }
 
-    @ExceptionHandler({MethodArgumentTypeMismatchException.class, ConstraintViolationException.class})
+    @ExceptionHandler({MethodArgumentTypeMismatchException.class, ConstraintViolationException.class,
+            BadRequestException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ApiError handleValidationException(final RuntimeException exception) {
         log.error(exception.toString());
@@ -87,6 +90,18 @@ public class ErrorHandler {
                 LocalDateTime.now().format(MainCommonUtils.DT_FORMATTER));
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiError> handleTooManyRequestsException(final TooManyRequestsException exception) {
+        log.error(exception.toString());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(new ApiError(HttpStatus.TOO_MANY_REQUESTS.name(),
+                        "Too many requests.",
+                        exception.getMessage(),
+                        getErrors(exception),
+                        LocalDateTime.now().format(MainCommonUtils.DT_FORMATTER)));
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ApiError handleException(final RuntimeException exception) {
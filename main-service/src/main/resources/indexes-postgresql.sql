@@ -0,0 +1,5 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS ix_events_annotation_trgm ON events USING GIN (lower(annotation) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS ix_events_description_trgm ON events USING GIN (lower(description) gin_trgm_ops);
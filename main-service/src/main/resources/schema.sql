@@ -33,7 +33,9 @@ CREATE TABLE IF NOT EXISTS events
     title VARCHAR(120) NOT NULL,
     category_id BIGINT REFERENCES categories (id),
     user_id BIGINT REFERENCES users (id) ON DELETE CASCADE,
-    location_id BIGINT REFERENCES locations (id)
+    location_id BIGINT REFERENCES locations (id),
+    confirmed_requests BIGINT NOT NULL DEFAULT 0,
+    views BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS requests
@@ -66,4 +68,25 @@ CREATE TABLE IF NOT EXISTS comments
     text VARCHAR(7000) NOT NULL,
     author_id BIGINT REFERENCES users (id) ON DELETE CASCADE,
     event_id BIGINT REFERENCES events (id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+ALTER TABLE events ADD COLUMN IF NOT EXISTS confirmed_requests BIGINT;
+
+UPDATE events AS e
+SET confirmed_requests = (SELECT COUNT(r.id) FROM requests AS r WHERE r.event_id = e.id AND r.status = 'CONFIRMED')
+WHERE EXISTS (SELECT 1 FROM information_schema.columns AS c
+              WHERE LOWER(c.table_name) = 'events' AND LOWER(c.column_name) = 'confirmed_requests'
+              AND c.is_nullable = 'YES')
+AND e.confirmed_requests IS NULL;
+
+ALTER TABLE events ALTER COLUMN confirmed_requests SET DEFAULT 0;
+
+ALTER TABLE events ALTER COLUMN confirmed_requests SET NOT NULL;
+
+ALTER TABLE events ADD COLUMN IF NOT EXISTS views BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS ix_events_state_event_date ON events (state, event_date, category_id, paid);
+
+CREATE INDEX IF NOT EXISTS ix_events_state_views ON events (state, views, id);
+
+CREATE INDEX IF NOT EXISTS ix_requests_event_id_status ON requests (event_id, status);
@@ -0,0 +1,39 @@
+package ru.practicum.main_service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.PropertySourcesPlaceholdersResolver;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.sql.init.DatabaseInitializationSettings;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SqlInitializationTest {
+    @Test
+    public void shouldCreateTablesBeforePostgresIndexes() throws IOException {
+        MutablePropertySources propertySources = new MutablePropertySources();
+        propertySources.addFirst(new PropertiesPropertySourceLoader()
+                .load("application.properties", new ClassPathResource("application.properties")).get(0));
+
+        SqlInitializationProperties properties = new Binder(ConfigurationPropertySources.from(propertySources),
+                new PropertySourcesPlaceholdersResolver(propertySources))
+                .bind("spring.sql.init", SqlInitializationProperties.class)
+                .get();
+        DatabaseInitializationSettings settings = SqlDataSourceScriptDatabaseInitializer.getSettings(properties);
+
+        assertEquals("postgresql", properties.getPlatform());
+        assertEquals(List.of("classpath:schema.sql", "optional:classpath:indexes-postgresql.sql"),
+                settings.getSchemaLocations());
+        assertTrue(new ClassPathResource("schema.sql").exists());
+        assertTrue(new ClassPathResource("indexes-postgresql.sql").exists());
+    }
+}
@@ -1,11 +1,14 @@
 package ru.practicum.main_service.compilation;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.annotation.DirtiesContext;
@@ -23,7 +26,10 @@ import ru.practicum.main_service.user.model.User;
 import ru.practicum.main_service.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -37,6 +43,7 @@ public class CompilationRepositoryTest {
     private final LocationRepository locationRepository;
     private final EventRepository eventRepository;
     private final CompilationRepository compilationRepository;
+    private final TestEntityManager entityManager;
 
     private final User user = User.builder()
             .id(1L)
@@ -137,6 +144,88 @@ public class CompilationRepositoryTest {
         }
     }
 
+    @Nested
+    class FindWithEventsById {
+        @Test
+        public void shouldGetWithEvents() {
+            Optional<Compilation> compilationFromRepository = compilationRepository.findWithEventsById(compilation1.getId());
+
+            assertTrue(compilationFromRepository.isPresent());
+            checkResult(compilation1, compilationFromRepository.get());
+        }
+
+        @Test
+        public void shouldGetEmptyIfNotFound() {
+            assertTrue(compilationRepository.findWithEventsById(99L).isEmpty());
+        }
+    }
+
+    @Nested
+    class FindAllWithEventsByIdIn {
+        @Test
+        public void shouldNotDependOnPageSize() {
+            List<Long> compIds = new ArrayList<>();
+
+            for (int i = 0; i < 10; i++) {
+                List<Event> events = new ArrayList<>();
+
+                for (int j = 0; j < 2; j++) {
+                    events.add(eventRepository.save(Event.builder()
+                            .annotation("annotation " + i + j)
+                            .description("description " + i + j)
+                            .title("title " + i + j)
+                            .createdOn(LocalDateTime.now())
+                            .paid(false)
+                            .state(EventState.PUBLISHED)
+                            .location(locationRepository.save(Location.builder().lat((float) i).lon((float) j).build()))
+                            .category(categoryRepository.save(Category.builder().name("category " + i + j).build()))
+                            .initiator(userRepository.save(User.builder()
+                                    .name("user " + i + j)
+                                    .email("user" + i + j + "@email.ru")
+                                    .build()))
+                            .participantLimit(0)
+                            .eventDate(LocalDateTime.now().plusHours(3))
+                            .requestModeration(false)
+                            .build()));
+                }
+
+                compIds.add(compilationRepository.save(Compilation.builder()
+                        .title("compilation " + i)
+                        .pinned(false)
+                        .events(events)
+                        .build()).getId());
+            }
+
+            long small = countStatements(compIds.subList(0, 2));
+            long large = countStatements(compIds);
+
+            assertEquals(1, small);
+            assertEquals(small, large);
+        }
+
+        private long countStatements(List<Long> compIds) {
+            entityManager.flush();
+            entityManager.clear();
+
+            Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                    .unwrap(SessionFactory.class).getStatistics();
+            statistics.setStatisticsEnabled(true);
+            statistics.clear();
+
+            List<Compilation> compilations = compilationRepository.findAllWithEventsByIdIn(compIds);
+
+            assertEquals(compIds.size(), compilations.size());
+            assertEquals(compIds.size() * 2L, compilations.stream()
+                    .flatMap(compilation -> compilation.getEvents().stream())
+                    .map(event -> event.getCategory().getName() + event.getLocation().getLat() +
+                            event.getInitiator().getName())
+                    .collect(Collectors.toList())
+                    .size());
+
+            return statistics.getPrepareStatementCount();
+        }
+    }
+
     private void checkResult(Compilation compilation, Compilation compilationFromRepository) {
         assertEquals(compilation.getId(), compilationFromRepository.getId());
         assertEquals(compilation.getTitle(), compilationFromRepository.getTitle());
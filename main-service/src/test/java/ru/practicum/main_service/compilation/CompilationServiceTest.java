@@ -152,7 +152,7 @@ public class CompilationServiceTest {
             when(eventService.getEventsByIds(any())).thenReturn(List.of(event1, event2));
             when(compilationMapper.newDtoToCompilation(any(), any())).thenCallRealMethod();
             when(compilationRepository.save(any())).thenReturn(compilation1);
-            when(compilationRepository.findById(any())).thenReturn(Optional.of(compilation1));
+            when(compilationRepository.findWithEventsById(any())).thenReturn(Optional.of(compilation1));
             when(eventService.toEventsShortDto(List.of(event1, event2))).thenReturn(List.of(eventShortDto1, eventShortDto2));
             when(compilationMapper.toCompilationDto(any(), any())).thenCallRealMethod();
 
@@ -163,7 +163,7 @@ public class CompilationServiceTest {
             verify(eventService, times(1)).getEventsByIds(any());
             verify(compilationMapper, times(1)).newDtoToCompilation(any(), any());
             verify(compilationRepository, times(1)).save(compilationArgumentCaptor.capture());
-            verify(compilationRepository, times(1)).findById(any());
+            verify(compilationRepository, times(1)).findWithEventsById(any());
             verify(eventService, times(1)).toEventsShortDto(any());
             verify(compilationMapper, times(1)).toCompilationDto(any(), any());
 
@@ -177,7 +177,7 @@ public class CompilationServiceTest {
         public void shouldCreateWithEmptyEvents() {
             when(compilationMapper.newDtoToCompilation(any(), any())).thenCallRealMethod();
             when(compilationRepository.save(any())).thenReturn(compilation2);
-            when(compilationRepository.findById(any())).thenReturn(Optional.of(compilation2));
+            when(compilationRepository.findWithEventsById(any())).thenReturn(Optional.of(compilation2));
             when(eventService.toEventsShortDto(List.of())).thenReturn(List.of());
             when(compilationMapper.toCompilationDto(any(), any())).thenCallRealMethod();
 
@@ -187,7 +187,7 @@ public class CompilationServiceTest {
 
             verify(compilationMapper, times(1)).newDtoToCompilation(any(), any());
             verify(compilationRepository, times(1)).save(compilationArgumentCaptor.capture());
-            verify(compilationRepository, times(1)).findById(any());
+            verify(compilationRepository, times(1)).findWithEventsById(any());
             verify(eventService, times(1)).toEventsShortDto(any());
             verify(compilationMapper, times(1)).toCompilationDto(any(), any());
 
@@ -217,6 +217,7 @@ public class CompilationServiceTest {
             when(compilationRepository.findById(any())).thenReturn(Optional.of(compilation1));
             when(eventService.getEventsByIds(any())).thenReturn(List.of(event1));
             when(compilationRepository.save(any())).thenReturn(updatedCompilation1);
+            when(compilationRepository.findWithEventsById(any())).thenReturn(Optional.of(compilation1));
             when(eventService.toEventsShortDto(List.of(event1))).thenReturn(List.of(eventShortDto1));
             when(compilationMapper.toCompilationDto(any(), any())).thenCallRealMethod();
 
@@ -224,7 +225,8 @@ public class CompilationServiceTest {
 
             checkResults(updatedCompilationDto1, savedCompilationDto);
 
-            verify(compilationRepository, times(2)).findById(any());
+            verify(compilationRepository, times(1)).findById(any());
+            verify(compilationRepository, times(1)).findWithEventsById(any());
             verify(eventService, times(1)).getEventsByIds(any());
             verify(compilationRepository, times(1)).save(compilationArgumentCaptor.capture());
             verify(eventService, times(1)).toEventsShortDto(any());
@@ -292,6 +294,8 @@ public class CompilationServiceTest {
         @Test
         public void shouldGetIfPinnedIsNull() {
             when(compilationRepository.findAll(pageable)).thenReturn(new PageImpl<>(List.of(compilation1, compilation2)));
+            when(compilationRepository.findAllWithEventsByIdIn(List.of(compilation1.getId(), compilation2.getId())))
+                    .thenReturn(List.of(compilation2, compilation1));
             when(eventService.toEventsShortDto(any())).thenReturn(List.of(eventShortDto1, eventShortDto2));
             when(compilationMapper.toCompilationDto(ArgumentMatchers.eq(compilation1), ArgumentMatchers.any()))
                     .thenCallRealMethod();
@@ -301,6 +305,7 @@ public class CompilationServiceTest {
             List<CompilationDto> savedCompilationsDto = compilationService.getAll(null, pageable);
 
             verify(compilationRepository, times(1)).findAll(pageable);
+            verify(compilationRepository, times(1)).findAllWithEventsByIdIn(any());
             verify(eventService, times(1)).toEventsShortDto(any());
             verify(compilationMapper, times(2)).toCompilationDto(any(), any());
 
@@ -316,6 +321,8 @@ public class CompilationServiceTest {
         @Test
         public void shouldGetIfPinnedIsNotNull() {
             when(compilationRepository.findAllByPinned(compilation2.getPinned(), pageable)).thenReturn(List.of(compilation2));
+            when(compilationRepository.findAllWithEventsByIdIn(List.of(compilation2.getId())))
+                    .thenReturn(List.of(compilation2));
             when(eventService.toEventsShortDto(any())).thenReturn(List.of());
             when(compilationMapper.toCompilationDto(ArgumentMatchers.eq(compilation2), ArgumentMatchers.any()))
                     .thenCallRealMethod();
@@ -323,6 +330,7 @@ public class CompilationServiceTest {
             List<CompilationDto> savedCompilationsDto = compilationService.getAll(compilation2.getPinned(), pageable);
 
             verify(compilationRepository, times(1)).findAllByPinned(any(), any());
+            verify(compilationRepository, times(1)).findAllWithEventsByIdIn(any());
             verify(eventService, times(1)).toEventsShortDto(any());
             verify(compilationMapper, times(1)).toCompilationDto(any(), any());
 
@@ -338,7 +346,7 @@ public class CompilationServiceTest {
     class GetById {
         @Test
         public void shouldGet() {
-            when(compilationRepository.findById(compilation1.getId())).thenReturn(Optional.of(compilation1));
+            when(compilationRepository.findWithEventsById(compilation1.getId())).thenReturn(Optional.of(compilation1));
             when(eventService.toEventsShortDto(compilation1.getEvents())).thenReturn(List.of(eventShortDto1, eventShortDto2));
             when(compilationMapper.toCompilationDto(ArgumentMatchers.eq(compilation1), ArgumentMatchers.any()))
                     .thenCallRealMethod();
@@ -347,20 +355,20 @@ public class CompilationServiceTest {
 
             checkResults(compilationDto1, savedCompilationsDto);
 
-            verify(compilationRepository, times(1)).findById(compilation1.getId());
+            verify(compilationRepository, times(1)).findWithEventsById(compilation1.getId());
             verify(eventService, times(1)).toEventsShortDto(any());
             verify(compilationMapper, times(1)).toCompilationDto(any(), any());
         }
 
         @Test
         public void shouldThrowExceptionIfIdNotFound() {
-            when(compilationRepository.findById(compilation1.getId())).thenReturn(Optional.empty());
+            when(compilationRepository.findWithEventsById(compilation1.getId())).thenReturn(Optional.empty());
 
             NotFoundException exception = assertThrows(NotFoundException.class,
                     () -> compilationService.getById(compilation1.getId()));
             assertEquals("Подборки с таким id не существует.", exception.getMessage());
 
-            verify(compilationRepository, times(1)).findById(compilation1.getId());
+            verify(compilationRepository, times(1)).findWithEventsById(compilation1.getId());
         }
     }
 
@@ -12,6 +12,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.main_service.event.dto.EventFullDto;
 import ru.practicum.main_service.event.dto.EventShortDto;
 import ru.practicum.main_service.event.service.EventService;
+import ru.practicum.main_service.exception.BadRequestException;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
@@ -48,7 +49,7 @@ public class EventPublicControllerTest {
     class GetEventsByPublic {
         @Test
         public void shouldGet() throws Exception {
-            when(eventService.getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+            when(eventService.getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
                     .thenReturn(List.of(eventShortDto1, eventShortDto2));
 
             mvc.perform(get("/events?text=0&" +
@@ -58,6 +59,7 @@ public class EventPublicControllerTest {
                             "rangeEnd=2097-09-06 13:30:00&" +
                             "onlyAvailable=false&" +
                             "sort=EVENT_DATE&" +
+                            "after=1&" +
                             "from=0&" +
                             "size=1000")
                             .characterEncoding(StandardCharsets.UTF_8)
@@ -67,12 +69,12 @@ public class EventPublicControllerTest {
                     .andExpect(content().json(mapper.writeValueAsString(List.of(eventShortDto1, eventShortDto2))));
 
             verify(eventService, times(1))
-                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
         }
 
         @Test
         public void shouldGetWithEmptyParameters() throws Exception {
-            when(eventService.getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+            when(eventService.getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
                     .thenReturn(List.of(eventShortDto1, eventShortDto2));
 
             mvc.perform(get("/events")
@@ -83,7 +85,31 @@ public class EventPublicControllerTest {
                     .andExpect(content().json(mapper.writeValueAsString(List.of(eventShortDto1, eventShortDto2))));
 
             verify(eventService, times(1))
-                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+        }
+
+        @Test
+        public void shouldReturnBadRequestIfAfterNotPositive() throws Exception {
+            mvc.perform(get("/events?after=0")
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+
+            verify(eventService, never())
+                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+        }
+
+        @Test
+        public void shouldReturnBadRequestIfAfterNotFound() throws Exception {
+            when(eventService.getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                    .thenThrow(new BadRequestException("Field: after. Error: события с таким id не существует. Value: 99"));
+
+            mvc.perform(get("/events?after=99")
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
         }
 
         @Test
@@ -95,7 +121,7 @@ public class EventPublicControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(eventService, never())
-                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
         }
 
         @Test
@@ -107,7 +133,7 @@ public class EventPublicControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(eventService, never())
-                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
         }
 
         @Test
@@ -119,7 +145,7 @@ public class EventPublicControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(eventService, never())
-                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
         }
 
         @Test
@@ -131,7 +157,7 @@ public class EventPublicControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(eventService, never())
-                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
         }
 
         @Test
@@ -143,7 +169,7 @@ public class EventPublicControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(eventService, never())
-                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
         }
     }
 
@@ -7,15 +7,20 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.main_service.event.dto.ParticipationRequestDto;
+import ru.practicum.main_service.event.service.RequestAdmissionQueue;
 import ru.practicum.main_service.event.service.RequestService;
+import ru.practicum.main_service.exception.TooManyRequestsException;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -23,6 +28,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = RequestPrivateController.class)
@@ -34,6 +40,9 @@ public class RequestPrivateControllerTest {
     @MockBean
     private RequestService requestService;
 
+    @MockBean
+    private RequestAdmissionQueue requestAdmissionQueue;
+
     private final ParticipationRequestDto participationRequestDto1 = ParticipationRequestDto.builder()
             .id(1L)
             .build();
@@ -74,6 +83,53 @@ public class RequestPrivateControllerTest {
                     .andExpect(content().json(mapper.writeValueAsString(participationRequestDto1)));
 
             verify(requestService, times(1)).createEventRequest(any(), any());
+            verify(requestAdmissionQueue, never()).submit(any(), any());
+        }
+
+        @Test
+        public void shouldCreateThroughAdmissionQueue() throws Exception {
+            when(requestAdmissionQueue.isEnabled(1L)).thenReturn(true);
+            when(requestAdmissionQueue.submit(any(), any())).thenReturn(Optional.of(participationRequestDto2));
+
+            mvc.perform(post("/users/1/requests?eventId=1")
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isCreated())
+                    .andExpect(content().json(mapper.writeValueAsString(participationRequestDto2)));
+
+            verify(requestAdmissionQueue, times(1)).submit(1L, 1L);
+            verify(requestService, never()).createEventRequest(any(), any());
+        }
+    }
+
+    @Nested
+    class CreateEventRequestThroughQueue {
+        @Test
+        public void shouldAcceptIfNotAdmittedInTime() throws Exception {
+            when(requestAdmissionQueue.isEnabled(1L)).thenReturn(true);
+            when(requestAdmissionQueue.submit(any(), any())).thenReturn(Optional.empty());
+
+            mvc.perform(post("/users/1/requests?eventId=1")
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().string(HttpHeaders.LOCATION, "/users/1/requests"))
+                    .andExpect(content().string(""));
+        }
+
+        @Test
+        public void shouldAskToRetryIfQueueIsFull() throws Exception {
+            when(requestAdmissionQueue.isEnabled(1L)).thenReturn(true);
+            when(requestAdmissionQueue.submit(any(), any())).thenThrow(new TooManyRequestsException("full", 2));
+
+            mvc.perform(post("/users/1/requests?eventId=1")
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
         }
     }
 
@@ -11,6 +11,7 @@ import ru.practicum.main_service.category.mapper.CategoryMapperImpl;
 import ru.practicum.main_service.category.model.Category;
 import ru.practicum.main_service.event.dto.EventFullDto;
 import ru.practicum.main_service.event.dto.EventShortDto;
+import ru.practicum.main_service.event.dto.EventShortProjection;
 import ru.practicum.main_service.event.dto.LocationDto;
 import ru.practicum.main_service.event.dto.NewEventDto;
 import ru.practicum.main_service.event.enums.EventState;
@@ -225,5 +226,42 @@ public class EventMapperTest {
 
             assertNull(result);
         }
+
+        @Test
+        public void shouldReturnEventShortDtoFromProjection() {
+            EventShortProjection eventShort = EventShortProjection.builder()
+                    .id(event.getId())
+                    .title(event.getTitle())
+                    .annotation(event.getAnnotation())
+                    .categoryId(event.getCategory().getId())
+                    .categoryName(event.getCategory().getName())
+                    .initiatorId(event.getInitiator().getId())
+                    .initiatorName(event.getInitiator().getName())
+                    .paid(event.getPaid())
+                    .eventDate(event.getEventDate())
+                    .confirmedRequests(eventShortDto.getConfirmedRequests())
+                    .participantLimit(event.getParticipantLimit())
+                    .publishedOn(event.getPublishedOn())
+                    .build();
+
+            EventShortDto result = eventMapper.toEventShortDto(eventShort, eventShortDto.getViews());
+
+            assertEquals(eventShortDto.getId(), result.getId());
+            assertEquals(eventShortDto.getTitle(), result.getTitle());
+            assertEquals(eventShortDto.getAnnotation(), result.getAnnotation());
+            assertEquals(eventShortDto.getEventDate(), result.getEventDate());
+            assertEquals(eventShortDto.getCategory(), result.getCategory());
+            assertEquals(eventShortDto.getPaid(), result.getPaid());
+            assertEquals(eventShortDto.getInitiator(), result.getInitiator());
+            assertEquals(eventShortDto.getConfirmedRequests(), result.getConfirmedRequests());
+            assertEquals(eventShortDto.getViews(), result.getViews());
+        }
+
+        @Test
+        public void shouldReturnNullFromProjection() {
+            EventShortDto result = eventMapper.toEventShortDto((EventShortProjection) null, null);
+
+            assertNull(result);
+        }
     }
 }
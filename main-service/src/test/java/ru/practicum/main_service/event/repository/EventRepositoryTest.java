@@ -1,28 +1,45 @@
 package ru.practicum.main_service.event.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.main_service.MainCommonUtils;
 import ru.practicum.main_service.category.model.Category;
 import ru.practicum.main_service.category.repository.CategoryRepository;
+import ru.practicum.main_service.event.dto.EventShortProjection;
+import ru.practicum.main_service.event.dto.EventViewsProjection;
+import ru.practicum.main_service.event.enums.EventSortType;
 import ru.practicum.main_service.event.enums.EventState;
 import ru.practicum.main_service.event.model.Event;
 import ru.practicum.main_service.event.model.Location;
 import ru.practicum.main_service.user.model.User;
 import ru.practicum.main_service.user.repository.UserRepository;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -33,6 +50,8 @@ public class EventRepositoryTest {
     private final CategoryRepository categoryRepository;
     private final LocationRepository locationRepository;
     private final EventRepository eventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TestEntityManager entityManager;
 
     private final Integer from = Integer.parseInt(MainCommonUtils.PAGE_DEFAULT_FROM);
     private final Integer size = Integer.parseInt(MainCommonUtils.PAGE_DEFAULT_SIZE);
@@ -246,39 +265,40 @@ public class EventRepositoryTest {
     class GetEventsByPublic {
         @Test
         public void shouldGetTwo() {
-            List<Event> eventsFromRepository = eventRepository.getEventsByPublic("TeSt", List.of(category.getId()),
-                    true, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(7), 0, 10);
+            List<EventShortProjection> eventsFromRepository = eventRepository.getEventsByPublic("TeSt", List.of(category.getId()),
+                    true, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(7), false, null, null, 0, 10);
 
             assertEquals(2, eventsFromRepository.size());
 
-            Event eventFromRepository1 = eventsFromRepository.get(0);
-            Event eventFromRepository2 = eventsFromRepository.get(1);
+            EventShortProjection eventFromRepository1 = eventsFromRepository.get(0);
+            EventShortProjection eventFromRepository2 = eventsFromRepository.get(1);
 
             assertEquals(event2.getId(), eventFromRepository1.getId());
             assertEquals(event3.getId(), eventFromRepository2.getId());
+            checkResult(event2, eventFromRepository1);
         }
 
         @Test
         public void shouldGetOne() {
-            List<Event> eventsFromRepository = eventRepository.getEventsByPublic("TiON 2", List.of(category.getId()),
-                    true, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(7), 0, 10);
+            List<EventShortProjection> eventsFromRepository = eventRepository.getEventsByPublic("TiON 2", List.of(category.getId()),
+                    true, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(7), false, null, null, 0, 10);
 
             assertEquals(1, eventsFromRepository.size());
 
-            Event eventFromRepository1 = eventsFromRepository.get(0);
+            EventShortProjection eventFromRepository1 = eventsFromRepository.get(0);
 
             assertEquals(event2.getId(), eventFromRepository1.getId());
         }
 
         @Test
         public void shouldGetAllPublished() {
-            List<Event> eventsFromRepository = eventRepository.getEventsByPublic(null, null, null,
-                    null, null, 0, 10);
+            List<EventShortProjection> eventsFromRepository = eventRepository.getEventsByPublic(null, null, null,
+                    null, null, false, null, null, 0, 10);
 
             assertEquals(2, eventsFromRepository.size());
 
-            Event eventFromRepository1 = eventsFromRepository.get(0);
-            Event eventFromRepository2 = eventsFromRepository.get(1);
+            EventShortProjection eventFromRepository1 = eventsFromRepository.get(0);
+            EventShortProjection eventFromRepository2 = eventsFromRepository.get(1);
 
             assertEquals(event2.getId(), eventFromRepository1.getId());
             assertEquals(event3.getId(), eventFromRepository2.getId());
@@ -286,11 +306,453 @@ public class EventRepositoryTest {
 
         @Test
         public void shouldGetEmpty() {
-            List<Event> eventsFromRepository = eventRepository.getEventsByPublic("not exist text", List.of(category.getId()),
-                    true, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(7), 0, 10);
+            List<EventShortProjection> eventsFromRepository = eventRepository.getEventsByPublic("not exist text", List.of(category.getId()),
+                    true, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(7), false, null, null, 0, 10);
 
             assertTrue(eventsFromRepository.isEmpty());
         }
+
+        @Test
+        public void shouldSortByRelevance() {
+            event1.setDescription("rock concert in the park");
+            event1.setState(EventState.PUBLISHED);
+            event1.setPublishedOn(LocalDateTime.now());
+            event3.setAnnotation("Rock Concert of the year");
+            eventRepository.save(event1);
+            eventRepository.save(event3);
+
+            List<EventShortProjection> eventsFromRepository = eventRepository.getEventsByPublic("CONCERT", null,
+                    null, null, null, false, EventSortType.RELEVANCE, null, 0, 10);
+
+            assertEquals(2, eventsFromRepository.size());
+            assertEquals(event3.getId(), eventsFromRepository.get(0).getId());
+            assertEquals(event1.getId(), eventsFromRepository.get(1).getId());
+        }
+
+        @Test
+        public void shouldSortByIdIfRelevanceWithoutText() {
+            List<EventShortProjection> eventsFromRepository = eventRepository.getEventsByPublic(null, null,
+                    null, null, null, false, EventSortType.RELEVANCE, null, 0, 10);
+
+            assertEquals(2, eventsFromRepository.size());
+            assertEquals(event2.getId(), eventsFromRepository.get(0).getId());
+            assertEquals(event3.getId(), eventsFromRepository.get(1).getId());
+        }
+
+        @Test
+        public void shouldSortByEventDate() {
+            List<EventShortProjection> eventsFromRepository = eventRepository.getEventsByPublic(null, null,
+                    null, null, null, false, EventSortType.EVENT_DATE, null, 0, 10);
+
+            assertEquals(2, eventsFromRepository.size());
+            assertEquals(event3.getId(), eventsFromRepository.get(0).getId());
+            assertEquals(event2.getId(), eventsFromRepository.get(1).getId());
+        }
+
+        @Test
+        public void shouldSortByViews() {
+            setViews(event2, 5L);
+            setViews(event3, 10L);
+
+            List<EventShortProjection> eventsFromRepository = eventRepository.getEventsByPublic(null, null,
+                    null, null, null, false, EventSortType.VIEWS, null, 0, 10);
+
+            assertEquals(2, eventsFromRepository.size());
+            assertEquals(event2.getId(), eventsFromRepository.get(0).getId());
+            assertEquals(event3.getId(), eventsFromRepository.get(1).getId());
+        }
+
+        @Test
+        public void shouldSeekAfterById() {
+            List<EventShortProjection> eventsFromRepository = eventRepository.getEventsByPublic(null, null,
+                    null, null, null, false, null, event2.getId(), 5, 10);
+
+            assertEquals(1, eventsFromRepository.size());
+            assertEquals(event3.getId(), eventsFromRepository.get(0).getId());
+        }
+
+        @Test
+        public void shouldSeekAfterByEventDate() {
+            List<EventShortProjection> eventsFromRepository = eventRepository.getEventsByPublic(null, null,
+                    null, null, null, false, EventSortType.EVENT_DATE, event3.getId(), 0, 10);
+
+            assertEquals(1, eventsFromRepository.size());
+            assertEquals(event2.getId(), eventsFromRepository.get(0).getId());
+        }
+
+        @Test
+        public void shouldSeekAfterByViewsWithEqualViews() {
+            setViews(event2, 7L);
+            setViews(event3, 7L);
+
+            List<EventShortProjection> eventsFromRepository = eventRepository.getEventsByPublic(null, null,
+                    null, null, null, false, EventSortType.VIEWS, event2.getId(), 0, 10);
+
+            assertEquals(1, eventsFromRepository.size());
+            assertEquals(event3.getId(), eventsFromRepository.get(0).getId());
+        }
+
+        @Test
+        public void shouldGetFullPageIfOnlyAvailable() {
+            entityManager.flush();
+            jdbcTemplate.update("UPDATE events SET confirmed_requests = participant_limit WHERE id = ?", event2.getId());
+
+            List<EventShortProjection> eventsFromRepository = eventRepository.getEventsByPublic(null, null,
+                    null, null, null, true, null, null, 0, 1);
+
+            assertEquals(1, eventsFromRepository.size());
+            assertEquals(event3.getId(), eventsFromRepository.get(0).getId());
+        }
+
+        @Test
+        public void shouldGetWithFreePlacesIfOnlyAvailable() {
+            entityManager.flush();
+            jdbcTemplate.update("UPDATE events SET confirmed_requests = participant_limit - 1 WHERE id = ?", event2.getId());
+
+            List<EventShortProjection> eventsFromRepository = eventRepository.getEventsByPublic(null, null,
+                    null, null, null, true, null, null, 0, 10);
+
+            assertEquals(2, eventsFromRepository.size());
+        }
+
+        private void setViews(Event event, Long views) {
+            entityManager.flush();
+            jdbcTemplate.update("UPDATE events SET views = ? WHERE id = ?", views, event.getId());
+        }
+    }
+
+    @Nested
+    class GetEventsShortByIds {
+        @Test
+        public void shouldGetOrderedById() {
+            List<EventShortProjection> eventsFromRepository = eventRepository.getEventsShortByIds(
+                    List.of(event3.getId(), event1.getId()));
+
+            assertEquals(2, eventsFromRepository.size());
+            checkResult(event1, eventsFromRepository.get(0));
+            checkResult(event3, eventsFromRepository.get(1));
+        }
+    }
+
+    @Nested
+    class FindAllByState {
+        @Test
+        public void shouldGetSlices() {
+            Pageable first = PageRequest.of(0, 1, Sort.by("id"));
+
+            Slice<Event> eventsFromRepository = eventRepository.findAllByState(EventState.PUBLISHED, first);
+
+            assertEquals(List.of(event2.getId()), eventsFromRepository.map(Event::getId).getContent());
+            assertTrue(eventsFromRepository.hasNext());
+
+            eventsFromRepository = eventRepository.findAllByState(EventState.PUBLISHED, first.next());
+
+            assertEquals(List.of(event3.getId()), eventsFromRepository.map(Event::getId).getContent());
+            assertFalse(eventsFromRepository.hasNext());
+        }
+    }
+
+    @Nested
+    class FindByIdForUpdate {
+        @Test
+        public void shouldGetOne() {
+            Optional<Event> optionalEvent = eventRepository.findByIdForUpdate(event2.getId());
+
+            assertTrue(optionalEvent.isPresent());
+            assertEquals(event2.getId(), optionalEvent.get().getId());
+        }
+
+        @Test
+        public void shouldGetEmpty() {
+            assertTrue(eventRepository.findByIdForUpdate(99L).isEmpty());
+        }
     }
 
+    @Nested
+    class AddConfirmedRequests {
+        @Test
+        public void shouldIncreaseAndDecrease() {
+            assertEquals(1, eventRepository.addConfirmedRequests(event2.getId(), 3));
+            assertEquals(1, eventRepository.addConfirmedRequests(event2.getId(), -1));
+
+            assertEquals(2L, getConfirmedRequests(event2.getId()));
+            assertEquals(0L, getConfirmedRequests(event1.getId()));
+        }
+
+        @Test
+        public void shouldNotUpdateIfEventNotFound() {
+            assertEquals(0, eventRepository.addConfirmedRequests(99L, 1));
+        }
+    }
+
+    @Nested
+    class UpdateViews {
+        @Test
+        public void shouldUpdateOnlyGivenEvent() {
+            assertEquals(1, eventRepository.updateViews(event2.getId(), 42L));
+
+            assertEquals(42L, jdbcTemplate.queryForObject("SELECT views FROM events WHERE id = ?", Long.class,
+                    event2.getId()));
+            assertEquals(0L, jdbcTemplate.queryForObject("SELECT views FROM events WHERE id = ?", Long.class,
+                    event3.getId()));
+        }
+    }
+
+    @Nested
+    class FindViews {
+        @Test
+        public void shouldSeekById() {
+            List<EventViewsProjection> firstPage = eventRepository.findViewsByStateAfterId(EventState.PUBLISHED, 0L,
+                    PageRequest.of(0, 1));
+            List<EventViewsProjection> secondPage = eventRepository.findViewsByStateAfterId(EventState.PUBLISHED,
+                    firstPage.get(0).getId(), PageRequest.of(0, 1));
+
+            assertEquals(List.of(event2.getId()), firstPage.stream()
+                    .map(EventViewsProjection::getId)
+                    .collect(Collectors.toList()));
+            assertEquals(List.of(event3.getId()), secondPage.stream()
+                    .map(EventViewsProjection::getId)
+                    .collect(Collectors.toList()));
+            assertTrue(eventRepository.findViewsByStateAfterId(EventState.PUBLISHED, event3.getId(),
+                    PageRequest.of(0, 1)).isEmpty());
+        }
+
+        @Test
+        public void shouldFilterByEventDate() {
+            List<EventViewsProjection> events = eventRepository.findViewsByStateAndEventDateAfterId(
+                    EventState.PUBLISHED, LocalDateTime.now().plusDays(5), 0L, PageRequest.of(0, 10));
+
+            assertEquals(1, events.size());
+            assertEquals(event2.getId(), events.get(0).getId());
+            assertEquals(0L, events.get(0).getViews());
+        }
+    }
+
+    @Nested
+    class AdmitConfirmedRequests {
+        @Test
+        public void shouldAdmitUpToLimit() {
+            assertEquals(1, eventRepository.admitConfirmedRequests(event2.getId(), 49));
+            assertEquals(0, eventRepository.admitConfirmedRequests(event2.getId(), 2));
+            assertEquals(1, eventRepository.admitConfirmedRequests(event2.getId(), 1));
+            assertEquals(0, eventRepository.admitConfirmedRequests(event2.getId(), 1));
+
+            assertEquals(50L, eventRepository.getConfirmedRequests(event2.getId()));
+        }
+
+        @Test
+        public void shouldAdmitWithoutLimit() {
+            assertEquals(1, eventRepository.admitConfirmedRequests(event1.getId(), 1000));
+
+            assertEquals(1000L, eventRepository.getConfirmedRequests(event1.getId()));
+        }
+    }
+
+    @Nested
+    class ReconcileConfirmedRequests {
+        @Test
+        public void shouldRepairOnlyDrifted() {
+            jdbcTemplate.update("INSERT INTO requests (created, status, event_id, requester_id) VALUES " +
+                    "(NOW(), 'CONFIRMED', ?, 1), (NOW(), 'CANCELED', ?, 1), (NOW(), 'CONFIRMED', ?, 1)",
+                    event1.getId(), event1.getId(), event2.getId());
+            eventRepository.addConfirmedRequests(event2.getId(), 1);
+            eventRepository.addConfirmedRequests(event3.getId(), 5);
+
+            List<Long> driftedIds = eventRepository.findIdsWithDriftedConfirmedRequests();
+
+            assertEquals(List.of(event1.getId(), event3.getId()), driftedIds);
+            assertEquals(driftedIds, eventRepository.lockAllByIdIn(driftedIds));
+            assertEquals(2, eventRepository.reconcileConfirmedRequests(driftedIds));
+
+            assertEquals(1L, getConfirmedRequests(event1.getId()));
+            assertEquals(1L, getConfirmedRequests(event2.getId()));
+            assertEquals(0L, getConfirmedRequests(event3.getId()));
+            assertTrue(eventRepository.findIdsWithDriftedConfirmedRequests().isEmpty());
+        }
+
+        @Test
+        public void shouldBackfillOnceIfColumnJustAdded() {
+            jdbcTemplate.execute("ALTER TABLE events DROP COLUMN confirmed_requests");
+            jdbcTemplate.update("INSERT INTO requests (created, status, event_id, requester_id) VALUES " +
+                    "(NOW(), 'CONFIRMED', ?, 1), (NOW(), 'CONFIRMED', ?, 1), (NOW(), 'PENDING', ?, 1)",
+                    event1.getId(), event1.getId(), event2.getId());
+
+            initSchema();
+
+            assertEquals(2L, getConfirmedRequests(event1.getId()));
+            assertEquals(0L, getConfirmedRequests(event2.getId()));
+            assertTrue(eventRepository.findIdsWithDriftedConfirmedRequests().isEmpty());
+        }
+
+        @Test
+        public void shouldNotRecountOnRestart() {
+            jdbcTemplate.update("INSERT INTO requests (created, status, event_id, requester_id) VALUES " +
+                    "(NOW(), 'CONFIRMED', ?, 1)", event1.getId());
+
+            initSchema();
+
+            assertEquals(0L, getConfirmedRequests(event1.getId()));
+        }
+
+        private void initSchema() {
+            new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(jdbcTemplate.getDataSource());
+        }
+    }
+
+    @Nested
+    class QueryCount {
+        @BeforeEach
+        public void beforeEach() {
+            for (int i = 0; i < 10; i++) {
+                eventRepository.save(Event.builder()
+                        .title("query count title " + i)
+                        .annotation("query count annotation " + i)
+                        .description("query count description " + i)
+                        .eventDate(LocalDateTime.now().plusDays(3))
+                        .category(categoryRepository.save(Category.builder().name("category " + i).build()))
+                        .location(locationRepository.save(Location.builder().lat((float) i).lon((float) i).build()))
+                        .paid(true)
+                        .participantLimit(0)
+                        .requestModeration(true)
+                        .initiator(userRepository.save(User.builder()
+                                .name("user " + i)
+                                .email("user" + i + "@yandex.ru")
+                                .build()))
+                        .state(EventState.PUBLISHED)
+                        .createdOn(LocalDateTime.now())
+                        .publishedOn(LocalDateTime.now())
+                        .build());
+            }
+        }
+
+        @Test
+        public void shouldNotDependOnPageSizeForEventsByAdmin() {
+            long small = countStatements(() -> eventRepository.getEventsByAdmin(null, null, null,
+                    null, null, 0, 2));
+            long large = countStatements(() -> eventRepository.getEventsByAdmin(null, null, null,
+                    null, null, 0, 10));
+
+            assertEquals(1, small);
+            assertEquals(small, large);
+        }
+
+        @Test
+        public void shouldNotLoadEntitiesForEventsByPublic() {
+            entityManager.flush();
+            entityManager.clear();
+
+            Statistics statistics = getStatistics();
+            statistics.clear();
+
+            List<EventShortProjection> events = eventRepository.getEventsByPublic(null, null, null,
+                    null, null, false, null, null, 0, 10);
+
+            assertEquals(10, events.size());
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+            assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+        }
+
+        @Test
+        public void shouldNotDependOnPageSizeForEventsByIds() {
+            List<Long> ids = eventRepository.findAll().stream()
+                    .map(Event::getId)
+                    .collect(Collectors.toList());
+
+            long small = countStatements(() -> eventRepository.findAllByIdIn(ids.subList(0, 2)));
+            long large = countStatements(() -> eventRepository.findAllByIdIn(ids));
+
+            assertEquals(1, small);
+            assertEquals(small, large);
+        }
+
+        @Test
+        public void shouldNotDependOnPageSizeForEventsByState() {
+            long small = countStatements(() -> eventRepository.findAllByState(EventState.PUBLISHED,
+                    PageRequest.of(0, 2, Sort.by("id"))).getContent());
+            long large = countStatements(() -> eventRepository.findAllByState(EventState.PUBLISHED,
+                    PageRequest.of(0, 10, Sort.by("id"))).getContent());
+
+            assertEquals(1, small);
+            assertEquals(small, large);
+        }
+
+        private long countStatements(Supplier<List<Event>> query) {
+            entityManager.flush();
+            entityManager.clear();
+
+            Statistics statistics = getStatistics();
+            statistics.clear();
+
+            query.get().forEach(event -> {
+                event.getCategory().getName();
+                event.getLocation().getLat();
+                event.getInitiator().getName();
+            });
+
+            return statistics.getPrepareStatementCount();
+        }
+
+        private Statistics getStatistics() {
+            Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                    .unwrap(SessionFactory.class).getStatistics();
+            statistics.setStatisticsEnabled(true);
+
+            return statistics;
+        }
+    }
+
+    @Nested
+    class Indexes {
+        @BeforeEach
+        public void beforeEach() {
+            LocalDateTime eventDate = LocalDateTime.of(2030, 1, 1, 10, 0, 0);
+            List<Object[]> events = new ArrayList<>();
+
+            for (int i = 0; i < 5000; i++) {
+                events.add(new Object[]{
+                        "annotation " + i,
+                        Timestamp.valueOf(eventDate.minusDays(30)),
+                        "description " + i,
+                        Timestamp.valueOf(eventDate.plusHours(i)),
+                        i % 2 == 0,
+                        i % 10 == 0 ? EventState.PUBLISHED.name() : EventState.PENDING.name(),
+                        "title " + i
+                });
+            }
+
+            jdbcTemplate.batchUpdate("INSERT INTO events (annotation, created_on, description, event_date, paid, " +
+                    "participant_limit, request_moderation, state, title, category_id, user_id, location_id) " +
+                    "VALUES (?, ?, ?, ?, ?, 0, FALSE, ?, ?, 1, 1, 1)", events);
+            jdbcTemplate.execute("ANALYZE");
+        }
+
+        @Test
+        public void shouldUseIndexForEventsByPublic() {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN SELECT e.id FROM events e " +
+                    "WHERE e.category_id IN (1) AND e.paid IN (TRUE) " +
+                    "AND e.event_date >= '2030-02-01 00:00:00' AND e.event_date <= '2030-02-03 00:00:00' " +
+                    "AND e.state IN ('PUBLISHED')", String.class);
+
+            assertTrue(plan.contains("IX_EVENTS_STATE_EVENT_DATE"), plan);
+            assertFalse(plan.contains("tableScan"), plan);
+        }
+    }
+
+    private void checkResult(Event event, EventShortProjection eventShort) {
+        assertEquals(event.getId(), eventShort.getId());
+        assertEquals(event.getTitle(), eventShort.getTitle());
+        assertEquals(event.getAnnotation(), eventShort.getAnnotation());
+        assertEquals(event.getCategory().getId(), eventShort.getCategoryId());
+        assertEquals(event.getCategory().getName(), eventShort.getCategoryName());
+        assertEquals(event.getInitiator().getId(), eventShort.getInitiatorId());
+        assertEquals(event.getInitiator().getName(), eventShort.getInitiatorName());
+        assertEquals(event.getPaid(), eventShort.getPaid());
+        assertEquals(event.getConfirmedRequests(), eventShort.getConfirmedRequests());
+        assertEquals(event.getParticipantLimit(), eventShort.getParticipantLimit());
+    }
+
+    private Long getConfirmedRequests(Long eventId) {
+        return jdbcTemplate.queryForObject("SELECT confirmed_requests FROM events WHERE id = ?", Long.class, eventId);
+    }
 }
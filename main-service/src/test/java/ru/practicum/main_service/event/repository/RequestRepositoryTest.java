@@ -6,10 +6,10 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.main_service.category.model.Category;
 import ru.practicum.main_service.category.repository.CategoryRepository;
-import ru.practicum.main_service.event.dto.RequestStats;
 import ru.practicum.main_service.event.enums.EventState;
 import ru.practicum.main_service.event.enums.RequestStatus;
 import ru.practicum.main_service.event.model.Event;
@@ -18,11 +18,14 @@ import ru.practicum.main_service.event.model.Request;
 import ru.practicum.main_service.user.model.User;
 import ru.practicum.main_service.user.repository.UserRepository;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -34,6 +37,7 @@ public class RequestRepositoryTest {
     private final LocationRepository locationRepository;
     private final EventRepository eventRepository;
     private final RequestRepository requestRepository;
+    private final JdbcTemplate jdbcTemplate;
 
     private final User user1 = User.builder()
             .id(1L)
@@ -221,6 +225,27 @@ public class RequestRepositoryTest {
         }
     }
 
+    @Nested
+    class FindAllByEventIdAndRequesterIdIn {
+        @Test
+        public void shouldGetTwo() {
+            List<Request> requestsFromRepository = requestRepository.findAllByEventIdAndRequesterIdIn(event1.getId(),
+                    List.of(user2.getId(), user4.getId(), user1.getId()));
+
+            assertEquals(2, requestsFromRepository.size());
+            assertEquals(request1.getId(), requestsFromRepository.get(0).getId());
+            assertEquals(request3.getId(), requestsFromRepository.get(1).getId());
+        }
+
+        @Test
+        public void shouldGetEmpty() {
+            List<Request> requestsFromRepository = requestRepository.findAllByEventIdAndRequesterIdIn(event3.getId(),
+                    List.of(user2.getId()));
+
+            assertTrue(requestsFromRepository.isEmpty());
+        }
+    }
+
     @Nested
     class FindAllByEventIdAndStatus {
         @Test
@@ -324,41 +349,32 @@ public class RequestRepositoryTest {
     }
 
     @Nested
-    class GetConfirmedRequests {
-        @Test
-        public void shouldGetTwo() {
-            List<RequestStats> requestStatsFromRepository = requestRepository.getConfirmedRequests(
-                    List.of(event1.getId(), event2.getId()));
-
-            assertEquals(2, requestStatsFromRepository.size());
-
-            RequestStats requestStats1 = requestStatsFromRepository.get(0);
-            RequestStats requestStats2 = requestStatsFromRepository.get(1);
-
-            assertEquals(event1.getId(), requestStats1.getEventId());
-            assertEquals(2L, requestStats1.getConfirmedRequests());
-
-            assertEquals(event2.getId(), requestStats2.getEventId());
-            assertEquals(1L, requestStats2.getConfirmedRequests());
-        }
-
-        @Test
-        public void shouldGetOne() {
-            List<RequestStats> requestStatsFromRepository = requestRepository.getConfirmedRequests(List.of(event2.getId()));
-
-            assertEquals(1L, requestStatsFromRepository.size());
-
-            RequestStats requestStats1 = requestStatsFromRepository.get(0);
-
-            assertEquals(event2.getId(), requestStats1.getEventId());
-            assertEquals(1L, requestStats1.getConfirmedRequests());
+    class Indexes {
+        @BeforeEach
+        public void beforeEach() {
+            List<Object[]> requests = new ArrayList<>();
+
+            for (int i = 0; i < 5000; i++) {
+                requests.add(new Object[]{
+                        Timestamp.valueOf(LocalDateTime.now()),
+                        RequestStatus.values()[i % RequestStatus.values().length].name(),
+                        event1.getId() + i % 2
+                });
+            }
+
+            jdbcTemplate.batchUpdate("INSERT INTO requests (created, status, event_id, requester_id) " +
+                    "VALUES (?, ?, ?, 1)", requests);
+            jdbcTemplate.execute("ANALYZE");
         }
 
         @Test
-        public void shouldGetEmpty() {
-            List<RequestStats> requestStatsFromRepository = requestRepository.getConfirmedRequests(List.of());
+        public void shouldUseIndexForConfirmedRequests() {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN SELECT r.event_id, COUNT(r.id) FROM requests r " +
+                    "WHERE r.event_id IN (1, 2) AND r.status = 'CONFIRMED' " +
+                    "GROUP BY r.event_id", String.class);
 
-            assertTrue(requestStatsFromRepository.isEmpty());
+            assertTrue(plan.contains("IX_REQUESTS_EVENT_ID_STATUS"), plan);
+            assertFalse(plan.contains("tableScan"), plan);
         }
     }
 }
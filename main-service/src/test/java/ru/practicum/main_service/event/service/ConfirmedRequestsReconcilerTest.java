@@ -0,0 +1,50 @@
+package ru.practicum.main_service.event.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.main_service.event.repository.EventRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ConfirmedRequestsReconcilerTest {
+    @Mock
+    private EventRepository eventRepository;
+
+    @InjectMocks
+    private ConfirmedRequestsReconciler confirmedRequestsReconciler;
+
+    @Test
+    public void shouldLockDriftedBeforeRepair() {
+        when(eventRepository.findIdsWithDriftedConfirmedRequests()).thenReturn(List.of(1L, 2L, 3L));
+        when(eventRepository.reconcileConfirmedRequests(List.of(1L, 2L, 3L))).thenReturn(3);
+
+        assertEquals(3, confirmedRequestsReconciler.reconcile());
+
+        InOrder inOrder = inOrder(eventRepository);
+        inOrder.verify(eventRepository, times(1)).lockAllByIdIn(List.of(1L, 2L, 3L));
+        inOrder.verify(eventRepository, times(1)).reconcileConfirmedRequests(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    public void shouldSkipIfNothingDrifted() {
+        when(eventRepository.findIdsWithDriftedConfirmedRequests()).thenReturn(List.of());
+
+        assertEquals(0, confirmedRequestsReconciler.reconcile());
+
+        verify(eventRepository, never()).lockAllByIdIn(any());
+        verify(eventRepository, never()).reconcileConfirmedRequests(any());
+    }
+}
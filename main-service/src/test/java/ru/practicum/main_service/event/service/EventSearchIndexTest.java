@@ -0,0 +1,285 @@
+package ru.practicum.main_service.event.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.main_service.category.model.Category;
+import ru.practicum.main_service.event.enums.EventSearchEngine;
+import ru.practicum.main_service.event.enums.EventState;
+import ru.practicum.main_service.event.model.Event;
+import ru.practicum.main_service.event.repository.EventRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EventSearchIndexTest {
+    @Mock
+    private EventRepository eventRepository;
+
+    private final Category concerts = Category.builder()
+            .id(1L)
+            .name("concerts")
+            .build();
+    private final Category theatre = Category.builder()
+            .id(2L)
+            .name("theatre")
+            .build();
+    private final LocalDateTime now = LocalDateTime.now();
+    private final Event event1 = createEvent(1L, "Rock concert", "Open air", concerts, false, now.plusDays(1));
+    private final Event event2 = createEvent(2L, "Jazz evening", "Rock-n-roll classics", concerts, true, now.plusDays(2));
+    private final Event event3 = createEvent(3L, "Hamlet", "Classic play", theatre, true, now.plusDays(3));
+    private final Event event4 = createEvent(4L, "Old rock", "Already finished", concerts, false, now.minusDays(1));
+
+    private EventSearchIndex index;
+
+    @BeforeEach
+    public void beforeEach() {
+        index = new EventSearchIndex(eventRepository, EventSearchEngine.INDEX, 2);
+    }
+
+    @Nested
+    class Build {
+        @Test
+        public void shouldReadPublishedEventsBySlices() {
+            Pageable first = PageRequest.of(0, 2, Sort.by("id"));
+            when(eventRepository.findAllByState(EventState.PUBLISHED, first))
+                    .thenReturn(new SliceImpl<>(List.of(event1, event2), first, true));
+            when(eventRepository.findAllByState(EventState.PUBLISHED, first.next()))
+                    .thenReturn(new SliceImpl<>(List.of(event3), first.next(), false));
+
+            assertFalse(index.isReady());
+
+            index.build();
+
+            assertTrue(index.isReady());
+            assertEquals(List.of(1L, 2L, 3L), search(null, null, null));
+        }
+
+        @Test
+        public void shouldNotBuildIfDisabled() {
+            index = new EventSearchIndex(eventRepository, EventSearchEngine.DATABASE, 2);
+
+            index.build();
+            index.update(event1);
+
+            assertFalse(index.isReady());
+            assertTrue(search(null, null, null).isEmpty());
+            verify(eventRepository, never()).findAllByState(any(), any());
+        }
+
+        @Test
+        public void shouldApplyUpdatesCommittedDuringBuild() {
+            Pageable first = PageRequest.of(0, 2, Sort.by("id"));
+            Event changed = createEvent(1L, "Symphony", "Symphony orchestra", theatre, false, now.plusDays(1));
+            Event canceled = createEvent(2L, "Jazz evening", "Rock-n-roll classics", concerts, true, now.plusDays(2));
+            canceled.setState(EventState.CANCELED);
+            when(eventRepository.findAllByState(EventState.PUBLISHED, first)).thenAnswer(invocation -> {
+                index.update(changed);
+                index.update(canceled);
+
+                return new SliceImpl<>(List.of(event1, event2), first, false);
+            });
+
+            index.build();
+
+            assertEquals(List.of(1L), search(null, null, null));
+            assertEquals(List.of(1L), search("symphony", List.of(theatre.getId()), null));
+            assertTrue(search("rock", null, null).isEmpty());
+        }
+
+        @Test
+        public void shouldThrowIfPageSizeNotPositive() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new EventSearchIndex(eventRepository, EventSearchEngine.INDEX, 0));
+        }
+    }
+
+    @Nested
+    class Search {
+        @BeforeEach
+        public void beforeEach() {
+            Pageable first = PageRequest.of(0, 2, Sort.by("id"));
+            when(eventRepository.findAllByState(EventState.PUBLISHED, first))
+                    .thenReturn(new SliceImpl<>(List.of(), first, false));
+
+            index.build();
+            List.of(event1, event2, event3, event4).forEach(index::update);
+        }
+
+        @Test
+        public void shouldMatchSubstringLikeDatabase() {
+            assertEquals(List.of(1L, 2L), search("ROCK", null, null));
+            assertEquals(List.of(1L), search("cert", null, null));
+            assertEquals(List.of(2L), search("roll class", null, null));
+            assertEquals(List.of(2L), search("-n-", null, null));
+            assertEquals(List.of(2L), search("n-roll classics", null, null));
+            assertEquals(List.of(2L), search("zz", null, null));
+            assertEquals(List.of(1L), search("ai", null, null));
+            assertTrue(search("concert open", null, null).isEmpty());
+            assertEquals(List.of(2L, 3L), search("classic", null, null));
+            assertTrue(search("rock class", null, null).isEmpty());
+            assertTrue(search("opera", null, null).isEmpty());
+        }
+
+        @Test
+        public void shouldMatchBruteForceSubstringSearch() {
+            List<String> words = List.of("rock", "jazz", "roll", "classic", "opera", "open-air", "концерт", "2024");
+            Random random = new Random(17);
+            List<Event> events = new ArrayList<>(List.of(event1, event2, event3, event4));
+
+            for (long id = 10; id < 310; id++) {
+                Event event = createEvent(id, "title", randomText(words, random),
+                        random.nextBoolean() ? concerts : theatre, random.nextBoolean(),
+                        now.plusHours(random.nextInt(24 * 30)));
+                event.setDescription(randomText(words, random));
+                events.add(event);
+                index.update(event);
+            }
+
+            for (int i = 0; i < 200; i++) {
+                Event source = events.get(random.nextInt(events.size()));
+                String field = random.nextBoolean() ? source.getAnnotation() : source.getDescription();
+                int from = random.nextInt(field.length());
+                String text = field.substring(from, from + 1 + random.nextInt(Math.min(12, field.length() - from)));
+                LocalDateTime rangeStart = now.plusHours(random.nextInt(24 * 15));
+                LocalDateTime rangeEnd = rangeStart.plusHours(random.nextInt(24 * 15));
+                List<Long> expected = events.stream()
+                        .filter(event -> text.isBlank()
+                                || event.getAnnotation().toLowerCase().contains(text.toLowerCase())
+                                || event.getDescription().toLowerCase().contains(text.toLowerCase()))
+                        .filter(event -> !event.getEventDate().isBefore(rangeStart)
+                                && !event.getEventDate().isAfter(rangeEnd))
+                        .map(Event::getId)
+                        .collect(Collectors.toList());
+
+                assertEquals(expected, index.search(text, null, null, rangeStart, rangeEnd, 0, 1000), text);
+            }
+        }
+
+        @Test
+        public void shouldSearchOnlyAnnotationAndDescription() {
+            Event event5 = createEvent(5L, "Ballet", "Swan lake", theatre, true, now.plusDays(5));
+            event5.setDescription("Tchaikovsky");
+            index.update(event5);
+
+            assertTrue(search("ballet", null, null).isEmpty());
+            assertEquals(List.of(5L), search("swan", null, null));
+        }
+
+        @Test
+        public void shouldIntersectWithCategoriesAndPaid() {
+            assertEquals(List.of(1L, 2L), search(null, List.of(concerts.getId()), null));
+            assertEquals(List.of(2L, 3L), search(null, List.of(concerts.getId(), theatre.getId()), true));
+            assertEquals(List.of(3L), search("classic", List.of(theatre.getId()), true));
+            assertTrue(search(null, List.of(99L), null).isEmpty());
+        }
+
+        @Test
+        public void shouldFilterByDateRange() {
+            assertEquals(List.of(1L, 2L, 3L), search(null, null, null));
+            assertEquals(List.of(4L), index.search("rock", null, null, now.minusDays(2),
+                    now.minusHours(1), 0, 10));
+            assertEquals(List.of(2L), index.search(null, null, null, now.plusDays(1).plusHours(1),
+                    now.plusDays(2).plusHours(1), 0, 10));
+        }
+
+        @Test
+        public void shouldFilterByDateRangeOnEdgeDays() {
+            LocalDateTime day = now.plusDays(10).toLocalDate().atStartOfDay();
+            index.update(createEvent(5L, "Morning jazz", "Early show", concerts, false, day.plusHours(10)));
+            index.update(createEvent(6L, "Night jazz", "Late show", concerts, false, day.plusHours(23)));
+
+            assertEquals(List.of(6L), index.search(null, null, null, day.plusHours(12), day.plusDays(1), 0, 10));
+            assertEquals(List.of(5L), index.search(null, null, null, day, day.plusHours(12), 0, 10));
+            assertEquals(List.of(5L), index.search("jazz", null, null, day.minusHours(14), day.plusHours(10), 0, 10));
+            assertEquals(List.of(5L, 6L), index.search("show", null, null, day.plusHours(10), null, 0, 10));
+        }
+
+        @Test
+        public void shouldPaginate() {
+            assertEquals(List.of(2L), index.search(null, null, null, null, null, 1, 1));
+            assertEquals(List.of(3L), index.search(null, null, null, null, null, 2, 10));
+        }
+
+        @Test
+        public void shouldReindexChangedEvent() {
+            event1.setAnnotation("Symphony orchestra");
+            event1.setDescription("Evening programme");
+            event1.setCategory(theatre);
+            index.update(event1);
+
+            assertEquals(List.of(2L), search("rock", null, null));
+            assertEquals(List.of(1L), search("symphony", List.of(theatre.getId()), false));
+
+            event3.setState(EventState.CANCELED);
+            index.update(event3);
+
+            assertTrue(search("hamlet", null, null).isEmpty());
+        }
+
+        @Test
+        public void shouldApplyUpdateAfterCommit() {
+            Event event5 = createEvent(5L, "Rock festival", "Three days", concerts, true, now.plusDays(5));
+
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                index.update(event5);
+
+                assertEquals(List.of(1L, 2L), search("rock", null, null));
+
+                TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+
+            assertEquals(List.of(1L, 2L, 5L), search("rock", null, null));
+        }
+    }
+
+    private String randomText(List<String> words, Random random) {
+        return random.ints(1 + random.nextInt(5), 0, words.size())
+                .mapToObj(words::get)
+                .map(word -> random.nextBoolean() ? word.toUpperCase() : word)
+                .collect(Collectors.joining(random.nextBoolean() ? " " : ", "));
+    }
+
+    private List<Long> search(String text, List<Long> categories, Boolean paid) {
+        return index.search(text, categories, paid, null, null, 0, 10);
+    }
+
+    private Event createEvent(Long id, String title, String annotation, Category category, boolean paid,
+                              LocalDateTime eventDate) {
+        return Event.builder()
+                .id(id)
+                .title(title)
+                .annotation(annotation)
+                .description("description of " + title)
+                .category(category)
+                .paid(paid)
+                .eventDate(eventDate)
+                .state(EventState.PUBLISHED)
+                .build();
+    }
+}
@@ -18,6 +18,7 @@ import ru.practicum.main_service.category.model.Category;
 import ru.practicum.main_service.category.service.CategoryService;
 import ru.practicum.main_service.event.dto.EventFullDto;
 import ru.practicum.main_service.event.dto.EventShortDto;
+import ru.practicum.main_service.event.dto.EventShortProjection;
 import ru.practicum.main_service.event.dto.LocationDto;
 import ru.practicum.main_service.event.dto.NewEventDto;
 import ru.practicum.main_service.event.dto.UpdateEventAdminRequest;
@@ -31,6 +32,7 @@ import ru.practicum.main_service.event.model.Event;
 import ru.practicum.main_service.event.model.Location;
 import ru.practicum.main_service.event.repository.EventRepository;
 import ru.practicum.main_service.event.repository.LocationRepository;
+import ru.practicum.main_service.exception.BadRequestException;
 import ru.practicum.main_service.exception.ForbiddenException;
 import ru.practicum.main_service.exception.NotFoundException;
 import ru.practicum.main_service.user.dto.UserShortDto;
@@ -41,6 +43,7 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -75,6 +78,9 @@ public class EventServiceTest {
     @Mock
     private EventMapperImpl eventMapper;
 
+    @Mock
+    private EventSearchIndex eventSearchIndex;
+
     @InjectMocks
     private EventServiceImpl eventService;
 
@@ -213,7 +219,7 @@ public class EventServiceTest {
                     List.of(event1.getCategory().getId()), event1.getCreatedOn(), event1.getCreatedOn().plusDays(5),
                     0, 10))
                     .thenReturn(List.of(event1));
-            when(statsService.getViews(any())).thenReturn(views);
+            when(statsService.getViewsAsync(any())).thenReturn(CompletableFuture.completedFuture(views));
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
             when(eventMapper.toEventFullDto(any(), any(), any())).thenReturn(eventFullDto1);
 
@@ -227,11 +233,23 @@ public class EventServiceTest {
 
             verify(eventRepository, times(1))
                     .getEventsByAdmin(any(), any(), any(), any(), any(), any(), any());
-            verify(statsService, times(1)).getViews(any());
+            verify(statsService, times(1)).getViewsAsync(any());
             verify(statsService, times(1)).getConfirmedRequests(any());
             verify(eventMapper, times(1)).toEventFullDto(any(), any(), any());
         }
 
+        @Test
+        public void shouldThrowExceptionIfAfterNotFound() {
+            when(eventRepository.existsById(99L)).thenReturn(false);
+
+            BadRequestException exception = assertThrows(BadRequestException.class,
+                    () -> eventService.getEventsByPublic(null, null, null, null, null, false,
+                            EventSortType.EVENT_DATE, 99L, 0, 10, new MockHttpServletRequest()));
+            assertEquals("Field: after. Error: события с таким id не существует. Value: 99", exception.getMessage());
+
+            verify(eventRepository, never()).getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+        }
+
         @Test
         public void shouldThrowExceptionIfBadTimeRange() {
             ForbiddenException exception = assertThrows(ForbiddenException.class,
@@ -293,7 +311,7 @@ public class EventServiceTest {
             when(locationRepository.save(any())).thenReturn(updatedLocation);
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
             when(eventRepository.save(any())).thenReturn(updatedEvent1);
-            when(statsService.getViews(any())).thenReturn(views);
+            when(statsService.getViewsAsync(any())).thenReturn(CompletableFuture.completedFuture(views));
             when(eventMapper.toEventFullDto(any(), any(), any())).thenReturn(eventFullDto1);
 
             EventFullDto eventFullDto = eventService.patchEventByAdmin(event1.getId(), updateEventAdminRequest);
@@ -307,7 +325,8 @@ public class EventServiceTest {
             verify(locationRepository, times(1)).save(any());
             verify(statsService, times(2)).getConfirmedRequests(any());
             verify(eventRepository, times(1)).save(eventArgumentCaptor.capture());
-            verify(statsService, times(1)).getViews(any());
+            verify(eventSearchIndex, times(1)).update(any());
+            verify(statsService, times(1)).getViewsAsync(any());
             verify(eventMapper, times(1)).toEventFullDto(any(), any(), any());
 
             Event savedEvent = eventArgumentCaptor.getValue();
@@ -329,7 +348,7 @@ public class EventServiceTest {
             when(locationRepository.save(any())).thenReturn(updatedLocation);
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
             when(eventRepository.save(any())).thenReturn(updatedEvent1);
-            when(statsService.getViews(any())).thenReturn(views);
+            when(statsService.getViewsAsync(any())).thenReturn(CompletableFuture.completedFuture(views));
             when(eventMapper.toEventFullDto(any(), any(), any())).thenReturn(eventFullDto1);
 
             EventFullDto eventFullDto = eventService.patchEventByAdmin(event1.getId(), updateEventAdminRequest);
@@ -343,7 +362,7 @@ public class EventServiceTest {
             verify(locationRepository, times(1)).save(any());
             verify(statsService, times(2)).getConfirmedRequests(any());
             verify(eventRepository, times(1)).save(eventArgumentCaptor.capture());
-            verify(statsService, times(1)).getViews(any());
+            verify(statsService, times(1)).getViewsAsync(any());
             verify(eventMapper, times(1)).toEventFullDto(any(), any(), any());
 
             Event savedEvent = eventArgumentCaptor.getValue();
@@ -365,7 +384,7 @@ public class EventServiceTest {
             when(locationRepository.save(any())).thenReturn(updatedLocation);
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
             when(eventRepository.save(any())).thenReturn(updatedEvent1);
-            when(statsService.getViews(any())).thenReturn(views);
+            when(statsService.getViewsAsync(any())).thenReturn(CompletableFuture.completedFuture(views));
             when(eventMapper.toEventFullDto(any(), any(), any())).thenReturn(eventFullDto1);
 
             EventFullDto eventFullDto = eventService.patchEventByAdmin(event1.getId(), updateEventAdminRequest);
@@ -379,7 +398,7 @@ public class EventServiceTest {
             verify(locationRepository, times(1)).save(any());
             verify(statsService, times(2)).getConfirmedRequests(any());
             verify(eventRepository, times(1)).save(eventArgumentCaptor.capture());
-            verify(statsService, times(1)).getViews(any());
+            verify(statsService, times(1)).getViewsAsync(any());
             verify(eventMapper, times(1)).toEventFullDto(any(), any(), any());
 
             Event savedEvent = eventArgumentCaptor.getValue();
@@ -472,7 +491,7 @@ public class EventServiceTest {
             when(userService.getUserById(event1.getInitiator().getId())).thenReturn(event1.getInitiator());
             when(eventRepository.findAllByInitiatorId(event1.getInitiator().getId(), pageable)).thenReturn(List.of(event1));
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
-            when(statsService.getViews(any())).thenReturn(views);
+            when(statsService.getViewsAsync(any())).thenReturn(CompletableFuture.completedFuture(views));
             when(eventMapper.toEventShortDto(any(), any(), any())).thenReturn(eventShortDto1);
 
             List<EventShortDto> eventsShortDto = eventService.getAllEventsByPrivate(event1.getInitiator().getId(), pageable);
@@ -483,7 +502,7 @@ public class EventServiceTest {
             verify(userService, times(1)).getUserById(any());
             verify(eventRepository, times(1)).findAllByInitiatorId(any(), any());
             verify(statsService, times(1)).getConfirmedRequests(any());
-            verify(statsService, times(1)).getViews(any());
+            verify(statsService, times(1)).getViewsAsync(any());
             verify(eventMapper, times(1)).toEventShortDto(any(), any(), any());
         }
     }
@@ -515,6 +534,7 @@ public class EventServiceTest {
             when(locationRepository.save(any())).thenReturn(location);
             when(eventMapper.toEvent(any(), any(), any(), any(), any(), any())).thenReturn(event1);
             when(eventRepository.save(any())).thenReturn(event1);
+            when(statsService.getViewsAsync(any())).thenReturn(CompletableFuture.completedFuture(Map.of()));
             when(eventMapper.toEventFullDto(any(), any(), any())).thenReturn(eventFullDto1);
 
             EventFullDto eventFullDtoFromRepository = eventService.createEventByPrivate(event1.getInitiator().getId(), newEventDto);
@@ -528,6 +548,7 @@ public class EventServiceTest {
             verify(locationRepository, times(1)).save(any());
             verify(eventMapper, times(1)).toEvent(any(), any(), any(), any(), any(), any());
             verify(eventRepository, times(1)).save(eventArgumentCaptor.capture());
+            verify(eventSearchIndex, times(1)).update(any());
             verify(eventMapper, times(1)).toEventFullDto(any(), any(), any());
 
             Event savedEvent = eventArgumentCaptor.getValue();
@@ -557,7 +578,7 @@ public class EventServiceTest {
                     .thenReturn(Optional.of(event1));
             when(eventRepository.save(any())).thenReturn(event1);
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
-            when(statsService.getViews(any())).thenReturn(views);
+            when(statsService.getViewsAsync(any())).thenReturn(CompletableFuture.completedFuture(views));
             when(eventMapper.toEventFullDto(any(), any(), any())).thenReturn(eventFullDto1);
 
             EventFullDto eventFullDtoFromRepository = eventService.getEventByPrivate(event1.getInitiator().getId(),
@@ -568,7 +589,7 @@ public class EventServiceTest {
             verify(userService, times(1)).getUserById(any());
             verify(eventRepository, times(1)).findByIdAndInitiatorId(any(), any());
             verify(statsService, times(1)).getConfirmedRequests(any());
-            verify(statsService, times(1)).getViews(any());
+            verify(statsService, times(1)).getViewsAsync(any());
             verify(eventMapper, times(1)).toEventFullDto(any(), any(), any());
         }
 
@@ -633,7 +654,7 @@ public class EventServiceTest {
             when(locationRepository.save(any())).thenReturn(updatedLocation);
             when(eventRepository.save(any())).thenReturn(updatedEvent1);
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
-            when(statsService.getViews(any())).thenReturn(views);
+            when(statsService.getViewsAsync(any())).thenReturn(CompletableFuture.completedFuture(views));
             when(eventMapper.toEventFullDto(any(), any(), any())).thenReturn(eventFullDto1);
 
             EventFullDto eventFullDto = eventService.patchEventByPrivate(event1.getInitiator().getId(), event1.getId(),
@@ -648,8 +669,9 @@ public class EventServiceTest {
             verify(locationRepository, times(1)).findByLatAndLon(any(), any());
             verify(locationRepository, times(1)).save(any());
             verify(eventRepository, times(1)).save(eventArgumentCaptor.capture());
+            verify(eventSearchIndex, times(1)).update(any());
             verify(statsService, times(1)).getConfirmedRequests(any());
-            verify(statsService, times(1)).getViews(any());
+            verify(statsService, times(1)).getViewsAsync(any());
             verify(eventMapper, times(1)).toEventFullDto(any(), any(), any());
 
             Event savedEvent = eventArgumentCaptor.getValue();
@@ -672,7 +694,7 @@ public class EventServiceTest {
             when(locationRepository.save(any())).thenReturn(updatedLocation);
             when(eventRepository.save(any())).thenReturn(updatedEvent1);
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
-            when(statsService.getViews(any())).thenReturn(views);
+            when(statsService.getViewsAsync(any())).thenReturn(CompletableFuture.completedFuture(views));
             when(eventMapper.toEventFullDto(any(), any(), any())).thenReturn(eventFullDto1);
 
             EventFullDto eventFullDto = eventService.patchEventByPrivate(event1.getInitiator().getId(), event1.getId(),
@@ -688,7 +710,7 @@ public class EventServiceTest {
             verify(locationRepository, times(1)).save(any());
             verify(eventRepository, times(1)).save(eventArgumentCaptor.capture());
             verify(statsService, times(1)).getConfirmedRequests(any());
-            verify(statsService, times(1)).getViews(any());
+            verify(statsService, times(1)).getViewsAsync(any());
             verify(eventMapper, times(1)).toEventFullDto(any(), any(), any());
 
             Event savedEvent = eventArgumentCaptor.getValue();
@@ -743,27 +765,108 @@ public class EventServiceTest {
         @Test
         public void shouldGet() {
             String text = "some text";
+            EventShortProjection eventShort = toEventShortProjection(event1, 0);
 
             when(eventRepository.getEventsByPublic(text, List.of(event1.getCategory().getId()), false,
-                    event1.getCreatedOn(), event1.getCreatedOn().plusDays(5), 0, 10))
-                    .thenReturn(List.of(event1));
-            when(statsService.getViews(any())).thenReturn(views);
-            when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
-            when(eventMapper.toEventShortDto(any(), any(), any())).thenReturn(eventShortDto1);
+                    event1.getCreatedOn(), event1.getCreatedOn().plusDays(5), true, EventSortType.EVENT_DATE, null, 0, 10))
+                    .thenReturn(List.of(eventShort));
+            when(statsService.getViewsByPublishedOn(Map.of(eventShort.getId(), eventShort.getPublishedOn())))
+                    .thenReturn(views);
+            when(eventMapper.toEventShortDto(eventShort, views.get(event1.getId()))).thenReturn(eventShortDto1);
 
             List<EventShortDto> eventShortsDto = eventService.getEventsByPublic(text, List.of(event1.getCategory().getId()),
                     false, event1.getCreatedOn(), event1.getCreatedOn().plusDays(5), true,
-                    EventSortType.EVENT_DATE, 0, 10, new MockHttpServletRequest());
+                    EventSortType.EVENT_DATE, null, 0, 10, new MockHttpServletRequest());
 
             assertEquals(1, eventShortsDto.size());
 
             assertEquals(eventShortDto1, eventShortsDto.get(0));
 
             verify(eventRepository, times(1))
-                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any());
-            verify(statsService, times(1)).getViews(any());
-            verify(statsService, times(1)).getConfirmedRequests(any());
-            verify(eventMapper, times(1)).toEventShortDto(any(), any(), any());
+                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+            verify(statsService, times(1)).getViewsByPublishedOn(any());
+            verify(statsService, never()).getConfirmedRequests(any());
+            verify(eventMapper, times(1)).toEventShortDto(any(EventShortProjection.class), any());
+            verify(statsService, times(1)).addHit(any());
+        }
+
+        @Test
+        public void shouldGetFromDatabaseIfOnlyAvailableWithSearchIndex() {
+            when(eventSearchIndex.isReady()).thenReturn(true);
+            when(eventRepository.getEventsByPublic(null, null, null, null, null, true, null, null, 0, 10))
+                    .thenReturn(List.of());
+
+            List<EventShortDto> eventShortsDto = eventService.getEventsByPublic(null, null, null, null, null,
+                    true, null, null, 0, 10, new MockHttpServletRequest());
+
+            assertTrue(eventShortsDto.isEmpty());
+
+            verify(eventSearchIndex, never()).search(any(), any(), any(), any(), any(), any(), any());
+        }
+
+        @Test
+        public void shouldGetFromSearchIndex() {
+            EventShortProjection eventShort = toEventShortProjection(event1, 0);
+
+            when(eventSearchIndex.isReady()).thenReturn(true);
+            when(eventSearchIndex.search("rock", null, null, null, null, 0, 10)).thenReturn(List.of(event1.getId()));
+            when(eventRepository.getEventsShortByIds(List.of(event1.getId()))).thenReturn(List.of(eventShort));
+            when(statsService.getViewsByPublishedOn(any())).thenReturn(views);
+            when(eventMapper.toEventShortDto(eventShort, views.get(event1.getId()))).thenReturn(eventShortDto1);
+
+            List<EventShortDto> eventShortsDto = eventService.getEventsByPublic("rock", null, null, null, null,
+                    false, null, null, 0, 10, new MockHttpServletRequest());
+
+            assertEquals(List.of(eventShortDto1), eventShortsDto);
+
+            verify(eventRepository, never()).getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+        }
+
+        @Test
+        public void shouldGetFromDatabaseIfRelevanceWithSearchIndex() {
+            when(eventSearchIndex.isReady()).thenReturn(true);
+            when(eventRepository.getEventsByPublic("rock", null, null, null, null, false, EventSortType.RELEVANCE, null, 0, 10))
+                    .thenReturn(List.of());
+
+            List<EventShortDto> eventShortsDto = eventService.getEventsByPublic("rock", null, null, null, null,
+                    false, EventSortType.RELEVANCE, null, 0, 10, new MockHttpServletRequest());
+
+            assertTrue(eventShortsDto.isEmpty());
+
+            verify(eventSearchIndex, never()).search(any(), any(), any(), any(), any(), any(), any());
+        }
+
+        @Test
+        public void shouldUseStoredViewsIfSortByViews() {
+            EventShortProjection eventShort = toEventShortProjection(event1, 0);
+            eventShort.setViews(15L);
+
+            when(eventRepository.getEventsByPublic(null, null, null, null, null, false, EventSortType.VIEWS, null, 0, 10))
+                    .thenReturn(List.of(eventShort));
+            when(eventMapper.toEventShortDto(eventShort, 15L)).thenReturn(eventShortDto1);
+
+            List<EventShortDto> eventShortsDto = eventService.getEventsByPublic(null, null, null, null, null,
+                    false, EventSortType.VIEWS, null, 0, 10, new MockHttpServletRequest());
+
+            assertEquals(List.of(eventShortDto1), eventShortsDto);
+
+            verify(statsService, never()).getViewsByPublishedOn(any());
+            verify(statsService, times(1)).addHit(any());
+        }
+
+        @Test
+        public void shouldGetFromDatabaseIfKeysetWithSearchIndex() {
+            when(eventSearchIndex.isReady()).thenReturn(true);
+            when(eventRepository.existsById(5L)).thenReturn(true);
+            when(eventRepository.getEventsByPublic(null, null, null, null, null, false, EventSortType.VIEWS, 5L, 0, 10))
+                    .thenReturn(List.of());
+
+            List<EventShortDto> eventShortsDto = eventService.getEventsByPublic(null, null, null, null, null,
+                    false, EventSortType.VIEWS, 5L, 0, 10, new MockHttpServletRequest());
+
+            assertTrue(eventShortsDto.isEmpty());
+
+            verify(eventSearchIndex, never()).search(any(), any(), any(), any(), any(), any(), any());
         }
 
         @Test
@@ -771,12 +874,12 @@ public class EventServiceTest {
             ForbiddenException exception = assertThrows(ForbiddenException.class,
                     () -> eventService.getEventsByPublic("some text", List.of(event1.getCategory().getId()),
                             false, event1.getCreatedOn(), event1.getCreatedOn().minusMinutes(5), true,
-                            EventSortType.EVENT_DATE, 0, 10, new MockHttpServletRequest()));
+                            EventSortType.EVENT_DATE, null, 0, 10, new MockHttpServletRequest()));
             assertEquals(String.format("Field: eventDate. Error: некорректные параметры временного " +
                             "интервала. Value: rangeStart = %s, rangeEnd = %s", event1.getCreatedOn(),
                     event1.getCreatedOn().minusMinutes(5)), exception.getMessage());
 
-            verify(eventRepository, never()).getEventsByPublic(any(), any(), any(), any(), any(), any(), any());
+            verify(eventRepository, never()).getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
         }
     }
 
@@ -786,7 +889,7 @@ public class EventServiceTest {
         public void shouldGet() {
             when(eventRepository.findById(event3.getId())).thenReturn(Optional.of(event3));
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
-            when(statsService.getViews(any())).thenReturn(views);
+            when(statsService.getViewsAsync(any())).thenReturn(CompletableFuture.completedFuture(views));
             when(eventMapper.toEventFullDto(any(), any(), any())).thenReturn(eventFullDto1);
 
             EventFullDto eventFullDto = eventService.getEventByPublic(event3.getId(), new MockHttpServletRequest());
@@ -795,7 +898,7 @@ public class EventServiceTest {
 
             verify(eventRepository, times(1)).findById(any());
             verify(statsService, times(1)).getConfirmedRequests(any());
-            verify(statsService, times(1)).getViews(any());
+            verify(statsService, times(1)).getViewsAsync(any());
             verify(statsService, times(1)).addHit(any());
             verify(eventMapper, times(1)).toEventFullDto(any(), any(), any());
         }
@@ -892,4 +995,22 @@ public class EventServiceTest {
         assertEquals(event.getState(), result.getState());
         assertEquals(event.getTitle(), result.getTitle());
     }
+
+    private EventShortProjection toEventShortProjection(Event event, Integer participantLimit) {
+        return EventShortProjection.builder()
+                .id(event.getId())
+                .title(event.getTitle())
+                .annotation(event.getAnnotation())
+                .categoryId(event.getCategory().getId())
+                .categoryName(event.getCategory().getName())
+                .initiatorId(event.getInitiator().getId())
+                .initiatorName(event.getInitiator().getName())
+                .paid(event.getPaid())
+                .eventDate(event.getEventDate())
+                .confirmedRequests(0L)
+                .participantLimit(participantLimit)
+                .publishedOn(event.getCreatedOn().plusHours(1))
+                .views(0L)
+                .build();
+    }
 }
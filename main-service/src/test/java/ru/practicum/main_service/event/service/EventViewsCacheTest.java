@@ -0,0 +1,268 @@
+package ru.practicum.main_service.event.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats_common.VirtualThreads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class EventViewsCacheTest {
+    private EventViewsCache cache;
+
+    @AfterEach
+    public void afterEach() {
+        if (cache != null) {
+            cache.stop();
+        }
+    }
+
+    @Nested
+    class GetAll {
+        @Test
+        public void shouldLoadOnceAndCacheZeroViews() {
+            cache = new EventViewsCache(100, 60_000, 60_000, 1, 10, false);
+            AtomicInteger calls = new AtomicInteger();
+            Function<Set<Long>, Map<Long, Long>> loader = eventIds -> {
+                calls.incrementAndGet();
+                return Map.of(1L, 5L);
+            };
+
+            Map<Long, Long> views = cache.getAll(Set.of(1L, 2L), loader);
+
+            assertEquals(Map.of(1L, 5L, 2L, 0L), views);
+            assertEquals(Map.of(1L, 5L, 2L, 0L), cache.getAll(Set.of(1L, 2L), loader));
+            assertEquals(1, calls.get());
+        }
+
+        @Test
+        public void shouldLoadOnlyMissing() {
+            cache = new EventViewsCache(100, 60_000, 60_000, 1, 10, false);
+            List<Set<Long>> requested = new CopyOnWriteArrayList<>();
+            Function<Set<Long>, Map<Long, Long>> loader = eventIds -> {
+                requested.add(eventIds);
+                return Map.of(1L, 5L, 2L, 7L);
+            };
+
+            cache.getAll(Set.of(1L), loader);
+            Map<Long, Long> views = cache.getAll(Set.of(1L, 2L), loader);
+
+            assertEquals(Map.of(1L, 5L, 2L, 7L), views);
+            assertEquals(List.of(Set.of(1L), Set.of(2L)), requested);
+        }
+
+        @Test
+        public void shouldShareLoadBetweenConcurrentCallers() throws Exception {
+            cache = new EventViewsCache(100, 60_000, 60_000, 1, 10, false);
+            AtomicInteger calls = new AtomicInteger();
+            CountDownLatch release = new CountDownLatch(1);
+            Function<Set<Long>, Map<Long, Long>> loader = eventIds -> {
+                calls.incrementAndGet();
+                try {
+                    release.await(2, TimeUnit.SECONDS);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                return Map.of(1L, 3L);
+            };
+
+            ExecutorService callers = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<Map<Long, Long>>> results = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    results.add(callers.submit(() -> cache.getAll(Set.of(1L), loader)));
+                }
+
+                Thread.sleep(100);
+                release.countDown();
+
+                for (Future<Map<Long, Long>> result : results) {
+                    assertEquals(Map.of(1L, 3L), result.get(2, TimeUnit.SECONDS));
+                }
+            } finally {
+                callers.shutdownNow();
+            }
+
+            assertEquals(1, calls.get());
+        }
+
+        @Test
+        public void shouldServeStaleAndRefreshInBackground() throws Exception {
+            cache = new EventViewsCache(100, 50, 60_000, 1, 10, false);
+            AtomicLong current = new AtomicLong(1);
+            AtomicInteger calls = new AtomicInteger();
+            Function<Set<Long>, Map<Long, Long>> loader = eventIds -> {
+                calls.incrementAndGet();
+                return Map.of(1L, current.get());
+            };
+
+            assertEquals(1L, cache.getAll(Set.of(1L), loader).get(1L));
+
+            current.set(2);
+            Thread.sleep(100);
+
+            assertEquals(1L, cache.getAll(Set.of(1L), loader).get(1L));
+
+            long deadline = System.currentTimeMillis() + 2000;
+            while (calls.get() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(50);
+
+            assertEquals(2, calls.get());
+            assertEquals(2L, cache.getAll(Set.of(1L), loader).get(1L));
+        }
+
+        @Test
+        public void shouldKeepStaleIfRefreshFailed() throws Exception {
+            cache = new EventViewsCache(100, 50, 60_000, 1, 10, false);
+            AtomicInteger calls = new AtomicInteger();
+            Function<Set<Long>, Map<Long, Long>> loader = eventIds -> {
+                if (calls.incrementAndGet() > 1) {
+                    throw new IllegalStateException("stats-server is down");
+                }
+                return Map.of(1L, 4L);
+            };
+
+            cache.getAll(Set.of(1L), loader);
+            Thread.sleep(100);
+            cache.getAll(Set.of(1L), loader);
+
+            long deadline = System.currentTimeMillis() + 2000;
+            while (calls.get() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(4L, cache.getAll(Set.of(1L), loader).get(1L));
+            assertTrue(calls.get() >= 2);
+        }
+
+        @Test
+        public void shouldLoadWithNonBlockingLoader() {
+            cache = new EventViewsCache(100, 60_000, 60_000, 1, 10, false);
+            CompletableFuture<Map<Long, Long>> response = new CompletableFuture<>();
+
+            CompletableFuture<Map<Long, Long>> views = cache.getAllNonBlocking(Set.of(1L, 2L), eventIds -> response);
+
+            assertFalse(views.isDone());
+
+            response.complete(Map.of(1L, 5L));
+
+            assertEquals(Map.of(1L, 5L, 2L, 0L), views.join());
+            assertEquals(Map.of(1L, 5L, 2L, 0L), cache.getAllPresent(Set.of(1L, 2L)));
+        }
+
+        @Test
+        public void shouldGetPresentIfLoadQueueIsFull() throws Exception {
+            cache = new EventViewsCache(100, 60_000, 60_000, 1, 1, false);
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Function<Set<Long>, Map<Long, Long>> blockingLoader = eventIds -> {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                return Map.of();
+            };
+
+            cache.getAll(Set.of(1L), eventIds -> Map.of(1L, 5L));
+            CompletableFuture<Map<Long, Long>> running = cache.getAllAsync(Set.of(2L), blockingLoader);
+            assertTrue(started.await(2, TimeUnit.SECONDS));
+            CompletableFuture<Map<Long, Long>> queued = cache.getAllAsync(Set.of(3L), blockingLoader);
+
+            try {
+                assertEquals(Map.of(1L, 5L, 4L, 0L), cache.getAll(Set.of(1L, 4L), eventIds -> Map.of(4L, 9L)));
+            } finally {
+                release.countDown();
+            }
+
+            CompletableFuture.allOf(running, queued).get(5, TimeUnit.SECONDS);
+
+            assertEquals(Map.of(4L, 9L), cache.getAll(Set.of(4L), eventIds -> Map.of(4L, 9L)));
+        }
+
+        @Test
+        public void shouldThrowIfLoadFailed() {
+            cache = new EventViewsCache(100, 60_000, 60_000, 1, 10, false);
+
+            assertThrows(IllegalStateException.class, () -> cache.getAll(Set.of(1L), eventIds -> {
+                throw new IllegalStateException("stats-server is down");
+            }));
+        }
+    }
+
+    @Nested
+    class GetAllPresent {
+        @Test
+        public void shouldGetLoadedAndZeroForMissingOrLoading() throws Exception {
+            cache = new EventViewsCache(100, 60_000, 60_000, 1, 10, false);
+            CountDownLatch release = new CountDownLatch(1);
+
+            cache.getAll(Set.of(1L), eventIds -> Map.of(1L, 5L));
+            cache.getAllAsync(Set.of(2L), eventIds -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                return Map.of(2L, 7L);
+            });
+
+            assertEquals(Map.of(1L, 5L, 2L, 0L, 3L, 0L), cache.getAllPresent(Set.of(1L, 2L, 3L)));
+
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void shouldThrowIfParametersNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> new EventViewsCache(0, 1000, 1000, 1, 10, false));
+        assertThrows(IllegalArgumentException.class, () -> new EventViewsCache(100, 1000, 1000, 1, 0, false));
+    }
+
+    @Test
+    public void shouldLoadOnVirtualThreads() {
+        assumeTrue(VirtualThreads.isSupported());
+
+        cache = new EventViewsCache(100, 60_000, 60_000, 1, 10, true);
+        AtomicReference<String> loaderThread = new AtomicReference<>();
+
+        Map<Long, Long> views = cache.getAll(Set.of(1L), eventIds -> {
+            loaderThread.set(Thread.currentThread().getName());
+            return Map.of(1L, 5L);
+        });
+
+        assertEquals(Map.of(1L, 5L), views);
+        assertTrue(loaderThread.get().startsWith("event-views-loader-"));
+    }
+
+    @Test
+    public void shouldThrowIfVirtualThreadsNotSupported() {
+        assumeFalse(VirtualThreads.isSupported());
+
+        assertThrows(IllegalStateException.class, () -> new EventViewsCache(100, 1000, 1000, 1, 10, true));
+    }
+}
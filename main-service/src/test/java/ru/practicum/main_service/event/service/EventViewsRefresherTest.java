@@ -0,0 +1,104 @@
+package ru.practicum.main_service.event.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.main_service.event.dto.EventViewsProjection;
+import ru.practicum.main_service.event.enums.EventState;
+import ru.practicum.main_service.event.repository.EventRepository;
+import ru.practicum.stats_client.StatsClient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EventViewsRefresherTest {
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private StatsClient statsClient;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final EventViewsProjection event1 = EventViewsProjection.builder()
+            .id(1L)
+            .publishedOn(LocalDateTime.now().minusDays(2))
+            .views(5L)
+            .build();
+    private final EventViewsProjection event2 = EventViewsProjection.builder()
+            .id(2L)
+            .publishedOn(LocalDateTime.now().minusDays(1))
+            .views(3L)
+            .build();
+
+    @Test
+    public void shouldUpdateOnlyChangedViews() {
+        EventViewsRefresher refresher = createRefresher(10);
+
+        when(eventRepository.findViewsByStateAndEventDateAfterId(eq(EventState.PUBLISHED), any(), eq(0L),
+                eq(PageRequest.of(0, 10)))).thenReturn(List.of(event1, event2));
+        when(statsClient.getEventViews(eq(event1.getPublishedOn()), any(), eq(List.of(1L, 2L)), eq(null)))
+                .thenReturn(Map.of(1L, 5L, 2L, 7L));
+
+        assertEquals(1, refresher.refresh());
+
+        verify(eventRepository, times(1)).updateViews(2L, 7L);
+        verify(eventRepository, never()).updateViews(eq(1L), any());
+        verify(eventRepository, never()).findViewsByStateAfterId(any(), anyLong(), any());
+    }
+
+    @Test
+    public void shouldSeekPastLastIdOnEveryPage() {
+        EventViewsRefresher refresher = createRefresher(1);
+
+        when(eventRepository.findViewsByStateAfterId(EventState.PUBLISHED, 0L, PageRequest.of(0, 1)))
+                .thenReturn(List.of(event1));
+        when(eventRepository.findViewsByStateAfterId(EventState.PUBLISHED, 1L, PageRequest.of(0, 1)))
+                .thenReturn(List.of(event2));
+        when(eventRepository.findViewsByStateAfterId(EventState.PUBLISHED, 2L, PageRequest.of(0, 1)))
+                .thenReturn(List.of());
+        when(statsClient.getEventViews(any(), any(), any(), any())).thenReturn(Map.of(1L, 6L, 2L, 4L));
+
+        assertEquals(2, refresher.refreshAll());
+
+        verify(eventRepository, times(1)).updateViews(1L, 6L);
+        verify(eventRepository, times(1)).updateViews(2L, 4L);
+    }
+
+    @Test
+    public void shouldKeepViewsIfStatsUnavailable() {
+        EventViewsRefresher refresher = createRefresher(10);
+
+        when(eventRepository.findViewsByStateAfterId(any(), anyLong(), any())).thenReturn(List.of(event1, event2));
+        when(statsClient.getEventViews(any(), any(), any(), any())).thenThrow(new RuntimeException("unavailable"));
+
+        assertEquals(0, refresher.refreshAll());
+
+        verify(eventRepository, never()).updateViews(any(), any());
+    }
+
+    @Test
+    public void shouldThrowExceptionIfPageSizeNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> createRefresher(0));
+    }
+
+    private EventViewsRefresher createRefresher(int pageSize) {
+        return new EventViewsRefresher(eventRepository, statsClient, transactionManager, pageSize, 7);
+    }
+}
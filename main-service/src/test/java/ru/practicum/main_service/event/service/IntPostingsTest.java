@@ -0,0 +1,193 @@
+package ru.practicum.main_service.event.service;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IntPostingsTest {
+    @Nested
+    class AddAndRemove {
+        @Test
+        public void shouldKeepValuesSortedAndUnique() {
+            IntPostings postings = of(7, 3, 9, 3, 1, 5);
+
+            assertValues(postings, 1, 3, 5, 7, 9);
+            assertTrue(postings.contains(5));
+            assertFalse(postings.contains(4));
+        }
+
+        @Test
+        public void shouldRemove() {
+            IntPostings postings = of(1, 3, 5);
+
+            assertTrue(postings.remove(3));
+            assertFalse(postings.remove(4));
+            assertValues(postings, 1, 5);
+        }
+    }
+
+    @Nested
+    class Compression {
+        @Test
+        public void shouldStoreDeltasAsVarints() {
+            IntPostings postings = new IntPostings();
+
+            for (int value = 1_000_000; value < 1_010_000; value += 10) {
+                postings.add(value);
+            }
+
+            assertEquals(1000, postings.size());
+            assertTrue(postings.sizeInBytes() < postings.size() * 2, String.valueOf(postings.sizeInBytes()));
+            assertTrue(postings.contains(1_000_500));
+            assertFalse(postings.contains(1_000_505));
+            assertEquals(1_009_990, postings.toArray()[999]);
+        }
+
+        @Test
+        public void shouldInsertAndRemoveAcrossBlocks() {
+            IntPostings postings = new IntPostings();
+            List<Integer> expected = new ArrayList<>();
+
+            for (int value = 0; value < 1000; value += 2) {
+                postings.add(value);
+                expected.add(value);
+            }
+
+            for (int value = 999; value > 0; value -= 100) {
+                assertTrue(postings.add(value));
+                expected.add(value);
+            }
+
+            for (int value = 0; value < 1000; value += 150) {
+                assertTrue(postings.remove(value));
+                expected.remove(Integer.valueOf(value));
+            }
+
+            assertValues(postings, expected.stream().sorted().mapToInt(Integer::intValue).toArray());
+        }
+
+        @Test
+        public void shouldSplitBlockOnInsertBeforeTail() {
+            IntPostings postings = new IntPostings();
+
+            for (int value = 999; value >= 0; value--) {
+                assertTrue(postings.add(value));
+            }
+
+            assertEquals(1000, postings.size());
+            assertTrue(postings.sizeInBytes() < postings.size() * 2, String.valueOf(postings.sizeInBytes()));
+            assertValues(postings, IntStream.range(0, 1000).toArray());
+        }
+
+        @Test
+        public void shouldMatchSortedSetAfterRandomUpdates() {
+            IntPostings postings = new IntPostings();
+            TreeSet<Integer> expected = new TreeSet<>();
+            Random random = new Random(7);
+
+            for (int i = 0; i < 20_000; i++) {
+                int value = random.nextInt(5000);
+
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove(value), postings.remove(value));
+                } else {
+                    assertEquals(expected.add(value), postings.add(value));
+                }
+            }
+
+            assertValues(postings, expected.stream().mapToInt(Integer::intValue).toArray());
+            assertEquals(expected.last(), postings.toArray()[postings.size() - 1]);
+        }
+    }
+
+    @Nested
+    class Positions {
+        @Test
+        public void shouldKeepPositionsOfEachValue() {
+            IntPostings postings = new IntPostings(true);
+
+            for (int value = 300; value > 0; value -= 3) {
+                postings.add(value, new int[]{value, value + 200, value + 70_000});
+            }
+            assertTrue(postings.remove(150));
+
+            IntPostings.Cursor cursor = postings.cursor();
+
+            assertEquals(147, cursor.advance(146));
+            assertArrayEquals(new int[]{147, 347, 70_147}, cursor.positions());
+            assertEquals(153, cursor.advance(150));
+            assertArrayEquals(new int[]{153, 353, 70_153}, cursor.positions());
+            assertEquals(156, cursor.next());
+            assertArrayEquals(new int[]{156, 356, 70_156}, cursor.positions());
+            assertEquals(99, postings.size());
+        }
+    }
+
+    @Nested
+    class Advance {
+        @Test
+        public void shouldSkipToFirstValueNotLessThanTarget() {
+            IntPostings postings = new IntPostings();
+
+            for (int value = 0; value < 10_000; value += 3) {
+                postings.add(value);
+            }
+
+            IntPostings.Cursor cursor = postings.cursor();
+
+            assertEquals(0, cursor.advance(0));
+            assertEquals(3, cursor.advance(1));
+            assertEquals(3, cursor.advance(3));
+            assertEquals(5001, cursor.advance(5000));
+            assertEquals(9999, cursor.advance(9998));
+            assertEquals(-1, cursor.advance(10_000));
+        }
+    }
+
+    @Nested
+    class Union {
+        @Test
+        public void shouldMergeWithoutDuplicates() {
+            assertValues(IntPostings.union(List.of(of(1, 4, 9), of(2, 4, 10), of())), 1, 2, 4, 9, 10);
+        }
+    }
+
+    @Nested
+    class Intersect {
+        @Test
+        public void shouldKeepCommonValues() {
+            assertValues(IntPostings.intersect(List.of(of(1, 2, 3, 4, 5, 6, 7, 8), of(2, 4, 6, 8), of(4, 5, 6, 8))),
+                    4, 6, 8);
+        }
+
+        @Test
+        public void shouldReturnEmptyIfNoCommonValues() {
+            assertTrue(IntPostings.intersect(List.of(of(1, 3), of(2, 4))).isEmpty());
+        }
+    }
+
+    private IntPostings of(int... values) {
+        IntPostings postings = new IntPostings();
+
+        for (int value : values) {
+            postings.add(value);
+        }
+
+        return postings;
+    }
+
+    private void assertValues(IntPostings postings, int... values) {
+        assertEquals(values.length, postings.size());
+        assertArrayEquals(values, postings.toArray());
+    }
+}
@@ -0,0 +1,328 @@
+package ru.practicum.main_service.event.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.main_service.category.model.Category;
+import ru.practicum.main_service.category.repository.CategoryRepository;
+import ru.practicum.main_service.event.dto.ParticipationRequestDto;
+import ru.practicum.main_service.event.enums.EventState;
+import ru.practicum.main_service.event.enums.RequestStatus;
+import ru.practicum.main_service.event.mapper.RequestMapper;
+import ru.practicum.main_service.event.model.Event;
+import ru.practicum.main_service.event.model.Location;
+import ru.practicum.main_service.event.repository.EventRepository;
+import ru.practicum.main_service.event.repository.LocationRepository;
+import ru.practicum.main_service.event.repository.RequestRepository;
+import ru.practicum.main_service.exception.ForbiddenException;
+import ru.practicum.main_service.exception.NotFoundException;
+import ru.practicum.main_service.exception.TooManyRequestsException;
+import ru.practicum.main_service.user.model.User;
+import ru.practicum.main_service.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class RequestAdmissionQueueTest {
+    private static final int REQUESTERS = 500;
+    private static final int PARTICIPANT_LIMIT = 10;
+
+    private final EventRepository eventRepository;
+    private final RequestRepository requestRepository;
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final LocationRepository locationRepository;
+    private final RequestMapper requestMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    private RequestAdmissionQueue queue;
+    private User initiator;
+    private Category category;
+    private Location location;
+
+    @BeforeEach
+    public void beforeEach() {
+        initiator = userRepository.save(User.builder()
+                .name("initiator")
+                .email("initiator@yandex.ru")
+                .build());
+        category = categoryRepository.save(Category.builder()
+                .name("concerts")
+                .build());
+        location = locationRepository.save(Location.builder()
+                .lat(55.75F)
+                .lon(37.61F)
+                .build());
+    }
+
+    @AfterEach
+    public void afterEach() {
+        if (queue != null) {
+            queue.stop();
+        }
+
+        jdbcTemplate.update("DELETE FROM requests");
+        jdbcTemplate.update("DELETE FROM events");
+        jdbcTemplate.update("DELETE FROM locations");
+        jdbcTemplate.update("DELETE FROM categories");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Nested
+    class Submit {
+        @Test
+        public void shouldAdmitInOrderWithoutOverbooking() throws Exception {
+            Event event = createEvent(PARTICIPANT_LIMIT, false, EventState.PUBLISHED);
+            List<User> requesters = createUsers(REQUESTERS);
+            startQueue(event);
+
+            AtomicInteger confirmed = new AtomicInteger();
+            AtomicInteger rejected = new AtomicInteger();
+            Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(REQUESTERS);
+
+            try {
+                List<Future<?>> results = new ArrayList<>();
+
+                for (User requester : requesters) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        try {
+                            ParticipationRequestDto request = queue.submit(requester.getId(), event.getId())
+                                    .orElseThrow();
+                            assertEquals(RequestStatus.CONFIRMED, request.getStatus());
+                            assertNotNull(request.getId());
+                            confirmed.incrementAndGet();
+                        } catch (ForbiddenException exception) {
+                            rejected.incrementAndGet();
+                        } catch (RuntimeException | AssertionError exception) {
+                            failures.add(exception);
+                        }
+                        return null;
+                    }));
+                }
+
+                start.countDown();
+
+                for (Future<?> result : results) {
+                    result.get(60, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertTrue(failures.isEmpty(), failures.toString());
+            assertEquals(PARTICIPANT_LIMIT, confirmed.get());
+            assertEquals(REQUESTERS - PARTICIPANT_LIMIT, rejected.get());
+            assertEquals(PARTICIPANT_LIMIT, eventRepository.getConfirmedRequests(event.getId()));
+            assertEquals(PARTICIPANT_LIMIT, jdbcTemplate.queryForObject("SELECT COUNT(id) FROM requests " +
+                    "WHERE event_id = ? AND status = 'CONFIRMED'", Long.class, event.getId()));
+        }
+
+        @Test
+        public void shouldCreatePendingIfModerated() {
+            Event event = createEvent(PARTICIPANT_LIMIT, true, EventState.PUBLISHED);
+            User requester = createUsers(1).get(0);
+            startQueue(event);
+
+            ParticipationRequestDto request = queue.submit(requester.getId(), event.getId()).orElseThrow();
+
+            assertNotNull(request.getId());
+            assertEquals(event.getId(), request.getEvent());
+            assertEquals(requester.getId(), request.getRequester());
+            assertEquals(RequestStatus.PENDING, request.getStatus());
+            assertEquals(0L, eventRepository.getConfirmedRequests(event.getId()));
+        }
+
+        @Test
+        public void shouldReturnEmptyIfNotAdmittedInTime() throws Exception {
+            Event event = createEvent(PARTICIPANT_LIMIT, false, EventState.PUBLISHED);
+            User requester = createUsers(1).get(0);
+            startQueue(event, 10, 50);
+            CountDownLatch release = new CountDownLatch(1);
+            Thread lock = lockEvent(event, release);
+
+            try {
+                assertTrue(queue.submit(requester.getId(), event.getId()).isEmpty());
+            } finally {
+                release.countDown();
+                lock.join();
+            }
+
+            queue.stop();
+
+            assertEquals(1L, eventRepository.getConfirmedRequests(event.getId()));
+        }
+
+        @Test
+        public void shouldThrowExceptionIfShardIsFull() throws Exception {
+            Event event = createEvent(PARTICIPANT_LIMIT, false, EventState.PUBLISHED);
+            List<User> requesters = createUsers(3);
+            startQueue(event, 1, 50);
+            CountDownLatch release = new CountDownLatch(1);
+            Thread lock = lockEvent(event, release);
+
+            try {
+                assertTrue(queue.submit(requesters.get(0).getId(), event.getId()).isEmpty());
+                assertTrue(queue.submit(requesters.get(1).getId(), event.getId()).isEmpty());
+
+                TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                        () -> queue.submit(requesters.get(2).getId(), event.getId()));
+                assertEquals(1L, exception.getRetryAfterSeconds());
+            } finally {
+                release.countDown();
+                lock.join();
+            }
+        }
+
+        @Test
+        public void shouldThrowExceptionIfRequestedTwice() {
+            Event event = createEvent(PARTICIPANT_LIMIT, true, EventState.PUBLISHED);
+            User requester = createUsers(1).get(0);
+            startQueue(event);
+
+            queue.submit(requester.getId(), event.getId());
+
+            ForbiddenException exception = assertThrows(ForbiddenException.class,
+                    () -> queue.submit(requester.getId(), event.getId()));
+            assertEquals("Создавать повторный запрос запрещено.", exception.getMessage());
+        }
+
+        @Test
+        public void shouldThrowExceptionIfEventOwner() {
+            Event event = createEvent(PARTICIPANT_LIMIT, true, EventState.PUBLISHED);
+            startQueue(event);
+
+            ForbiddenException exception = assertThrows(ForbiddenException.class,
+                    () -> queue.submit(initiator.getId(), event.getId()));
+            assertEquals("Нельзя создавать запрос на собственное событие.", exception.getMessage());
+        }
+
+        @Test
+        public void shouldThrowExceptionIfEventNotPublished() {
+            Event event = createEvent(PARTICIPANT_LIMIT, true, EventState.PENDING);
+            User requester = createUsers(1).get(0);
+            startQueue(event);
+
+            ForbiddenException exception = assertThrows(ForbiddenException.class,
+                    () -> queue.submit(requester.getId(), event.getId()));
+            assertEquals("Нельзя создавать запрос на неопубликованное событие.", exception.getMessage());
+        }
+
+        @Test
+        public void shouldThrowExceptionIfUserNotFound() {
+            Event event = createEvent(PARTICIPANT_LIMIT, true, EventState.PUBLISHED);
+            startQueue(event);
+
+            NotFoundException exception = assertThrows(NotFoundException.class,
+                    () -> queue.submit(999L, event.getId()));
+            assertEquals("Пользователя с таким id не существует.", exception.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldBeEnabledOnlyForConfiguredEvents() {
+        Event event = createEvent(PARTICIPANT_LIMIT, true, EventState.PUBLISHED);
+        startQueue(event);
+
+        assertTrue(queue.isEnabled(event.getId()));
+        assertFalse(queue.isEnabled(event.getId() + 1));
+    }
+
+    @Test
+    public void shouldThrowIfParametersNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> new RequestAdmissionQueue(eventRepository,
+                requestRepository, userRepository, requestMapper, transactionManager, Set.of(), 0, 100, 10, 1000));
+    }
+
+    private void startQueue(Event event) {
+        queue = new RequestAdmissionQueue(eventRepository, requestRepository, userRepository, requestMapper,
+                transactionManager, Set.of(event.getId()), 4, 10000, 100, 10_000);
+        queue.start();
+    }
+
+    private void startQueue(Event event, int queueCapacity, long replyTimeoutMs) {
+        queue = new RequestAdmissionQueue(eventRepository, requestRepository, userRepository, requestMapper,
+                transactionManager, Set.of(event.getId()), 1, queueCapacity, 1, replyTimeoutMs);
+        queue.start();
+    }
+
+    private Thread lockEvent(Event event, CountDownLatch release) throws InterruptedException {
+        CountDownLatch locked = new CountDownLatch(1);
+        Thread thread = new Thread(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            eventRepository.findByIdForUpdate(event.getId());
+            locked.countDown();
+
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        thread.start();
+        locked.await();
+
+        return thread;
+    }
+
+    private Event createEvent(int participantLimit, boolean requestModeration, EventState state) {
+        return eventRepository.save(Event.builder()
+                .title("popular event")
+                .annotation("popular event annotation")
+                .description("popular event description")
+                .eventDate(LocalDateTime.now().plusDays(7))
+                .category(category)
+                .location(location)
+                .paid(false)
+                .participantLimit(participantLimit)
+                .requestModeration(requestModeration)
+                .initiator(initiator)
+                .state(state)
+                .createdOn(LocalDateTime.now().minusDays(1))
+                .publishedOn(state == EventState.PUBLISHED ? LocalDateTime.now().minusHours(1) : null)
+                .build());
+    }
+
+    private List<User> createUsers(int count) {
+        List<User> users = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder()
+                    .name("requester " + i)
+                    .email("requester" + i + "@yandex.ru")
+                    .build());
+        }
+
+        return userRepository.saveAll(users);
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practicum.main_service.event.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.main_service.category.model.Category;
+import ru.practicum.main_service.category.repository.CategoryRepository;
+import ru.practicum.main_service.event.enums.EventState;
+import ru.practicum.main_service.event.model.Event;
+import ru.practicum.main_service.event.model.Location;
+import ru.practicum.main_service.event.repository.EventRepository;
+import ru.practicum.main_service.event.repository.LocationRepository;
+import ru.practicum.main_service.exception.ForbiddenException;
+import ru.practicum.main_service.user.model.User;
+import ru.practicum.main_service.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class RequestServiceConcurrencyTest {
+    private static final int REQUESTERS = 500;
+    private static final int PARTICIPANT_LIMIT = 10;
+
+    private final RequestService requestService;
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final LocationRepository locationRepository;
+    private final EventRepository eventRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void shouldNotOverbookUnderConcurrentRequests() throws Exception {
+        User initiator = userRepository.save(User.builder()
+                .name("initiator")
+                .email("initiator@yandex.ru")
+                .build());
+        Event event = eventRepository.save(Event.builder()
+                .title("popular event")
+                .annotation("popular event annotation")
+                .description("popular event description")
+                .eventDate(LocalDateTime.now().plusDays(7))
+                .category(categoryRepository.save(Category.builder().name("concerts").build()))
+                .location(locationRepository.save(Location.builder().lat(55.75F).lon(37.61F).build()))
+                .paid(false)
+                .participantLimit(PARTICIPANT_LIMIT)
+                .requestModeration(false)
+                .initiator(initiator)
+                .state(EventState.PUBLISHED)
+                .createdOn(LocalDateTime.now().minusDays(1))
+                .publishedOn(LocalDateTime.now().minusHours(1))
+                .build());
+
+        List<User> requesters = new ArrayList<>();
+        for (int i = 0; i < REQUESTERS; i++) {
+            requesters.add(User.builder()
+                    .name("requester " + i)
+                    .email("requester" + i + "@yandex.ru")
+                    .build());
+        }
+        requesters = userRepository.saveAll(requesters);
+
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTERS);
+
+        try {
+            List<Future<?>> results = new ArrayList<>();
+
+            for (User requester : requesters) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        requestService.createEventRequest(requester.getId(), event.getId());
+                        confirmed.incrementAndGet();
+                    } catch (ForbiddenException exception) {
+                        rejected.incrementAndGet();
+                    } catch (RuntimeException exception) {
+                        failures.add(exception);
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(failures.isEmpty(), failures.toString());
+        assertEquals(PARTICIPANT_LIMIT, confirmed.get());
+        assertEquals(REQUESTERS - PARTICIPANT_LIMIT, rejected.get());
+        assertEquals(PARTICIPANT_LIMIT, eventRepository.getConfirmedRequests(event.getId()));
+        assertEquals(PARTICIPANT_LIMIT, jdbcTemplate.queryForObject("SELECT COUNT(id) FROM requests " +
+                "WHERE event_id = ? AND status = 'CONFIRMED'", Long.class, event.getId()));
+    }
+}
@@ -18,6 +18,7 @@ import ru.practicum.main_service.event.enums.RequestStatusAction;
 import ru.practicum.main_service.event.mapper.RequestMapperImpl;
 import ru.practicum.main_service.event.model.Event;
 import ru.practicum.main_service.event.model.Request;
+import ru.practicum.main_service.event.repository.EventRepository;
 import ru.practicum.main_service.event.repository.RequestRepository;
 import ru.practicum.main_service.exception.ForbiddenException;
 import ru.practicum.main_service.exception.NotFoundException;
@@ -25,9 +26,7 @@ import ru.practicum.main_service.user.model.User;
 import ru.practicum.main_service.user.service.UserService;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -36,6 +35,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -50,7 +50,7 @@ public class RequestServiceTest {
     private EventService eventService;
 
     @Mock
-    private StatsService statsService;
+    private EventRepository eventRepository;
 
     @Mock
     private RequestRepository requestRepository;
@@ -161,7 +161,6 @@ public class RequestServiceTest {
             .created(request4.getCreated())
             .status(request4.getStatus())
             .build();
-    private Map<Long, Long> confirmedRequests;
     private EventRequestStatusUpdateRequest eventRequestStatusUpdateRequest;
 
     @Nested
@@ -204,18 +203,11 @@ public class RequestServiceTest {
 
     @Nested
     class CreateEventRequest {
-        @BeforeEach
-        public void beforeEach() {
-            confirmedRequests = new HashMap<>();
-            confirmedRequests.put(2L, 2L);
-        }
-
         @Test
         public void shouldCreatePending() {
             when(userService.getUserById(user2.getId())).thenReturn(user2);
             when(eventService.getEventById(event2.getId())).thenReturn(event2);
             when(requestRepository.findByEventIdAndRequesterId(event2.getId(), user2.getId())).thenReturn(Optional.empty());
-            when(statsService.getConfirmedRequests(List.of(event2))).thenReturn(new HashMap<>());
             when(requestRepository.save(any())).thenReturn(request4);
             when(requestMapper.toParticipationRequestDto(any())).thenCallRealMethod();
 
@@ -226,8 +218,8 @@ public class RequestServiceTest {
             verify(userService, times(1)).getUserById(any());
             verify(eventService, times(1)).getEventById(any());
             verify(requestRepository, times(1)).findByEventIdAndRequesterId(any(), any());
-            verify(statsService, times(1)).getConfirmedRequests(any());
             verify(requestRepository, times(1)).save(requestArgumentCaptor.capture());
+            verify(eventRepository, never()).admitConfirmedRequests(any(), anyLong());
             verify(requestMapper, times(1)).toParticipationRequestDto(any());
 
             Request savedRequest = requestArgumentCaptor.getValue();
@@ -244,7 +236,8 @@ public class RequestServiceTest {
             when(userService.getUserById(user2.getId())).thenReturn(user2);
             when(eventService.getEventById(event3.getId())).thenReturn(event3);
             when(requestRepository.findByEventIdAndRequesterId(event3.getId(), user2.getId())).thenReturn(Optional.empty());
-            when(statsService.getConfirmedRequests(List.of(event3))).thenReturn(new HashMap<>());
+            when(eventRepository.admitConfirmedRequests(event3.getId(), 1L)).thenReturn(1);
+            when(eventRepository.getConfirmedRequests(event3.getId())).thenReturn(1L);
             when(requestRepository.save(any())).thenReturn(request2);
             when(requestMapper.toParticipationRequestDto(any())).thenCallRealMethod();
 
@@ -255,8 +248,8 @@ public class RequestServiceTest {
             verify(userService, times(1)).getUserById(any());
             verify(eventService, times(1)).getEventById(any());
             verify(requestRepository, times(1)).findByEventIdAndRequesterId(any(), any());
-            verify(statsService, times(1)).getConfirmedRequests(any());
             verify(requestRepository, times(1)).save(requestArgumentCaptor.capture());
+            verify(eventRepository, times(1)).admitConfirmedRequests(event3.getId(), 1L);
             verify(requestMapper, times(1)).toParticipationRequestDto(any());
 
             Request savedRequest = requestArgumentCaptor.getValue();
@@ -266,6 +259,7 @@ public class RequestServiceTest {
             assertEquals(user2.getId(), savedRequest.getRequester().getId());
             assertEquals(RequestStatus.CONFIRMED, savedRequest.getStatus());
             assertNotNull(savedRequest.getCreated());
+            assertEquals(1L, event3.getConfirmedRequests());
         }
 
         @Test
@@ -315,10 +309,11 @@ public class RequestServiceTest {
 
         @Test
         public void shouldTrowExceptionIfLimitReached() {
+            event2.setConfirmedRequests(2L);
+
             when(userService.getUserById(user2.getId())).thenReturn(user2);
             when(eventService.getEventById(event2.getId())).thenReturn(event2);
             when(requestRepository.findByEventIdAndRequesterId(event2.getId(), user2.getId())).thenReturn(Optional.empty());
-            when(statsService.getConfirmedRequests(List.of(event2))).thenReturn(confirmedRequests);
 
             ForbiddenException exception = assertThrows(ForbiddenException.class,
                     () -> requestService.createEventRequest(user2.getId(), event2.getId()));
@@ -328,7 +323,24 @@ public class RequestServiceTest {
             verify(userService, times(1)).getUserById(any());
             verify(eventService, times(1)).getEventById(any());
             verify(requestRepository, times(1)).findByEventIdAndRequesterId(any(), any());
-            verify(statsService, times(1)).getConfirmedRequests(any());
+            verify(requestRepository, never()).save(any());
+            verify(eventRepository, never()).admitConfirmedRequests(any(), anyLong());
+        }
+
+        @Test
+        public void shouldTrowExceptionIfLimitReachedConcurrently() {
+            when(userService.getUserById(user2.getId())).thenReturn(user2);
+            when(eventService.getEventById(event3.getId())).thenReturn(event3);
+            when(requestRepository.findByEventIdAndRequesterId(event3.getId(), user2.getId())).thenReturn(Optional.empty());
+            when(eventRepository.admitConfirmedRequests(event3.getId(), 1L)).thenReturn(0);
+
+            ForbiddenException exception = assertThrows(ForbiddenException.class,
+                    () -> requestService.createEventRequest(user2.getId(), event3.getId()));
+            assertEquals(String.format("Достигнут лимит подтвержденных запросов на участие: %s",
+                    event3.getParticipantLimit()), exception.getMessage());
+
+            verify(eventRepository, times(1)).admitConfirmedRequests(any(), anyLong());
+            verify(eventRepository, never()).getConfirmedRequests(any());
             verify(requestRepository, never()).save(any());
         }
     }
@@ -353,6 +365,7 @@ public class RequestServiceTest {
             verify(userService, times(1)).getUserById(any());
             verify(requestRepository, times(1)).findById(any());
             verify(requestRepository, times(1)).save(requestArgumentCaptor.capture());
+            verify(eventRepository, never()).addConfirmedRequests(any(), anyLong());
             verify(requestMapper, times(1)).toParticipationRequestDto(any());
 
             Request savedRequest = requestArgumentCaptor.getValue();
@@ -364,6 +377,29 @@ public class RequestServiceTest {
             assertEquals(request4.getCreated(), savedRequest.getCreated());
         }
 
+        @Test
+        public void shouldCancelConfirmed() {
+            event3.setConfirmedRequests(1L);
+
+            when(userService.getUserById(user2.getId())).thenReturn(user2);
+            when(requestRepository.findById(request2.getId())).thenReturn(Optional.of(request2));
+            when(requestRepository.save(any())).thenReturn(request2);
+            when(requestMapper.toParticipationRequestDto(any())).thenCallRealMethod();
+            when(eventRepository.getConfirmedRequests(event3.getId())).thenReturn(1L);
+
+            ParticipationRequestDto participationRequestDto = requestService.cancelEventRequest(user2.getId(), request2.getId());
+
+            assertEquals(RequestStatus.CANCELED, participationRequestDto.getStatus());
+            assertEquals(1L, event3.getConfirmedRequests());
+
+            verify(userService, times(1)).getUserById(any());
+            verify(requestRepository, times(1)).findById(any());
+            verify(eventRepository, times(1)).addConfirmedRequests(event3.getId(), -1L);
+            verify(eventRepository, times(1)).getConfirmedRequests(event3.getId());
+            verify(requestRepository, times(1)).save(any());
+            verify(requestMapper, times(1)).toParticipationRequestDto(any());
+        }
+
         @Test
         public void shouldThrowExceptionIfRequestNotFound() {
             when(userService.getUserById(user2.getId())).thenReturn(user2);
@@ -450,7 +486,6 @@ public class RequestServiceTest {
                     .status(RequestStatusAction.REJECTED)
                     .requestIds(List.of(request4.getId()))
                     .build();
-            confirmedRequests = new HashMap<>();
         }
 
         @Test
@@ -492,14 +527,15 @@ public class RequestServiceTest {
 
         @Test
         public void shouldConfirmed() {
-            confirmedRequests.put(event2.getId(), 1L);
+            event2.setConfirmedRequests(1L);
             eventRequestStatusUpdateRequest.setStatus(RequestStatusAction.CONFIRMED);
 
             when(userService.getUserById(user1.getId())).thenReturn(user1);
             when(eventService.getEventById(event2.getId())).thenReturn(event2);
             when(requestRepository.findAllByIdIn(eventRequestStatusUpdateRequest.getRequestIds()))
                     .thenReturn(List.of(request4));
-            when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
+            when(eventRepository.admitConfirmedRequests(event2.getId(), 1L)).thenReturn(1);
+            when(eventRepository.getConfirmedRequests(event2.getId())).thenReturn(2L);
             when(requestRepository.saveAll(List.of(request4))).thenReturn(List.of(request4));
             when(requestRepository.findAllByEventIdAndStatus(event2.getId(), RequestStatus.PENDING))
                     .thenReturn(List.of(request3));
@@ -517,12 +553,13 @@ public class RequestServiceTest {
 
             assertEquals(request4.getId(), confirmedRequestsDto.getId());
             assertEquals(request3.getId(), rejectedRequestsDto.getId());
+            assertEquals(2L, event2.getConfirmedRequests());
 
             verify(userService, times(1)).getUserById(any());
             verify(eventService, times(1)).getEventById(any());
             verify(requestRepository, times(1)).findAllByIdIn(any());
-            verify(statsService, times(1)).getConfirmedRequests(any());
             verify(requestRepository, times(2)).saveAll(requestsArgumentCaptor.capture());
+            verify(eventRepository, times(1)).admitConfirmedRequests(event2.getId(), 1L);
             verify(requestRepository, times(1)).findAllByEventIdAndStatus(any(), any());
             verify(requestMapper, times(2)).toParticipationRequestDto(any());
 
@@ -603,16 +640,34 @@ public class RequestServiceTest {
             verify(requestRepository, never()).saveAll(any());
         }
 
+        @Test
+        public void shouldThrowExceptionIfRequestOfAnotherEvent() {
+            eventRequestStatusUpdateRequest.setStatus(RequestStatusAction.CONFIRMED);
+            eventRequestStatusUpdateRequest.setRequestIds(List.of(request3.getId()));
+
+            when(userService.getUserById(user1.getId())).thenReturn(user1);
+            when(eventService.getEventById(event2.getId())).thenReturn(event2);
+            when(requestRepository.findAllByIdIn(eventRequestStatusUpdateRequest.getRequestIds()))
+                    .thenReturn(List.of(request3));
+
+            ForbiddenException exception = assertThrows(ForbiddenException.class,
+                    () -> requestService.patchEventRequestsByEventOwner(user1.getId(), event2.getId(),
+                            eventRequestStatusUpdateRequest));
+            assertEquals("Изменять можно только заявки на участие в этом событии.", exception.getMessage());
+
+            verify(requestRepository, never()).saveAll(any());
+            verify(eventRepository, never()).admitConfirmedRequests(any(), anyLong());
+        }
+
         @Test
         public void shouldThrowExceptionIfConfirmedRequestLimitReached() {
-            confirmedRequests.put(event2.getId(), 2L);
+            event2.setConfirmedRequests(2L);
             eventRequestStatusUpdateRequest.setStatus(RequestStatusAction.CONFIRMED);
 
             when(userService.getUserById(user1.getId())).thenReturn(user1);
             when(eventService.getEventById(event2.getId())).thenReturn(event2);
             when(requestRepository.findAllByIdIn(eventRequestStatusUpdateRequest.getRequestIds()))
                     .thenReturn(List.of(request4));
-            when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
 
             ForbiddenException exception = assertThrows(ForbiddenException.class,
                     () -> requestService.patchEventRequestsByEventOwner(user1.getId(), event2.getId(),
@@ -623,7 +678,27 @@ public class RequestServiceTest {
             verify(userService, times(1)).getUserById(any());
             verify(eventService, times(1)).getEventById(any());
             verify(requestRepository, times(1)).findAllByIdIn(any());
-            verify(statsService, times(1)).getConfirmedRequests(any());
+            verify(requestRepository, never()).saveAll(any());
+            verify(eventRepository, never()).admitConfirmedRequests(any(), anyLong());
+        }
+
+        @Test
+        public void shouldThrowExceptionIfConfirmedRequestLimitReachedConcurrently() {
+            eventRequestStatusUpdateRequest.setStatus(RequestStatusAction.CONFIRMED);
+
+            when(userService.getUserById(user1.getId())).thenReturn(user1);
+            when(eventService.getEventById(event2.getId())).thenReturn(event2);
+            when(requestRepository.findAllByIdIn(eventRequestStatusUpdateRequest.getRequestIds()))
+                    .thenReturn(List.of(request4));
+            when(eventRepository.admitConfirmedRequests(event2.getId(), 1L)).thenReturn(0);
+
+            ForbiddenException exception = assertThrows(ForbiddenException.class,
+                    () -> requestService.patchEventRequestsByEventOwner(user1.getId(), event2.getId(),
+                            eventRequestStatusUpdateRequest));
+            assertEquals(String.format("Достигнут лимит подтвержденных запросов на участие: %s",
+                    event2.getParticipantLimit()), exception.getMessage());
+
+            verify(eventRepository, times(1)).admitConfirmedRequests(any(), anyLong());
             verify(requestRepository, never()).saveAll(any());
         }
     }
@@ -0,0 +1,169 @@
+package ru.practicum.main_service.event.service;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import ru.practicum.main_service.event.enums.HitOverflowPolicy;
+import ru.practicum.stats_client.StatsClient;
+import ru.practicum.stats_common.model.EndpointHit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StatsHitBufferTest {
+    @Mock
+    private StatsClient statsClient;
+
+    private final EndpointHit endpointHit1 = EndpointHit.builder()
+            .app("main-service")
+            .uri("/events/1")
+            .ip("127.0.0.1")
+            .timestamp("2020-05-05 10:00:00")
+            .build();
+    private final EndpointHit endpointHit2 = EndpointHit.builder()
+            .app("main-service")
+            .uri("/events/2")
+            .ip("127.0.0.2")
+            .timestamp("2020-05-05 10:00:01")
+            .build();
+    private final EndpointHit endpointHit3 = EndpointHit.builder()
+            .app("main-service")
+            .uri("/events/3")
+            .ip("127.0.0.3")
+            .timestamp("2020-05-05 10:00:02")
+            .build();
+
+    @Nested
+    class Add {
+        @Test
+        public void shouldFlushInBackgroundByInterval() {
+            StatsHitBuffer buffer = new StatsHitBuffer(statsClient, 10, 100, 50, HitOverflowPolicy.DROP);
+            buffer.start();
+
+            buffer.add(endpointHit1);
+            buffer.add(endpointHit2);
+
+            verify(statsClient, timeout(2000).times(1)).addHits(List.of(endpointHit1, endpointHit2));
+
+            buffer.stop();
+        }
+
+        @Test
+        public void shouldFlushInBackgroundBySize() {
+            StatsHitBuffer buffer = new StatsHitBuffer(statsClient, 10, 2, 60_000, HitOverflowPolicy.DROP);
+
+            buffer.add(endpointHit1);
+            buffer.add(endpointHit2);
+            buffer.add(endpointHit3);
+            buffer.start();
+
+            verify(statsClient, timeout(2000).times(1)).addHits(List.of(endpointHit1, endpointHit2));
+            verify(statsClient, never()).addHits(List.of(endpointHit3));
+
+            buffer.stop();
+
+            verify(statsClient, times(1)).addHits(List.of(endpointHit3));
+        }
+
+        @Test
+        public void shouldDropWhenFull() {
+            StatsHitBuffer buffer = new StatsHitBuffer(statsClient, 1, 100, 1000, HitOverflowPolicy.DROP);
+
+            buffer.add(endpointHit1);
+            buffer.add(endpointHit2);
+
+            assertEquals(1, buffer.getDroppedHits());
+
+            buffer.stop();
+
+            verify(statsClient, times(1)).addHits(List.of(endpointHit1));
+        }
+
+        @Test
+        public void shouldSurviveStatsServerFailure() {
+            when(statsClient.addHits(List.of(endpointHit1))).thenThrow(new IllegalStateException("stats-server is down"));
+
+            StatsHitBuffer buffer = new StatsHitBuffer(statsClient, 10, 1, 50, HitOverflowPolicy.BLOCK);
+            buffer.start();
+
+            buffer.add(endpointHit1);
+            buffer.add(endpointHit2);
+
+            verify(statsClient, timeout(2000).times(1)).addHits(List.of(endpointHit2));
+
+            buffer.stop();
+        }
+    }
+
+    @Nested
+    class Flush {
+        @Test
+        public void shouldSendSinglyIfBatchRejected() {
+            when(statsClient.addHits(List.of(endpointHit1, endpointHit2)))
+                    .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+            when(statsClient.addHit(endpointHit1)).thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+
+            StatsHitBuffer buffer = new StatsHitBuffer(statsClient, 10, 100, 1000, HitOverflowPolicy.BLOCK);
+
+            buffer.add(endpointHit1);
+            buffer.add(endpointHit2);
+            buffer.stop();
+
+            verify(statsClient, times(1)).addHit(endpointHit1);
+            verify(statsClient, times(1)).addHit(endpointHit2);
+        }
+
+        @Test
+        public void shouldNotSendSinglyIfServerError() {
+            when(statsClient.addHits(List.of(endpointHit1, endpointHit2)))
+                    .thenThrow(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR));
+
+            StatsHitBuffer buffer = new StatsHitBuffer(statsClient, 10, 100, 1000, HitOverflowPolicy.BLOCK);
+
+            buffer.add(endpointHit1);
+            buffer.add(endpointHit2);
+            buffer.stop();
+
+            verify(statsClient, never()).addHit(any(EndpointHit.class));
+        }
+    }
+
+    @Nested
+    class Stop {
+        @Test
+        public void shouldFlushRemainingOnShutdown() {
+            StatsHitBuffer buffer = new StatsHitBuffer(statsClient, 10, 2, 1000, HitOverflowPolicy.BLOCK);
+
+            buffer.add(endpointHit1);
+            buffer.add(endpointHit2);
+            buffer.add(endpointHit3);
+
+            verify(statsClient, never()).addHits(any());
+
+            buffer.stop();
+
+            verify(statsClient, times(1)).addHits(List.of(endpointHit1, endpointHit2));
+            verify(statsClient, times(1)).addHits(List.of(endpointHit3));
+        }
+    }
+
+    @Test
+    public void shouldThrowIfParametersNotPositive() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new StatsHitBuffer(statsClient, 0, 100, 1000, HitOverflowPolicy.DROP));
+    }
+}
@@ -3,27 +3,33 @@ package ru.practicum.main_service.event.service;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 import ru.practicum.main_service.MainCommonUtils;
-import ru.practicum.main_service.event.dto.RequestStats;
 import ru.practicum.main_service.event.model.Event;
-import ru.practicum.main_service.event.repository.RequestRepository;
+import ru.practicum.stats_client.StatsAsyncClient;
 import ru.practicum.stats_client.StatsClient;
+import ru.practicum.stats_common.model.EndpointHit;
 import ru.practicum.stats_common.model.ViewStats;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -35,11 +41,20 @@ public class StatsServiceTest {
     private StatsClient statsClient;
 
     @Mock
-    private RequestRepository requestRepository;
+    private StatsAsyncClient statsAsyncClient;
+
+    @Mock
+    private StatsHitBuffer statsHitBuffer;
+
+    @Mock
+    private EventViewsCache eventViewsCache;
 
     @InjectMocks
     private StatsServiceImpl statsService;
 
+    @Captor
+    private ArgumentCaptor<EndpointHit> endpointHitArgumentCaptor;
+
     private final LocalDateTime startDate = LocalDateTime.parse("2020-08-24 13:30:00", MainCommonUtils.DT_FORMATTER);
     private final LocalDateTime endDate = LocalDateTime.parse("2020-08-24 13:30:00", MainCommonUtils.DT_FORMATTER);
     private final Boolean unique = false;
@@ -57,33 +72,38 @@ public class StatsServiceTest {
             .id(1L)
             .createdOn(LocalDateTime.now().minusDays(5))
             .publishedOn(LocalDateTime.now().minusHours(3))
+            .confirmedRequests(40L)
             .build();
     private final Event event2 = Event.builder()
             .id(2L)
             .createdOn(LocalDateTime.now().minusDays(1))
             .publishedOn(LocalDateTime.now().minusDays(3))
+            .confirmedRequests(16L)
             .build();
     private final Event event3 = Event.builder()
             .id(3L)
             .createdOn(LocalDateTime.now().minusDays(1))
             .publishedOn(null)
             .build();
-    private final RequestStats requestStats1 = RequestStats.builder()
-            .eventId(1L)
-            .confirmedRequests(40L)
-            .build();
-    private final RequestStats requestStats2 = RequestStats.builder()
-            .eventId(2L)
-            .confirmedRequests(16L)
-            .build();
 
     @Nested
     class AddHit {
         @Test
         public void shouldAdd() {
-            statsService.addHit(new MockHttpServletRequest());
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.setRequestURI("/events/1");
+            request.setRemoteAddr("127.0.0.1");
+
+            statsService.addHit(request);
+
+            verify(statsHitBuffer, times(1)).add(endpointHitArgumentCaptor.capture());
+            verify(statsClient, never()).addHit(any(), any(), any(), any());
 
-            verify(statsClient, times(1)).addHit(any(), any(), any(), any());
+            EndpointHit endpointHit = endpointHitArgumentCaptor.getValue();
+
+            assertEquals(request.getRequestURI(), endpointHit.getUri());
+            assertEquals(request.getRemoteAddr(), endpointHit.getIp());
+            assertNotNull(endpointHit.getTimestamp());
         }
     }
 
@@ -92,7 +112,7 @@ public class StatsServiceTest {
         @Test
         public void shouldGet() {
             when(statsClient.getStats(startDate, endDate, List.of("/event/1", "/event/2"), unique))
-                    .thenReturn(new ResponseEntity<>(List.of(viewStats1, viewStats2), HttpStatus.OK));
+                    .thenReturn(List.of(viewStats1, viewStats2));
 
             List<ViewStats> viewStatsResponse = statsService.getStats(startDate, endDate, List.of("/event/1", "/event/2"), unique);
 
@@ -112,26 +132,77 @@ public class StatsServiceTest {
     class GetViews {
         @Test
         public void shouldGet() {
-            when(statsClient.getStats(ArgumentMatchers.eq(event2.getPublishedOn()), ArgumentMatchers.any(),
-                    ArgumentMatchers.eq(List.of("/events/1", "/events/2")), ArgumentMatchers.eq(null)))
-                    .thenReturn(new ResponseEntity<>(List.of(viewStats1, viewStats2), HttpStatus.OK));
+            when(eventViewsCache.getAllAsync(eq(Set.of(event1.getId(), event2.getId())), any()))
+                    .thenAnswer(invocation -> CompletableFuture.completedFuture(invocation
+                            .<Function<Set<Long>, Map<Long, Long>>>getArgument(1).apply(invocation.getArgument(0))));
+            when(statsClient.getEventViews(ArgumentMatchers.eq(event2.getPublishedOn()), ArgumentMatchers.any(),
+                    ArgumentMatchers.argThat(ids -> Set.copyOf(ids).equals(Set.of(event1.getId(), event2.getId()))),
+                    ArgumentMatchers.eq(null)))
+                    .thenReturn(Map.of(event1.getId(), viewStats1.getHits(), event2.getId(), viewStats2.getHits()));
 
-            Map<Long, Long> views = statsService.getViews(List.of(event1, event2, event3));
+            Map<Long, Long> views = statsService.getViewsAsync(List.of(event1, event2, event3)).join();
 
             assertEquals(2, views.values().size());
             assertEquals(viewStats1.getHits(), views.get(event1.getId()));
             assertEquals(viewStats2.getHits(), views.get(event2.getId()));
 
-            verify(statsClient, times(1)).getStats(any(), any(), any(), any());
+            verify(statsClient, times(1)).getEventViews(any(), any(), any(), any());
+            verify(statsClient, never()).getStats(any(), any(), any(), any());
         }
 
         @Test
         public void shouldGetEmpty() {
-            Map<Long, Long> views = statsService.getViews(List.of(event3));
+            Map<Long, Long> views = statsService.getViewsAsync(List.of(event3)).join();
 
             assertTrue(views.values().isEmpty());
 
-            verify(statsClient, never()).getStats(any(), any(), any(), any());
+            verify(eventViewsCache, never()).getAllAsync(any(), any());
+            verify(statsClient, never()).getEventViews(any(), any(), any(), any());
+        }
+
+        @Test
+        public void shouldGetWithAsyncClient() {
+            ReflectionTestUtils.setField(statsService, "asyncClient", true);
+            ReflectionTestUtils.setField(statsService, "viewsTimeoutMs", 1000L);
+
+            when(eventViewsCache.getAllNonBlocking(eq(Set.of(event1.getId())), any()))
+                    .thenAnswer(invocation -> invocation
+                            .<Function<Set<Long>, CompletableFuture<Map<Long, Long>>>>getArgument(1)
+                            .apply(invocation.getArgument(0)));
+            when(statsAsyncClient.getEventViews(eq(event1.getPublishedOn()), any(), eq(List.of(event1.getId())), eq(null)))
+                    .thenReturn(CompletableFuture.completedFuture(Map.of(event1.getId(), viewStats1.getHits())));
+
+            Map<Long, Long> views = statsService.getViewsAsync(List.of(event1)).join();
+
+            assertEquals(Map.of(event1.getId(), viewStats1.getHits()), views);
+
+            verify(statsClient, never()).getEventViews(any(), any(), any(), any());
+        }
+
+        @Test
+        public void shouldGetCachedIfTimeout() {
+            ReflectionTestUtils.setField(statsService, "viewsTimeoutMs", 50L);
+
+            when(eventViewsCache.getAllAsync(any(), any())).thenReturn(new CompletableFuture<>());
+            when(eventViewsCache.getAllPresent(Set.of(event1.getId(), event2.getId())))
+                    .thenReturn(Map.of(event1.getId(), 3L, event2.getId(), 0L));
+
+            Map<Long, Long> views = statsService.getViewsAsync(List.of(event1, event2)).join();
+
+            assertEquals(Map.of(event1.getId(), 3L, event2.getId(), 0L), views);
+        }
+
+        @Test
+        public void shouldGetCachedIfStatsFailed() {
+            ReflectionTestUtils.setField(statsService, "viewsTimeoutMs", 1000L);
+
+            when(eventViewsCache.getAllAsync(any(), any()))
+                    .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("stats-server недоступен")));
+            when(eventViewsCache.getAllPresent(Set.of(event1.getId()))).thenReturn(Map.of(event1.getId(), 0L));
+
+            Map<Long, Long> views = statsService.getViewsByPublishedOn(Map.of(event1.getId(), event1.getPublishedOn()));
+
+            assertEquals(Map.of(event1.getId(), 0L), views);
         }
     }
 
@@ -139,16 +210,11 @@ public class StatsServiceTest {
     class GetConfirmedRequests {
         @Test
         public void shouldGet() {
-            when(requestRepository.getConfirmedRequests(List.of(event1.getId(), event2.getId())))
-                    .thenReturn(List.of(requestStats1, requestStats2));
-
             Map<Long, Long> confirmedRequests = statsService.getConfirmedRequests(List.of(event1, event2, event3));
 
             assertEquals(2, confirmedRequests.values().size());
-            assertEquals(requestStats1.getConfirmedRequests(), confirmedRequests.get(event1.getId()));
-            assertEquals(requestStats2.getConfirmedRequests(), confirmedRequests.get(event2.getId()));
-
-            verify(requestRepository, times(1)).getConfirmedRequests(any());
+            assertEquals(event1.getConfirmedRequests(), confirmedRequests.get(event1.getId()));
+            assertEquals(event2.getConfirmedRequests(), confirmedRequests.get(event2.getId()));
         }
 
         @Test
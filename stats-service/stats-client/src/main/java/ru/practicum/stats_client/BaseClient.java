@@ -1,5 +1,6 @@
 package ru.practicum.stats_client;
 
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -27,9 +28,18 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, parameters, null);
     }
 
+    protected <R> R get(String path, Map<String, Object> parameters, ParameterizedTypeReference<R> responseType) {
+        return rest.exchange(path, HttpMethod.GET, new HttpEntity<>(defaultHeaders(null)), responseType, parameters)
+                .getBody();
+    }
+
+    protected <T, R> R post(String path, T body, ParameterizedTypeReference<R> responseType) {
+        return rest.exchange(path, HttpMethod.POST, new HttpEntity<>(body, defaultHeaders(body)), responseType).getBody();
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path,
                                                           @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders());
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(body));
         ResponseEntity<Object> statsServerResponse;
         try {
             if (parameters != null) {
@@ -43,7 +53,7 @@ public class BaseClient {
         return prepareGatewayResponse(statsServerResponse);
     }
 
-    private HttpHeaders defaultHeaders() {
+    protected HttpHeaders defaultHeaders(@Nullable Object body) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
@@ -0,0 +1,198 @@
+package ru.practicum.stats_client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientResponseException;
+import ru.practicum.stats_common.StatsCommonUtils;
+import ru.practicum.stats_common.VirtualThreads;
+import ru.practicum.stats_common.model.EndpointHit;
+import ru.practicum.stats_common.model.StatsQuery;
+import ru.practicum.stats_common.model.ViewStats;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@Service
+@Slf4j
+public class StatsAsyncClient {
+    private static final TypeReference<List<ViewStats>> VIEW_STATS_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<Map<Long, Long>> EVENT_VIEWS = new TypeReference<>() {
+    };
+
+    private final String serverUrl;
+    private final Duration readTimeout;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final StatsCallGuard guard;
+
+    @Autowired
+    public StatsAsyncClient(@Value("${stats-server.url}") String serverUrl,
+                            @Value("${stats-server.client.connect-timeout-ms:1000}") int connectTimeoutMs,
+                            @Value("${stats-server.client.read-timeout-ms:2000}") int readTimeoutMs,
+                            @Value("${stats-server.client.max-concurrent-calls:20}") int maxConcurrentCalls,
+                            @Value("${stats-server.client.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+                            @Value("${stats-server.client.circuit-breaker.sliding-window-size:10}") int slidingWindowSize,
+                            @Value("${stats-server.client.circuit-breaker.open-duration-ms:10000}") long openDurationMs,
+                            @Value("${stats-server.client.circuit-breaker.half-open-calls:3}") int halfOpenCalls,
+                            @Value("${" + VirtualThreads.ENABLED_PROPERTY + ":false}") boolean virtualThreads,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this(serverUrl, readTimeoutMs, createHttpClient(connectTimeoutMs, readTimeoutMs, virtualThreads), objectMapper,
+                new StatsCallGuard("async", maxConcurrentCalls, new StatsCircuitBreaker(failureRateThreshold,
+                        slidingWindowSize, openDurationMs, halfOpenCalls, System::currentTimeMillis), meterRegistry));
+    }
+
+    StatsAsyncClient(String serverUrl, int readTimeoutMs, HttpClient httpClient, ObjectMapper objectMapper,
+                     StatsCallGuard guard) {
+        this.serverUrl = serverUrl;
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.guard = guard;
+    }
+
+    public StatsCircuitBreaker.State getCircuitState() {
+        return guard.getCircuitState();
+    }
+
+    public CompletableFuture<Void> addHit(EndpointHit endpointHit) {
+        return post(StatsCommonUtils.HIT_ENDPOINT, endpointHit, null);
+    }
+
+    public CompletableFuture<Void> addHits(List<EndpointHit> endpointHits) {
+        log.info("Асинхронная отправка пакета из {} обращений на регистрацию", endpointHits.size());
+
+        return post(StatsCommonUtils.HIT_BATCH_ENDPOINT, endpointHits, null);
+    }
+
+    public CompletableFuture<List<ViewStats>> getStats(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                                       Boolean unique) {
+        log.info("Асинхронный запрос статистики по параметрам start = {}, end = {}, uris = {}, unique = {}",
+                start, end, uris, unique);
+
+        if (start == null || end == null || start.isAfter(end)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Недопустимый временной промежуток."));
+        }
+
+        StatsQuery query = StatsQuery.builder()
+                .start(start.format(StatsCommonUtils.DT_FORMATTER))
+                .end(end.format(StatsCommonUtils.DT_FORMATTER))
+                .uris(uris)
+                .unique(unique)
+                .build();
+
+        return post(StatsCommonUtils.STATS_QUERY_ENDPOINT, query, VIEW_STATS_LIST)
+                .thenApply(stats -> stats == null ? List.of() : stats);
+    }
+
+    public CompletableFuture<Map<Long, Long>> getEventViews(LocalDateTime start, LocalDateTime end, List<Long> ids,
+                                                            Boolean unique) {
+        log.info("Асинхронный запрос просмотров {} событий start = {}, end = {}, unique = {}",
+                ids.size(), start, end, unique);
+
+        if (start == null || end == null || start.isAfter(end)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Недопустимый временной промежуток."));
+        }
+
+        StatsQuery query = StatsQuery.builder()
+                .start(start.format(StatsCommonUtils.DT_FORMATTER))
+                .end(end.format(StatsCommonUtils.DT_FORMATTER))
+                .ids(ids)
+                .unique(unique)
+                .build();
+
+        return post(StatsCommonUtils.STATS_EVENTS_ENDPOINT, query, EVENT_VIEWS)
+                .thenApply(views -> views == null ? Map.of() : views);
+    }
+
+    private <T, R> CompletableFuture<R> post(String path, T body, TypeReference<R> responseType) {
+        HttpRequest request;
+
+        try {
+            request = HttpRequest.newBuilder(URI.create(serverUrl + path))
+                    .timeout(readTimeout)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (JsonProcessingException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+
+        try {
+            guard.acquire();
+        } catch (StatsUnavailableException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+
+        CompletableFuture<HttpResponse<byte[]>> sent;
+
+        try {
+            sent = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (RuntimeException exception) {
+            guard.release(false);
+            return CompletableFuture.failedFuture(exception);
+        }
+
+        return sent
+                .whenComplete((response, exception) -> {
+                    if (exception == null) {
+                        guard.release(response.statusCode());
+                    } else {
+                        guard.release(false);
+                    }
+                })
+                .thenApply(response -> read(response, responseType));
+    }
+
+    private static HttpClient createHttpClient(int connectTimeoutMs, int readTimeoutMs, boolean virtualThreads) {
+        if (connectTimeoutMs <= 0 || readTimeoutMs <= 0) {
+            throw new IllegalArgumentException("Параметры клиента сервера статистики должны быть положительными.");
+        }
+
+        HttpClient.Builder httpClientBuilder = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs));
+
+        if (virtualThreads) {
+            httpClientBuilder.executor(VirtualThreads.newExecutor("stats-async-client-"));
+        }
+
+        return httpClientBuilder.build();
+    }
+
+    private <R> R read(HttpResponse<byte[]> response, TypeReference<R> responseType) {
+        if (response.statusCode() >= 400) {
+            throw new RestClientResponseException("Сервер статистики ответил с кодом " + response.statusCode(),
+                    response.statusCode(), "", null, response.body(), StandardCharsets.UTF_8);
+        }
+
+        if (responseType == null || response.body().length == 0) {
+            return null;
+        }
+
+        try {
+            return objectMapper.readValue(response.body(), responseType);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
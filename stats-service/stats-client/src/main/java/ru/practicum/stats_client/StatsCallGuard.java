@@ -0,0 +1,78 @@
+package ru.practicum.stats_client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.Semaphore;
+
+public class StatsCallGuard {
+    private static final String REJECTED_CALLS = "stats.client.calls.rejected";
+    private static final String FAILED_CALLS = "stats.client.calls.failed";
+
+    private final Semaphore bulkhead;
+    private final StatsCircuitBreaker circuitBreaker;
+    private final Counter circuitOpenRejections;
+    private final Counter bulkheadFullRejections;
+    private final Counter clientErrors;
+    private final Counter serverErrors;
+
+    public StatsCallGuard(String client, int maxConcurrentCalls, StatsCircuitBreaker circuitBreaker,
+                          MeterRegistry meterRegistry) {
+        if (maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("Число одновременных запросов к серверу статистики должно быть положительным.");
+        }
+
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.circuitBreaker = circuitBreaker;
+        this.circuitOpenRejections = meterRegistry.counter(REJECTED_CALLS, "client", client, "reason", "circuit_open");
+        this.bulkheadFullRejections = meterRegistry.counter(REJECTED_CALLS, "client", client, "reason", "bulkhead_full");
+        this.clientErrors = meterRegistry.counter(FAILED_CALLS, "client", client, "status", "4xx");
+        this.serverErrors = meterRegistry.counter(FAILED_CALLS, "client", client, "status", "5xx");
+
+        for (StatsCircuitBreaker.State state : StatsCircuitBreaker.State.values()) {
+            Gauge.builder("stats.client.circuit.state", circuitBreaker, breaker -> breaker.getState() == state ? 1 : 0)
+                    .tag("client", client)
+                    .tag("state", state.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("stats.client.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .tag("client", client)
+                .register(meterRegistry);
+    }
+
+    public void acquire() {
+        if (!bulkhead.tryAcquire()) {
+            bulkheadFullRejections.increment();
+            throw new StatsUnavailableException("Превышено число одновременных запросов к серверу статистики.");
+        }
+
+        if (!circuitBreaker.tryAcquire()) {
+            bulkhead.release();
+            circuitOpenRejections.increment();
+            throw new StatsUnavailableException("Сервер статистики временно недоступен.");
+        }
+    }
+
+    public void release(boolean success) {
+        try {
+            circuitBreaker.onComplete(success);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public void release(int statusCode) {
+        if (statusCode >= 500) {
+            serverErrors.increment();
+        } else if (statusCode >= 400) {
+            clientErrors.increment();
+        }
+
+        release(statusCode < 500);
+    }
+
+    public StatsCircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.stats_client;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.LongSupplier;
+
+@Slf4j
+public class StatsCircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureRateThreshold;
+    private final long openDurationMs;
+    private final int halfOpenCalls;
+    private final LongSupplier clock;
+    private final boolean[] failures;
+    private int position;
+    private int recorded;
+    private int failed;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermitted;
+    private int halfOpenSucceeded;
+
+    public StatsCircuitBreaker(int failureRateThreshold, int slidingWindowSize, long openDurationMs,
+                               int halfOpenCalls, LongSupplier clock) {
+        if (failureRateThreshold <= 0 || failureRateThreshold > 100) {
+            throw new IllegalArgumentException("Порог доли ошибок должен быть от 1 до 100 процентов.");
+        }
+        if (slidingWindowSize <= 0 || openDurationMs <= 0 || halfOpenCalls <= 0) {
+            throw new IllegalArgumentException("Параметры размыкателя цепи должны быть положительными.");
+        }
+
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMs = openDurationMs;
+        this.halfOpenCalls = halfOpenCalls;
+        this.clock = clock;
+        this.failures = new boolean[slidingWindowSize];
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openDurationMs) {
+                return false;
+            }
+
+            transitionTo(State.HALF_OPEN);
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermitted >= halfOpenCalls) {
+                return false;
+            }
+
+            halfOpenPermitted++;
+        }
+
+        return true;
+    }
+
+    public synchronized void onComplete(boolean success) {
+        if (state == State.HALF_OPEN) {
+            if (!success) {
+                transitionTo(State.OPEN);
+            } else if (++halfOpenSucceeded >= halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+
+        if (state == State.OPEN) {
+            return;
+        }
+
+        if (recorded == failures.length) {
+            if (failures[position]) {
+                failed--;
+            }
+        } else {
+            recorded++;
+        }
+
+        failures[position] = !success;
+        failed += success ? 0 : 1;
+        position = (position + 1) % failures.length;
+
+        if (recorded == failures.length && failed * 100 >= failureRateThreshold * recorded) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void transitionTo(State newState) {
+        log.warn("Размыкатель цепи сервера статистики переходит из состояния {} в {}", state, newState);
+
+        state = newState;
+        openedAt = clock.getAsLong();
+        halfOpenPermitted = 0;
+        halfOpenSucceeded = 0;
+
+        if (newState == State.CLOSED) {
+            position = 0;
+            recorded = 0;
+            failed = 0;
+        }
+    }
+}
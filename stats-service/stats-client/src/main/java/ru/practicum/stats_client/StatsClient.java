@@ -1,30 +1,101 @@
 package ru.practicum.stats_client;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.stats_common.StatsBinaryHttpMessageConverter;
 import ru.practicum.stats_common.StatsCommonUtils;
 import ru.practicum.stats_common.model.EndpointHit;
+import ru.practicum.stats_common.model.StatsQuery;
+import ru.practicum.stats_common.model.ViewStats;
 
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
 public class StatsClient extends BaseClient {
+    private static final ParameterizedTypeReference<List<ViewStats>> VIEW_STATS_LIST =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private static final ParameterizedTypeReference<Map<Long, Long>> EVENT_VIEWS =
+            new ParameterizedTypeReference<>() {
+            };
+    private static final int MAX_ID_DIGITS = 18;
+
+    private final int maxGetUris;
+    private final CloseableHttpClient httpClient;
+    private final StatsCallGuard guard;
+    private final boolean binary;
+
     @Autowired
-    public StatsClient(@Value("${stats-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public StatsClient(@Value("${stats-server.url}") String serverUrl,
+                       @Value("${stats-server.stats.max-get-uris:50}") int maxGetUris,
+                       @Value("${stats-server.client.connect-timeout-ms:1000}") int connectTimeoutMs,
+                       @Value("${stats-server.client.read-timeout-ms:2000}") int readTimeoutMs,
+                       @Value("${stats-server.client.max-concurrent-calls:20}") int maxConcurrentCalls,
+                       @Value("${stats-server.client.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+                       @Value("${stats-server.client.circuit-breaker.sliding-window-size:10}") int slidingWindowSize,
+                       @Value("${stats-server.client.circuit-breaker.open-duration-ms:10000}") long openDurationMs,
+                       @Value("${stats-server.client.circuit-breaker.half-open-calls:3}") int halfOpenCalls,
+                       @Value("${stats-server.client.binary:false}") boolean binary,
+                       RestTemplateBuilder builder,
+                       MeterRegistry meterRegistry) {
+        this(serverUrl, maxGetUris, createHttpClient(connectTimeoutMs, readTimeoutMs, maxConcurrentCalls),
+                new StatsCallGuard("sync", maxConcurrentCalls, new StatsCircuitBreaker(failureRateThreshold,
+                        slidingWindowSize, openDurationMs, halfOpenCalls, System::currentTimeMillis), meterRegistry),
+                binary, builder);
+    }
+
+    private StatsClient(String serverUrl, int maxGetUris, CloseableHttpClient httpClient, StatsCallGuard guard,
+                        boolean binary, RestTemplateBuilder builder) {
         super(builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
                 .build()
         );
+
+        rest.getMessageConverters().add(new StatsBinaryHttpMessageConverter());
+
+        this.maxGetUris = maxGetUris;
+        this.httpClient = httpClient;
+        this.guard = guard;
+        this.binary = binary;
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (IOException exception) {
+            log.warn("Не удалось закрыть пул соединений с сервером статистики: {}", exception.getMessage());
+        }
+    }
+
+    public StatsCircuitBreaker.State getCircuitState() {
+        return guard.getCircuitState();
     }
 
     public ResponseEntity<Object> addHit(String appName, String uri, String ip, LocalDateTime timestamp) {
@@ -35,31 +106,50 @@ public class StatsClient extends BaseClient {
                 .app(appName)
                 .uri(uri)
                 .ip(ip)
-                .timestamp(timestamp.format(StatsCommonUtils.DT_FORMATTER))
+                .timestampMillis(StatsCommonUtils.toEpochMillis(timestamp))
                 .build();
-        return post(StatsCommonUtils.HIT_ENDPOINT, endpointHit);
+        return addHit(endpointHit);
+    }
+
+    public ResponseEntity<Object> addHit(EndpointHit endpointHit) {
+        return call(() -> post(StatsCommonUtils.HIT_ENDPOINT, endpointHit));
+    }
+
+    public ResponseEntity<Object> addHits(List<EndpointHit> endpointHits) {
+        log.info("Отправка пакета из {} обращений на регистрацию", endpointHits.size());
+
+        return call(() -> post(StatsCommonUtils.HIT_BATCH_ENDPOINT, endpointHits));
     }
 
-    public ResponseEntity<Object> getStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+    public List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
         return getStats(start, end, uris, null);
     }
 
-    public ResponseEntity<Object> getStats(LocalDateTime start, LocalDateTime end) {
+    public List<ViewStats> getStats(LocalDateTime start, LocalDateTime end) {
         return getStats(start, end, null, null);
     }
 
-    public ResponseEntity<Object> getStats(LocalDateTime start, LocalDateTime end, Boolean unique) {
+    public List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, Boolean unique) {
         return getStats(start, end, null, unique);
     }
 
-    public ResponseEntity<Object> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
-        log.info("Отправка запроса на получение статистики по параметрам start = {}, end = {}, uris = {}, unique = {}",
-                start, end, uris, unique);
+    public List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
+        return getStats(start, end, uris, unique, null);
+    }
+
+    public List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                                    Boolean approximate) {
+        log.info("Отправка запроса на получение статистики по параметрам start = {}, end = {}, uris = {}, unique = {}, " +
+                "approximate = {}", start, end, uris, unique, approximate);
 
         if (start == null || end == null || start.isAfter(end)) {
             throw new IllegalArgumentException("Недопустимый временной промежуток.");
         }
 
+        if (uris != null && uris.size() > maxGetUris) {
+            return getStats(buildQuery(start, end, uris, unique, approximate));
+        }
+
         StringBuilder uriBuilder = new StringBuilder(StatsCommonUtils.STATS_ENDPOINT + "?start={start}&end={end}");
         Map<String, Object> parameters = Map.of(
                 "start", start.format(StatsCommonUtils.DT_FORMATTER),
@@ -74,7 +164,160 @@ public class StatsClient extends BaseClient {
         if (unique != null) {
             uriBuilder.append("&unique=").append(unique);
         }
+        if (approximate != null) {
+            uriBuilder.append("&approximate=").append(approximate);
+        }
+
+        List<ViewStats> stats = call(() -> get(uriBuilder.toString(), parameters, VIEW_STATS_LIST));
+
+        return stats == null ? List.of() : stats;
+    }
+
+    public List<ViewStats> getStats(StatsQuery query) {
+        log.info("Отправка запроса на получение статистики в теле запроса {}", query);
+
+        List<ViewStats> stats = call(() -> post(StatsCommonUtils.STATS_QUERY_ENDPOINT, query, VIEW_STATS_LIST));
+
+        return stats == null ? List.of() : stats;
+    }
+
+    public Map<Long, Long> getEventViews(LocalDateTime start, LocalDateTime end, List<Long> ids, Boolean unique) {
+        log.info("Отправка запроса на получение просмотров {} событий start = {}, end = {}, unique = {}",
+                ids.size(), start, end, unique);
+
+        if (start == null || end == null || start.isAfter(end)) {
+            throw new IllegalArgumentException("Недопустимый временной промежуток.");
+        }
+
+        StatsQuery query = StatsQuery.builder()
+                .start(start.format(StatsCommonUtils.DT_FORMATTER))
+                .end(end.format(StatsCommonUtils.DT_FORMATTER))
+                .ids(ids)
+                .unique(unique)
+                .build();
+
+        Map<Long, Long> views = call(() -> post(StatsCommonUtils.STATS_EVENTS_ENDPOINT, query, EVENT_VIEWS));
+
+        return views == null ? Map.of() : views;
+    }
+
+    @Override
+    protected HttpHeaders defaultHeaders(Object body) {
+        HttpHeaders headers = super.defaultHeaders(body);
+
+        if (binary) {
+            if (body instanceof EndpointHit || body instanceof List) {
+                headers.setContentType(StatsBinaryHttpMessageConverter.MEDIA_TYPE);
+            }
+            headers.setAccept(List.of(StatsBinaryHttpMessageConverter.MEDIA_TYPE, MediaType.APPLICATION_JSON));
+        }
+
+        return headers;
+    }
+
+    private <T> T call(Supplier<T> request) {
+        guard.acquire();
+
+        int statusCode = -1;
+
+        try {
+            T response = request.get();
+            statusCode = HttpStatus.OK.value();
+
+            if (response instanceof ResponseEntity) {
+                ResponseEntity<?> entity = (ResponseEntity<?>) response;
+                statusCode = entity.getStatusCodeValue();
+
+                if (!entity.getStatusCode().is2xxSuccessful()) {
+                    Object body = entity.getBody();
+                    throw new RestClientResponseException("Сервер статистики ответил с кодом " + statusCode,
+                            statusCode, entity.getStatusCode().getReasonPhrase(), entity.getHeaders(),
+                            body instanceof byte[] ? (byte[]) body : null, StandardCharsets.UTF_8);
+                }
+            }
+
+            return response;
+        } catch (RestClientResponseException exception) {
+            statusCode = exception.getRawStatusCode();
+            throw exception;
+        } finally {
+            if (statusCode < 0) {
+                guard.release(false);
+            } else {
+                guard.release(statusCode);
+            }
+        }
+    }
+
+    private static CloseableHttpClient createHttpClient(int connectTimeoutMs, int readTimeoutMs,
+                                                        int maxConcurrentCalls) {
+        if (connectTimeoutMs <= 0 || readTimeoutMs <= 0 || maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("Параметры клиента сервера статистики должны быть положительными.");
+        }
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConcurrentCalls);
+        connectionManager.setDefaultMaxPerRoute(maxConcurrentCalls);
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(connectTimeoutMs)
+                        .setConnectionRequestTimeout(connectTimeoutMs)
+                        .setSocketTimeout(readTimeoutMs)
+                        .build())
+                .build();
+    }
+
+    private StatsQuery buildQuery(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                                  Boolean approximate) {
+        StatsQuery query = StatsQuery.builder()
+                .start(start.format(StatsCommonUtils.DT_FORMATTER))
+                .end(end.format(StatsCommonUtils.DT_FORMATTER))
+                .unique(unique)
+                .approximate(approximate)
+                .build();
+
+        String prefix = getIdPrefix(uris);
+
+        if (prefix == null) {
+            query.setUris(uris);
+        } else {
+            List<Long> ids = new ArrayList<>(uris.size());
+
+            for (String uri : uris) {
+                ids.add(Long.parseLong(uri.substring(prefix.length())));
+            }
+
+            query.setUriPrefix(prefix);
+            query.setIds(ids);
+        }
+
+        return query;
+    }
+
+    private String getIdPrefix(List<String> uris) {
+        String prefix = null;
+
+        for (String uri : uris) {
+            int idStart = uri.length();
+
+            while (idStart > 0 && uri.charAt(idStart - 1) >= '0' && uri.charAt(idStart - 1) <= '9') {
+                idStart--;
+            }
+
+            int digits = uri.length() - idStart;
+
+            if (digits == 0 || digits > MAX_ID_DIGITS || (digits > 1 && uri.charAt(idStart) == '0')) {
+                return null;
+            }
+            if (prefix == null) {
+                prefix = uri.substring(0, idStart);
+            } else if (prefix.length() != idStart || !uri.startsWith(prefix)) {
+                return null;
+            }
+        }
 
-        return get(uriBuilder.toString(), parameters);
+        return prefix;
     }
 }
@@ -0,0 +1,48 @@
+package ru.practicum.stats_client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats_common.model.EndpointHit;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StatsAsyncClientTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EndpointHit endpointHit = EndpointHit.builder()
+            .app("main-service")
+            .uri("/events/1")
+            .ip("127.0.0.1")
+            .timestamp("2030-01-01 00:00:00")
+            .build();
+
+    @Test
+    public void shouldReleasePermitIfSendFails() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .executor(task -> {
+                    throw new RejectedExecutionException("Пул потоков клиента переполнен.");
+                })
+                .build();
+        StatsAsyncClient statsAsyncClient = new StatsAsyncClient("http://localhost:1", 1000, httpClient,
+                new ObjectMapper(), new StatsCallGuard("async", 1, new StatsCircuitBreaker(50, 10, 60_000, 1,
+                System::currentTimeMillis), meterRegistry));
+
+        for (int i = 0; i < 2; i++) {
+            CompletionException exception = assertThrows(CompletionException.class,
+                    () -> statsAsyncClient.addHit(endpointHit).join());
+
+            assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+        }
+
+        assertEquals(1.0, meterRegistry.get("stats.client.bulkhead.available").gauge().value());
+        assertEquals(0.0, meterRegistry.get("stats.client.calls.rejected").tag("reason", "bulkhead_full").counter()
+                .count());
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.stats_client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import ru.practicum.stats_common.model.ViewStats;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@Slf4j
+@Tag("allocation")
+public class StatsClientAllocationTest {
+    private static final int URIS = 1000;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 500;
+    private static final Type VIEW_STATS_LIST = new ParameterizedTypeReference<List<ViewStats>>() {
+    }.getType();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter(mapper);
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private byte[] body;
+
+    @BeforeEach
+    public void beforeEach() throws IOException {
+        List<ViewStats> stats = new ArrayList<>(URIS);
+
+        for (int i = 0; i < URIS; i++) {
+            stats.add(new ViewStats("main-service", "/events/" + i, (long) (URIS - i)));
+        }
+
+        body = mapper.writeValueAsBytes(stats);
+    }
+
+    @Test
+    public void shouldAllocateLessWithTypedDecoding() throws IOException {
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        assertEquals(decodeTyped(), decodeWithReserialization());
+
+        long before = bytesPerCall(this::decodeWithReserialization);
+        long after = bytesPerCall(this::decodeTyped);
+
+        log.info("Декодирование ответа из {} uri: {} байт за вызов с повторной сериализацией, {} байт типизированно",
+                URIS, before, after);
+
+        assertTrue(after < before);
+    }
+
+    private long bytesPerCall(Decoder decoder) throws IOException {
+        for (int i = 0; i < WARMUP; i++) {
+            decoder.decode();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long start = threadMXBean.getThreadAllocatedBytes(threadId);
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            decoder.decode();
+        }
+
+        return (threadMXBean.getThreadAllocatedBytes(threadId) - start) / ITERATIONS;
+    }
+
+    private List<ViewStats> decodeWithReserialization() throws IOException {
+        Object tree = converter.read(Object.class, null, response());
+
+        return Arrays.asList(mapper.readValue(mapper.writeValueAsString(tree), ViewStats[].class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ViewStats> decodeTyped() throws IOException {
+        return (List<ViewStats>) converter.read(VIEW_STATS_LIST, null, response());
+    }
+
+    private MockClientHttpResponse response() {
+        MockClientHttpResponse response = new MockClientHttpResponse(body, HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response;
+    }
+
+    private interface Decoder {
+        List<ViewStats> decode() throws IOException;
+    }
+}
@@ -0,0 +1,194 @@
+package ru.practicum.stats_common;
+
+import ru.practicum.stats_common.model.EndpointHit;
+import ru.practicum.stats_common.model.ViewStats;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public abstract class StatsBinaryCodec {
+    public static final String MEDIA_TYPE = "application/x-ewm-stats";
+
+    private static final byte VERSION = 1;
+    private static final int MAX_COUNT = 1_000_000;
+    private static final int MAX_STRING_LENGTH = 65_536;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    public static void writeHit(EndpointHit endpointHit, OutputStream outputStream) throws IOException {
+        DataOutputStream out = begin(outputStream);
+
+        writeHit(out, endpointHit);
+        out.flush();
+    }
+
+    public static EndpointHit readHit(InputStream inputStream) throws IOException {
+        return readHit(begin(inputStream));
+    }
+
+    public static void writeHits(List<EndpointHit> endpointHits, OutputStream outputStream) throws IOException {
+        DataOutputStream out = begin(outputStream);
+
+        out.writeInt(endpointHits.size());
+        for (EndpointHit endpointHit : endpointHits) {
+            writeHit(out, endpointHit);
+        }
+        out.flush();
+    }
+
+    public static List<EndpointHit> readHits(InputStream inputStream) throws IOException {
+        DataInputStream in = begin(inputStream);
+        int count = readCount(in);
+        List<EndpointHit> endpointHits = new ArrayList<>(Math.min(count, INITIAL_CAPACITY));
+
+        for (int i = 0; i < count; i++) {
+            endpointHits.add(readHit(in));
+        }
+
+        return endpointHits;
+    }
+
+    public static void writeViewStats(List<ViewStats> stats, OutputStream outputStream) throws IOException {
+        DataOutputStream out = begin(outputStream);
+
+        out.writeInt(stats.size());
+        for (ViewStats viewStats : stats) {
+            writeString(out, viewStats.getApp());
+            writeString(out, viewStats.getUri());
+            out.writeLong(viewStats.getHits() == null ? 0 : viewStats.getHits());
+        }
+        out.flush();
+    }
+
+    public static List<ViewStats> readViewStats(InputStream inputStream) throws IOException {
+        DataInputStream in = begin(inputStream);
+        int count = readCount(in);
+        List<ViewStats> stats = new ArrayList<>(Math.min(count, INITIAL_CAPACITY));
+
+        for (int i = 0; i < count; i++) {
+            stats.add(new ViewStats(readString(in), readString(in), in.readLong()));
+        }
+
+        return stats;
+    }
+
+    public static void writeViews(Map<Long, Long> views, OutputStream outputStream) throws IOException {
+        DataOutputStream out = begin(outputStream);
+
+        out.writeInt(views.size());
+        for (Map.Entry<Long, Long> entry : views.entrySet()) {
+            out.writeLong(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+        out.flush();
+    }
+
+    public static Map<Long, Long> readViews(InputStream inputStream) throws IOException {
+        DataInputStream in = begin(inputStream);
+        int count = readCount(in);
+        Map<Long, Long> views = new HashMap<>(Math.min(count, INITIAL_CAPACITY) * 4 / 3 + 1);
+
+        for (int i = 0; i < count; i++) {
+            views.put(in.readLong(), in.readLong());
+        }
+
+        return views;
+    }
+
+    private static DataOutputStream begin(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+
+        out.writeByte(VERSION);
+
+        return out;
+    }
+
+    private static DataInputStream begin(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        byte version = in.readByte();
+
+        if (version != VERSION) {
+            throw new IOException(String.format("Неподдерживаемая версия двоичного формата статистики: %d.", version));
+        }
+
+        return in;
+    }
+
+    private static void writeHit(DataOutputStream out, EndpointHit endpointHit) throws IOException {
+        writeString(out, endpointHit.getApp());
+        writeString(out, endpointHit.getUri());
+        writeString(out, endpointHit.getIp());
+        out.writeLong(truncateToSeconds(getTimestampMillis(endpointHit)));
+    }
+
+    private static long getTimestampMillis(EndpointHit endpointHit) throws IOException {
+        if (endpointHit.getTimestampMillis() != null) {
+            return endpointHit.getTimestampMillis();
+        }
+        if (endpointHit.getTimestamp() == null) {
+            throw new IOException("Не указано время обращения.");
+        }
+        return StatsCommonUtils.toEpochMillis(LocalDateTime.parse(endpointHit.getTimestamp(),
+                StatsCommonUtils.DT_FORMATTER));
+    }
+
+    private static long truncateToSeconds(long epochMillis) {
+        return Math.floorDiv(epochMillis, 1000L) * 1000L;
+    }
+
+    private static EndpointHit readHit(DataInputStream in) throws IOException {
+        return EndpointHit.builder()
+                .app(readString(in))
+                .uri(readString(in))
+                .ip(readString(in))
+                .timestampMillis(truncateToSeconds(in.readLong()))
+                .build();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+
+        if (length == -1) {
+            return null;
+        }
+        if (length < -1 || length > MAX_STRING_LENGTH) {
+            throw new IOException("Недопустимая длина строки в двоичном формате статистики.");
+        }
+
+        byte[] bytes = new byte[length];
+
+        in.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+
+        if (count < 0 || count > MAX_COUNT) {
+            throw new IOException("Недопустимое число записей в двоичном формате статистики.");
+        }
+
+        return count;
+    }
+}
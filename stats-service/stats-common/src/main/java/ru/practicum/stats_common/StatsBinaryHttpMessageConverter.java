@@ -0,0 +1,130 @@
+package ru.practicum.stats_common;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.lang.Nullable;
+import ru.practicum.stats_common.model.EndpointHit;
+import ru.practicum.stats_common.model.ViewStats;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+public class StatsBinaryHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(StatsBinaryCodec.MEDIA_TYPE);
+
+    public StatsBinaryHttpMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return EndpointHit.class == clazz || List.class.isAssignableFrom(clazz) || Map.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return getKind(type) != null && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return (type == null || getKind(type) != null) && supports(clazz) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        Kind kind = getKind(type);
+
+        if (kind == null || kind == Kind.UNKNOWN_LIST) {
+            throw new HttpMessageNotReadableException("Тип " + type + " не поддерживается двоичным форматом статистики.",
+                    inputMessage);
+        }
+
+        try {
+            switch (kind) {
+                case HIT:
+                    return StatsBinaryCodec.readHit(inputMessage.getBody());
+                case HITS:
+                    return StatsBinaryCodec.readHits(inputMessage.getBody());
+                case VIEW_STATS:
+                    return StatsBinaryCodec.readViewStats(inputMessage.getBody());
+                default:
+                    return StatsBinaryCodec.readViews(inputMessage.getBody());
+            }
+        } catch (IOException exception) {
+            throw new HttpMessageNotReadableException(exception.getMessage(), exception, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        if (object instanceof EndpointHit) {
+            StatsBinaryCodec.writeHit((EndpointHit) object, outputMessage.getBody());
+        } else if (object instanceof Map) {
+            StatsBinaryCodec.writeViews((Map<Long, Long>) object, outputMessage.getBody());
+        } else if (isListOf((List<?>) object, EndpointHit.class)) {
+            StatsBinaryCodec.writeHits((List<EndpointHit>) object, outputMessage.getBody());
+        } else if (isListOf((List<?>) object, ViewStats.class)) {
+            StatsBinaryCodec.writeViewStats((List<ViewStats>) object, outputMessage.getBody());
+        } else {
+            throw new HttpMessageNotWritableException("Список не поддерживается двоичным форматом статистики.");
+        }
+    }
+
+    private static boolean isListOf(List<?> list, Class<?> elementClass) {
+        return list.stream().allMatch(elementClass::isInstance);
+    }
+
+    @Nullable
+    private static Kind getKind(Type type) {
+        ResolvableType resolvableType = ResolvableType.forType(type);
+        Class<?> clazz = resolvableType.resolve();
+
+        if (clazz == null) {
+            return null;
+        }
+        if (EndpointHit.class == clazz) {
+            return Kind.HIT;
+        }
+        if (List.class.isAssignableFrom(clazz)) {
+            Class<?> elementClass = resolvableType.asCollection().resolveGeneric(0);
+
+            if (elementClass == null) {
+                return Kind.UNKNOWN_LIST;
+            }
+            if (EndpointHit.class == elementClass) {
+                return Kind.HITS;
+            }
+            return ViewStats.class == elementClass ? Kind.VIEW_STATS : null;
+        }
+        if (Map.class.isAssignableFrom(clazz)) {
+            ResolvableType mapType = resolvableType.asMap();
+            Class<?> keyClass = mapType.resolveGeneric(0);
+            Class<?> valueClass = mapType.resolveGeneric(1);
+
+            return (keyClass == null || Long.class == keyClass) && (valueClass == null || Long.class == valueClass)
+                    ? Kind.VIEWS : null;
+        }
+        return null;
+    }
+
+    private enum Kind {
+        HIT, HITS, VIEW_STATS, VIEWS, UNKNOWN_LIST
+    }
+}
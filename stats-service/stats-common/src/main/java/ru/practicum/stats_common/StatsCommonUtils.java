@@ -1,10 +1,25 @@
 package ru.practicum.stats_common;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 
 public abstract class StatsCommonUtils {
     public static final String DT_FORMAT = "yyyy-MM-dd HH:mm:ss";
     public static final DateTimeFormatter DT_FORMATTER = DateTimeFormatter.ofPattern(DT_FORMAT);
     public static final String HIT_ENDPOINT = "/hit";
+    public static final String HIT_BATCH_ENDPOINT = "/hit/batch";
     public static final String STATS_ENDPOINT = "/stats";
+    public static final String STATS_QUERY_ENDPOINT = "/stats/query";
+    public static final String STATS_EVENTS_ENDPOINT = "/stats/events";
+    public static final String EVENT_URI_PREFIX = "/events/";
+
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+                (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
 }
@@ -0,0 +1,37 @@
+package ru.practicum.stats_common;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+public abstract class VirtualThreads {
+    public static final String ENABLED_PROPERTY = "ewm.threads.virtual.enabled";
+
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    public static ExecutorService newExecutor(String namePrefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException(String.format(
+                    "Виртуальные потоки требуют Java 21 или новее, текущая версия %s.", Runtime.version()));
+        }
+
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+
+            return (ExecutorService) newExecutor.invoke(null, factory);
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException
+                 | InvocationTargetException exception) {
+            throw new IllegalStateException("Не удалось создать исполнитель на виртуальных потоках.", exception);
+        }
+    }
+}
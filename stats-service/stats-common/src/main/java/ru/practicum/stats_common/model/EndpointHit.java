@@ -1,5 +1,6 @@
 package ru.practicum.stats_common.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -7,6 +8,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.FieldDefaults;
+import ru.practicum.stats_common.StatsCommonUtils;
 
 import javax.validation.constraints.NotBlank;
 import java.util.Objects;
@@ -27,9 +29,19 @@ public class EndpointHit {
     @NotBlank
     String ip;
 
-    @NotBlank
     String timestamp;
 
+    @JsonIgnore
+    Long timestampMillis;
+
+    @NotBlank
+    public String getTimestamp() {
+        if (timestamp == null && timestampMillis != null) {
+            return StatsCommonUtils.fromEpochMillis(timestampMillis).format(StatsCommonUtils.DT_FORMATTER);
+        }
+        return timestamp;
+    }
+
     @Override
     public String toString() {
         return "EndpointHit{" +
@@ -37,6 +49,7 @@ public class EndpointHit {
                 ", uri='" + uri + '\'' +
                 ", ip='" + ip + '\'' +
                 ", timestamp='" + timestamp + '\'' +
+                ", timestampMillis=" + timestampMillis +
                 '}';
     }
 
@@ -45,11 +58,11 @@ public class EndpointHit {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         EndpointHit that = (EndpointHit) o;
-        return Objects.equals(app, that.app) && Objects.equals(uri, that.uri) && Objects.equals(ip, that.ip) && Objects.equals(timestamp, that.timestamp);
+        return Objects.equals(app, that.app) && Objects.equals(uri, that.uri) && Objects.equals(ip, that.ip) && Objects.equals(timestamp, that.timestamp) && Objects.equals(timestampMillis, that.timestampMillis);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(app, uri, ip, timestamp);
+        return Objects.hash(app, uri, ip, timestamp, timestampMillis);
     }
 }
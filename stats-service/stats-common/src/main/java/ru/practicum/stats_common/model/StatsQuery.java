@@ -0,0 +1,66 @@
+package ru.practicum.stats_common.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+import java.util.Objects;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StatsQuery {
+    @NotBlank
+    String start;
+
+    @NotBlank
+    String end;
+
+    List<@NotNull String> uris;
+
+    String uriPrefix;
+
+    List<@NotNull Long> ids;
+
+    Boolean unique;
+
+    Boolean approximate;
+
+    @Override
+    public String toString() {
+        return "StatsQuery{" +
+                "start='" + start + '\'' +
+                ", end='" + end + '\'' +
+                ", uris=" + (uris == null ? null : uris.size()) +
+                ", uriPrefix='" + uriPrefix + '\'' +
+                ", ids=" + (ids == null ? null : ids.size()) +
+                ", unique=" + unique +
+                ", approximate=" + approximate +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StatsQuery that = (StatsQuery) o;
+        return Objects.equals(start, that.start) && Objects.equals(end, that.end) && Objects.equals(uris, that.uris) &&
+                Objects.equals(uriPrefix, that.uriPrefix) && Objects.equals(ids, that.ids) &&
+                Objects.equals(unique, that.unique) && Objects.equals(approximate, that.approximate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(start, end, uris, uriPrefix, ids, unique, approximate);
+    }
+}
@@ -2,8 +2,13 @@ package ru.practicum.stats_server;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import ru.practicum.stats_common.VirtualThreadsConfig;
 
 @SpringBootApplication
+@EnableScheduling
+@Import(VirtualThreadsConfig.class)
 public class StatsServiceApp {
     public static void main(String[] args) {
         SpringApplication.run(StatsServiceApp.class, args);
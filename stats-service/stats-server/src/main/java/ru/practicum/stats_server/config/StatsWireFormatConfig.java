@@ -0,0 +1,16 @@
+package ru.practicum.stats_server.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.stats_common.StatsBinaryHttpMessageConverter;
+
+import java.util.List;
+
+@Configuration
+public class StatsWireFormatConfig implements WebMvcConfigurer {
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new StatsBinaryHttpMessageConverter());
+    }
+}
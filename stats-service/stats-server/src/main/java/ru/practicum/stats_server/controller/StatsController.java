@@ -3,6 +3,7 @@ package ru.practicum.stats_server.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -11,15 +12,19 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.stats_common.StatsCommonUtils;
 import ru.practicum.stats_common.model.EndpointHit;
+import ru.practicum.stats_common.model.StatsQuery;
 import ru.practicum.stats_common.model.ViewStats;
 import ru.practicum.stats_server.service.StatsService;
 
 import javax.validation.Valid;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
+@Validated
 public class StatsController {
     private final StatsService statsService;
 
@@ -29,14 +34,67 @@ public class StatsController {
         statsService.addHit(endpointHit);
     }
 
+    @PostMapping(StatsCommonUtils.HIT_BATCH_ENDPOINT)
+    @ResponseStatus(HttpStatus.CREATED)
+    public void addHits(@RequestBody List<@Valid EndpointHit> endpointHits) {
+        statsService.addHits(endpointHits);
+    }
+
     @GetMapping(StatsCommonUtils.STATS_ENDPOINT)
     public List<ViewStats> getStats(@RequestParam @DateTimeFormat(pattern = StatsCommonUtils.DT_FORMAT) LocalDateTime start,
                                     @RequestParam @DateTimeFormat(pattern = StatsCommonUtils.DT_FORMAT) LocalDateTime end,
                                     @RequestParam(required = false) List<String> uris,
-                                    @RequestParam(required = false, defaultValue = "false") Boolean unique) {
+                                    @RequestParam(required = false, defaultValue = "false") Boolean unique,
+                                    @RequestParam(required = false, defaultValue = "false") Boolean approximate) {
         if (start.isAfter(end)) {
             throw new IllegalArgumentException("Недопустимый временной промежуток.");
         }
-        return statsService.getStats(start, end, uris, unique);
+        return statsService.getStats(start, end, uris, unique, approximate);
+    }
+
+    @PostMapping(StatsCommonUtils.STATS_QUERY_ENDPOINT)
+    public List<ViewStats> getStats(@Valid @RequestBody StatsQuery query) {
+        LocalDateTime start = LocalDateTime.parse(query.getStart(), StatsCommonUtils.DT_FORMATTER);
+        LocalDateTime end = LocalDateTime.parse(query.getEnd(), StatsCommonUtils.DT_FORMATTER);
+
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Недопустимый временной промежуток.");
+        }
+        return statsService.getStats(start, end, getUris(query),
+                Boolean.TRUE.equals(query.getUnique()), Boolean.TRUE.equals(query.getApproximate()));
+    }
+
+    @PostMapping(StatsCommonUtils.STATS_EVENTS_ENDPOINT)
+    public Map<Long, Long> getEventHits(@Valid @RequestBody StatsQuery query) {
+        LocalDateTime start = LocalDateTime.parse(query.getStart(), StatsCommonUtils.DT_FORMATTER);
+        LocalDateTime end = LocalDateTime.parse(query.getEnd(), StatsCommonUtils.DT_FORMATTER);
+
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Недопустимый временной промежуток.");
+        }
+        if (query.getIds() == null) {
+            throw new IllegalArgumentException("Не указан список идентификаторов событий.");
+        }
+        return statsService.getHitsByResource(start, end, query.getIds(), Boolean.TRUE.equals(query.getUnique()));
+    }
+
+    private List<String> getUris(StatsQuery query) {
+        if (query.getIds() == null) {
+            return query.getUris();
+        }
+        if (query.getUriPrefix() == null) {
+            throw new IllegalArgumentException("Для списка идентификаторов должен быть указан префикс uri.");
+        }
+
+        List<String> uris = new ArrayList<>(query.getIds().size() + (query.getUris() == null ? 0 : query.getUris().size()));
+
+        if (query.getUris() != null) {
+            uris.addAll(query.getUris());
+        }
+        for (Long id : query.getIds()) {
+            uris.add(query.getUriPrefix() + id);
+        }
+
+        return uris;
     }
 }
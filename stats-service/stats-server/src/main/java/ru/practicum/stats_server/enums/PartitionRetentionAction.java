@@ -0,0 +1,6 @@
+package ru.practicum.stats_server.enums;
+
+public enum PartitionRetentionAction {
+    DETACH,
+    DROP
+}
@@ -0,0 +1,31 @@
+package ru.practicum.stats_server.enums;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum RollupGranularity {
+    DAY("stats_day", ChronoUnit.DAYS),
+    HOUR("stats_hour", ChronoUnit.HOURS),
+    MINUTE("stats_minute", ChronoUnit.MINUTES);
+
+    private final String table;
+    private final ChronoUnit unit;
+
+    RollupGranularity(String table, ChronoUnit unit) {
+        this.table = table;
+        this.unit = unit;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public LocalDateTime floor(LocalDateTime dateTime) {
+        return dateTime.truncatedTo(unit);
+    }
+
+    public LocalDateTime ceil(LocalDateTime dateTime) {
+        LocalDateTime floor = floor(dateTime);
+        return floor.isEqual(dateTime) ? floor : floor.plus(1, unit);
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.stats_server.mapper;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import ru.practicum.stats_common.StatsCommonUtils;
 import ru.practicum.stats_common.model.EndpointHit;
 import ru.practicum.stats_server.model.Stats;
 
@@ -9,6 +10,35 @@ import java.time.LocalDateTime;
 
 @Mapper(componentModel = "spring")
 public interface StatsMapper {
+    int MAX_ID_DIGITS = 18;
+
     @Mapping(target = "timestamp", expression = "java(timestamp)")
+    @Mapping(target = "resourceId", expression = "java(toResourceId(endpointHit.getUri()))")
     Stats toStats(EndpointHit endpointHit, LocalDateTime timestamp);
+
+    default Long toResourceId(String uri) {
+        if (uri == null || !uri.startsWith(StatsCommonUtils.EVENT_URI_PREFIX)) {
+            return null;
+        }
+
+        int idStart = StatsCommonUtils.EVENT_URI_PREFIX.length();
+        int digits = uri.length() - idStart;
+
+        if (digits == 0 || digits > MAX_ID_DIGITS || (digits > 1 && uri.charAt(idStart) == '0')) {
+            return null;
+        }
+
+        long id = 0;
+
+        for (int i = idStart; i < uri.length(); i++) {
+            char c = uri.charAt(i);
+
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            id = id * 10 + (c - '0');
+        }
+
+        return id;
+    }
 }
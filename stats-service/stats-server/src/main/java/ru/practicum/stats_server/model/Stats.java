@@ -35,6 +35,9 @@ public class Stats {
     @Column(nullable = false)
     String uri;
 
+    @Column(name = "resource_id")
+    Long resourceId;
+
     @Column(name = "user_ip", nullable = false, length = 15)
     String ip;
 
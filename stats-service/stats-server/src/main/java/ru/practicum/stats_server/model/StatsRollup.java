@@ -0,0 +1,32 @@
+package ru.practicum.stats_server.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.stats_server.sketch.HyperLogLog;
+
+import java.time.LocalDateTime;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatsRollup {
+    LocalDateTime bucketStart;
+
+    String app;
+
+    String uri;
+
+    Long resourceId;
+
+    Long hits;
+
+    HyperLogLog ipSketch;
+}
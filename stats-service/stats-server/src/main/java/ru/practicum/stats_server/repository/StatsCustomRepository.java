@@ -0,0 +1,9 @@
+package ru.practicum.stats_server.repository;
+
+import ru.practicum.stats_server.model.Stats;
+
+import java.util.List;
+
+public interface StatsCustomRepository {
+    void insertAll(List<Stats> stats);
+}
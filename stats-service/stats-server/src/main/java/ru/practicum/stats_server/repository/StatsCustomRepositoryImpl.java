@@ -0,0 +1,31 @@
+package ru.practicum.stats_server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.stats_server.model.Stats;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class StatsCustomRepositoryImpl implements StatsCustomRepository {
+    private static final String INSERT_STATS = "INSERT INTO stats (app_name, uri, resource_id, user_ip, created) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${stats.insert.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public void insertAll(List<Stats> stats) {
+        jdbcTemplate.batchUpdate(INSERT_STATS, stats, batchSize, (ps, hit) -> {
+            ps.setString(1, hit.getApp());
+            ps.setString(2, hit.getUri());
+            ps.setObject(3, hit.getResourceId(), Types.BIGINT);
+            ps.setString(4, hit.getIp());
+            ps.setTimestamp(5, Timestamp.valueOf(hit.getTimestamp()));
+        });
+    }
+}
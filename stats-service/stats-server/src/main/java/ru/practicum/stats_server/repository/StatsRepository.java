@@ -8,7 +8,7 @@ import ru.practicum.stats_server.model.Stats;
 import java.time.LocalDateTime;
 import java.util.List;
 
-public interface StatsRepository extends JpaRepository<Stats, Long> {
+public interface StatsRepository extends JpaRepository<Stats, Long>, StatsCustomRepository {
     @Query("SELECT new ru.practicum.stats_common.model.ViewStats(s.app, s.uri, COUNT(DISTINCT s.ip)) " +
             "FROM Stats AS s " +
             "WHERE s.timestamp BETWEEN ?1 AND ?2 " +
@@ -0,0 +1,313 @@
+package ru.practicum.stats_server.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import ru.practicum.stats_common.model.ViewStats;
+import ru.practicum.stats_server.enums.RollupGranularity;
+import ru.practicum.stats_server.model.Stats;
+import ru.practicum.stats_server.model.StatsRollup;
+import ru.practicum.stats_server.sketch.HyperLogLog;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Repository
+public class StatsRollupRepository {
+    private static final String POSTGRESQL_UPSERT_HITS =
+            "INSERT INTO %s AS r (bucket_start, app_name, uri, resource_id, hits, ip_sketch) " +
+            "VALUES (:bucketStart, :app, :uri, :resourceId, :hits, :ipSketch) " +
+            "ON CONFLICT (bucket_start, app_name, uri) DO UPDATE SET hits = r.hits + EXCLUDED.hits";
+    private static final String MERGE_HITS =
+            "MERGE INTO %s AS r " +
+            "USING (SELECT CAST(:bucketStart AS TIMESTAMP) AS bucket_start, CAST(:app AS VARCHAR(255)) AS app_name, " +
+            "CAST(:uri AS VARCHAR(255)) AS uri, CAST(:resourceId AS BIGINT) AS resource_id, " +
+            "CAST(:hits AS BIGINT) AS hits) AS d " +
+            "ON r.bucket_start = d.bucket_start AND r.app_name = d.app_name AND r.uri = d.uri " +
+            "WHEN MATCHED THEN UPDATE SET hits = r.hits + d.hits " +
+            "WHEN NOT MATCHED THEN INSERT (bucket_start, app_name, uri, resource_id, hits, ip_sketch) " +
+            "VALUES (d.bucket_start, d.app_name, d.uri, d.resource_id, d.hits, :ipSketch)";
+    private static final byte[] EMPTY_SKETCH = new HyperLogLog().toBytes();
+    private static final int RAW_FETCH_SIZE = 1000;
+    private static final String RAW_STATS =
+            "SELECT app_name, uri, COUNT(*) AS hits " +
+            "FROM stats " +
+            "WHERE created >= :from AND created < :to ";
+    private static final String RAW_IPS =
+            "SELECT DISTINCT app_name, uri, user_ip " +
+            "FROM stats " +
+            "WHERE created >= :from AND created < :to ";
+    private static final String RAW_RESOURCE_HITS =
+            "SELECT resource_id, COUNT(*) AS hits " +
+            "FROM stats " +
+            "WHERE created >= :from AND created < :to AND resource_id IN (:ids) " +
+            "GROUP BY resource_id";
+    private static final String RAW_RESOURCE_UNIQUE_HITS =
+            "SELECT resource_id, COUNT(DISTINCT user_ip) AS hits " +
+            "FROM stats " +
+            "WHERE created >= :from AND created <= :to AND resource_id IN (:ids) " +
+            "GROUP BY resource_id";
+    private static final String INSERT_PENDING_SKETCH =
+            "INSERT INTO stats_sketch_pending (granularity, bucket_start, app_name, uri, ip_sketch) " +
+            "VALUES (:granularity, :bucketStart, :app, :uri, :ipSketch)";
+    private static final String PENDING_SKETCHES =
+            "SELECT id, granularity, bucket_start, app_name, uri, ip_sketch " +
+            "FROM stats_sketch_pending " +
+            "ORDER BY id " +
+            "LIMIT :limit";
+    private static final String ALL_RAW_STATS = "SELECT app_name, uri, resource_id, user_ip, created FROM stats";
+    private static final String GROUP_BY = "GROUP BY app_name, uri";
+    private static final String URIS_FILTER = "AND uri IN (:uris) ";
+    private static final RowMapper<ViewStats> VIEW_STATS_ROW_MAPPER = (rs, rowNum) -> ViewStats.builder()
+            .app(rs.getString("app_name"))
+            .uri(rs.getString("uri"))
+            .hits(rs.getLong("hits"))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean postgresql;
+
+    public StatsRollupRepository(NamedParameterJdbcTemplate jdbcTemplate,
+                                 @Value("${spring.sql.init.platform:postgresql}") String platform) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postgresql = "postgresql".equals(platform);
+    }
+
+    public void addHits(RollupGranularity granularity, List<StatsRollup> deltas) {
+        SqlParameterSource[] params = deltas.stream()
+                .map(delta -> toKeyParams(delta)
+                        .addValue("resourceId", delta.getResourceId(), Types.BIGINT)
+                        .addValue("hits", delta.getHits())
+                        .addValue("ipSketch", EMPTY_SKETCH))
+                .toArray(SqlParameterSource[]::new);
+
+        if (postgresql) {
+            jdbcTemplate.batchUpdate(String.format(POSTGRESQL_UPSERT_HITS, granularity.getTable()), params);
+            return;
+        }
+
+        String sql = String.format(MERGE_HITS, granularity.getTable());
+
+        for (SqlParameterSource param : params) {
+            try {
+                jdbcTemplate.update(sql, param);
+            } catch (DuplicateKeyException exception) {
+                jdbcTemplate.update(sql, param);
+            }
+        }
+    }
+
+    public Map<List<Object>, byte[]> findSketches(RollupGranularity granularity, List<StatsRollup> keys) {
+        Map<List<Object>, byte[]> sketches = new HashMap<>();
+        Set<List<Object>> wanted = keys.stream().map(StatsRollupRepository::toKey).collect(Collectors.toSet());
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("buckets", keys.stream()
+                        .map(key -> Timestamp.valueOf(key.getBucketStart()))
+                        .distinct()
+                        .collect(Collectors.toList()))
+                .addValue("uris", keys.stream().map(StatsRollup::getUri).distinct().collect(Collectors.toList()));
+
+        jdbcTemplate.query("SELECT bucket_start, app_name, uri, ip_sketch FROM " + granularity.getTable() + " " +
+                        "WHERE bucket_start IN (:buckets) AND uri IN (:uris)", params,
+                (RowCallbackHandler) rs -> {
+                    List<Object> key = List.of(rs.getTimestamp("bucket_start").toLocalDateTime(),
+                            rs.getString("app_name"), rs.getString("uri"));
+
+                    if (wanted.contains(key)) {
+                        sketches.put(key, rs.getBytes("ip_sketch"));
+                    }
+                });
+
+        return sketches;
+    }
+
+    public int[] compareAndSetSketches(RollupGranularity granularity, List<StatsRollup> rollups,
+                                       List<byte[]> expectedSketches) {
+        SqlParameterSource[] params = new SqlParameterSource[rollups.size()];
+
+        for (int i = 0; i < rollups.size(); i++) {
+            params[i] = toKeyParams(rollups.get(i))
+                    .addValue("ipSketch", rollups.get(i).getIpSketch().toBytes())
+                    .addValue("expected", expectedSketches.get(i));
+        }
+
+        return jdbcTemplate.batchUpdate("UPDATE " + granularity.getTable() + " SET ip_sketch = :ipSketch " +
+                "WHERE bucket_start = :bucketStart AND app_name = :app AND uri = :uri AND ip_sketch = :expected", params);
+    }
+
+    public void addPendingSketches(RollupGranularity granularity, List<StatsRollup> deltas) {
+        SqlParameterSource[] params = deltas.stream()
+                .map(delta -> toKeyParams(delta)
+                        .addValue("granularity", granularity.name())
+                        .addValue("ipSketch", delta.getIpSketch().toBytes()))
+                .toArray(SqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate(INSERT_PENDING_SKETCH, params);
+    }
+
+    public List<Long> forEachPendingSketch(int limit, BiConsumer<RollupGranularity, StatsRollup> consumer) {
+        List<Long> ids = new ArrayList<>();
+
+        jdbcTemplate.query(PENDING_SKETCHES, new MapSqlParameterSource("limit", limit), (RowCallbackHandler) rs -> {
+            ids.add(rs.getLong("id"));
+            consumer.accept(RollupGranularity.valueOf(rs.getString("granularity")), StatsRollup.builder()
+                    .bucketStart(rs.getTimestamp("bucket_start").toLocalDateTime())
+                    .app(rs.getString("app_name"))
+                    .uri(rs.getString("uri"))
+                    .ipSketch(HyperLogLog.fromBytes(rs.getBytes("ip_sketch")))
+                    .build());
+        });
+
+        return ids;
+    }
+
+    public int deletePendingSketches(List<Long> ids) {
+        return jdbcTemplate.update("DELETE FROM stats_sketch_pending WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids));
+    }
+
+    public int deleteBefore(RollupGranularity granularity, LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM " + granularity.getTable() + " WHERE bucket_start < :before",
+                new MapSqlParameterSource("before", Timestamp.valueOf(before)));
+    }
+
+    public static List<Object> toKey(StatsRollup rollup) {
+        return List.of(rollup.getBucketStart(), rollup.getApp(), rollup.getUri());
+    }
+
+    public List<ViewStats> getStats(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                    List<String> uris) {
+        String sql = "SELECT app_name, uri, SUM(hits) AS hits " +
+                "FROM " + granularity.getTable() + " " +
+                "WHERE bucket_start >= :from AND bucket_start < :to ";
+
+        return jdbcTemplate.query(withUris(sql, uris) + GROUP_BY, toRangeParams(from, to, uris),
+                VIEW_STATS_ROW_MAPPER);
+    }
+
+    public List<ViewStats> getRawStats(LocalDateTime from, LocalDateTime to, List<String> uris) {
+        return jdbcTemplate.query(withUris(RAW_STATS, uris) + GROUP_BY, toRangeParams(from, to, uris),
+                VIEW_STATS_ROW_MAPPER);
+    }
+
+    public void addHitsByResource(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                  Collection<Long> ids, Map<Long, Long> hits) {
+        String sql = "SELECT resource_id, SUM(hits) AS hits " +
+                "FROM " + granularity.getTable() + " " +
+                "WHERE bucket_start >= :from AND bucket_start < :to AND resource_id IN (:ids) " +
+                "GROUP BY resource_id";
+
+        jdbcTemplate.query(sql, toResourceParams(from, to, ids), resourceHitsHandler(hits));
+    }
+
+    public void addRawHitsByResource(LocalDateTime from, LocalDateTime to, Collection<Long> ids,
+                                     Map<Long, Long> hits) {
+        jdbcTemplate.query(RAW_RESOURCE_HITS, toResourceParams(from, to, ids), resourceHitsHandler(hits));
+    }
+
+    public void addRawUniqueHitsByResource(LocalDateTime start, LocalDateTime end, Collection<Long> ids,
+                                           Map<Long, Long> hits) {
+        jdbcTemplate.query(RAW_RESOURCE_UNIQUE_HITS, toResourceParams(start, end, ids), resourceHitsHandler(hits));
+    }
+
+    public void forEachSketch(RollupGranularity granularity, LocalDateTime from, LocalDateTime to, List<String> uris,
+                              Consumer<StatsRollup> consumer) {
+        String sql = "SELECT app_name, uri, ip_sketch " +
+                "FROM " + granularity.getTable() + " " +
+                "WHERE bucket_start >= :from AND bucket_start < :to ";
+
+        jdbcTemplate.query(withUris(sql, uris), toRangeParams(from, to, uris),
+                (RowCallbackHandler) rs -> consumer.accept(StatsRollup.builder()
+                        .app(rs.getString("app_name"))
+                        .uri(rs.getString("uri"))
+                        .ipSketch(HyperLogLog.fromBytes(rs.getBytes("ip_sketch")))
+                        .build()));
+    }
+
+    public void forEachRawIp(LocalDateTime from, LocalDateTime to, List<String> uris, Consumer<Stats> consumer) {
+        jdbcTemplate.query(withUris(RAW_IPS, uris), toRangeParams(from, to, uris),
+                (RowCallbackHandler) rs -> consumer.accept(Stats.builder()
+                        .app(rs.getString("app_name"))
+                        .uri(rs.getString("uri"))
+                        .ip(rs.getString("user_ip"))
+                        .build()));
+    }
+
+    public boolean isEmpty() {
+        return jdbcTemplate.query("SELECT 1 FROM " + RollupGranularity.DAY.getTable() + " LIMIT 1",
+                (rs, rowNum) -> rowNum).isEmpty();
+    }
+
+    public void forEachRawChunk(int chunkSize, Consumer<List<Stats>> consumer) {
+        List<Stats> chunk = new ArrayList<>(chunkSize);
+        RowCallbackHandler handler = rs -> {
+            chunk.add(Stats.builder()
+                    .app(rs.getString("app_name"))
+                    .uri(rs.getString("uri"))
+                    .resourceId(rs.getObject("resource_id", Long.class))
+                    .ip(rs.getString("user_ip"))
+                    .timestamp(rs.getTimestamp("created").toLocalDateTime())
+                    .build());
+
+            if (chunk.size() >= chunkSize) {
+                consumer.accept(chunk);
+                chunk.clear();
+            }
+        };
+
+        jdbcTemplate.getJdbcTemplate().query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(ALL_RAW_STATS);
+            ps.setFetchSize(RAW_FETCH_SIZE);
+            return ps;
+        }, handler);
+
+        if (!chunk.isEmpty()) {
+            consumer.accept(chunk);
+        }
+    }
+
+    private MapSqlParameterSource toKeyParams(StatsRollup rollup) {
+        return new MapSqlParameterSource()
+                .addValue("bucketStart", Timestamp.valueOf(rollup.getBucketStart()))
+                .addValue("app", rollup.getApp())
+                .addValue("uri", rollup.getUri());
+    }
+
+    private MapSqlParameterSource toRangeParams(LocalDateTime from, LocalDateTime to, List<String> uris) {
+        return new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to))
+                .addValue("uris", uris);
+    }
+
+    private MapSqlParameterSource toResourceParams(LocalDateTime from, LocalDateTime to, Collection<Long> ids) {
+        return new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to))
+                .addValue("ids", ids);
+    }
+
+    private RowCallbackHandler resourceHitsHandler(Map<Long, Long> hits) {
+        return rs -> hits.merge(rs.getLong("resource_id"), rs.getLong("hits"), Long::sum);
+    }
+
+    private String withUris(String sql, List<String> uris) {
+        return uris == null || uris.isEmpty() ? sql : sql + URIS_FILTER;
+    }
+}
@@ -0,0 +1,150 @@
+package ru.practicum.stats_server.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats_server.enums.PartitionRetentionAction;
+import ru.practicum.stats_server.enums.RollupGranularity;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "spring.sql.init.platform", havingValue = "postgresql")
+@Slf4j
+public class StatsPartitionManager {
+    private static final String PARTITION_PREFIX = "stats_p";
+    private static final String DEFAULT_PARTITION = "stats_default";
+    private static final DateTimeFormatter PARTITION_SUFFIX_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String IS_PARTITIONED =
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt " +
+            "JOIN pg_class c ON c.oid = pt.partrelid " +
+            "WHERE c.relname = 'stats' AND pg_table_is_visible(c.oid))";
+    private static final String PARTITIONS =
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = 'stats' AND pg_table_is_visible(p.oid)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int daysAhead;
+    private final int retentionDays;
+    private final PartitionRetentionAction retentionAction;
+
+    @Autowired
+    public StatsPartitionManager(JdbcTemplate jdbcTemplate,
+                                 @Value("${stats.partitions.days-ahead:7}") int daysAhead,
+                                 @Value("${stats.partitions.retention-days:0}") int retentionDays,
+                                 @Value("${stats.partitions.retention-action:DETACH}") PartitionRetentionAction retentionAction) {
+        if (daysAhead < 0 || retentionDays < 0) {
+            throw new IllegalArgumentException("Параметры партиционирования не могут быть отрицательными.");
+        }
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.daysAhead = daysAhead;
+        this.retentionDays = retentionDays;
+        this.retentionAction = retentionAction;
+    }
+
+    @PostConstruct
+    public void init() {
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${stats.partitions.cron:0 0 1 * * *}")
+    public void maintainPartitions() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED, Boolean.class))) {
+            log.warn("Таблица stats не партиционирована, обслуживание партиций пропущено");
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        Set<String> partitions = new HashSet<>(jdbcTemplate.queryForList(PARTITIONS, String.class));
+
+        if (!partitions.contains(DEFAULT_PARTITION)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION + " PARTITION OF stats DEFAULT");
+        }
+
+        for (int i = 0; i <= daysAhead; i++) {
+            createPartition(today.plusDays(i), partitions);
+        }
+
+        if (retentionDays > 0) {
+            removeExpiredPartitions(today.minusDays(retentionDays), partitions);
+        }
+    }
+
+    private void createPartition(LocalDate day, Set<String> partitions) {
+        String partition = toPartitionName(day);
+
+        if (partitions.contains(partition)) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF stats " +
+                    "FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+            log.info("Создана партиция {} для обращений за {}", partition, day);
+        } catch (DataAccessException exception) {
+            log.warn("Не удалось создать партицию {}: {}", partition, exception.getMessage());
+        }
+    }
+
+    private void removeExpiredPartitions(LocalDate firstRetainedDay, Set<String> partitions) {
+        List<String> expired = partitions.stream()
+                .filter(partition -> {
+                    LocalDate day = toPartitionDay(partition);
+                    return day != null && day.isBefore(firstRetainedDay);
+                })
+                .sorted()
+                .collect(Collectors.toList());
+
+        for (String partition : expired) {
+            if (retentionAction == PartitionRetentionAction.DROP) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+            } else {
+                jdbcTemplate.execute("ALTER TABLE stats DETACH PARTITION " + partition);
+            }
+
+            log.info("Партиция {} старше {} обработана действием {}", partition, firstRetainedDay, retentionAction);
+        }
+
+        int deleted = jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION +
+                " WHERE created < '" + firstRetainedDay + "'");
+
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            deleted += jdbcTemplate.update("DELETE FROM " + granularity.getTable() +
+                    " WHERE bucket_start < '" + firstRetainedDay + "'");
+        }
+
+        log.info("Удалено {} обращений и агрегатов старше {}", deleted, firstRetainedDay);
+    }
+
+    private static String toPartitionName(LocalDate day) {
+        return PARTITION_PREFIX + day.format(PARTITION_SUFFIX_FORMATTER);
+    }
+
+    private static LocalDate toPartitionDay(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+
+        try {
+            return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX_FORMATTER);
+        } catch (DateTimeParseException exception) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.stats_server.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+@Component
+@RequiredArgsConstructor
+public class StatsRollupInitializer {
+    private final StatsRollupService statsRollupService;
+
+    @PostConstruct
+    public void init() {
+        statsRollupService.rebuildIfEmpty();
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.stats_server.service;
+
+import ru.practicum.stats_common.model.ViewStats;
+import ru.practicum.stats_server.model.Stats;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface StatsRollupService {
+    void addHits(List<Stats> stats);
+
+    List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris);
+
+    Map<Long, Long> getHitsByResource(LocalDateTime start, LocalDateTime end, Collection<Long> ids);
+
+    Map<Long, Long> getUniqueHitsByResource(LocalDateTime start, LocalDateTime end, Collection<Long> ids);
+
+    List<ViewStats> getApproximateUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris);
+
+    void rebuildIfEmpty();
+
+    int pruneExpired();
+}
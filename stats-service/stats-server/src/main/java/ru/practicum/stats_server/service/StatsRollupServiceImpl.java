@@ -0,0 +1,261 @@
+package ru.practicum.stats_server.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.stats_common.model.ViewStats;
+import ru.practicum.stats_server.enums.RollupGranularity;
+import ru.practicum.stats_server.model.Stats;
+import ru.practicum.stats_server.model.StatsRollup;
+import ru.practicum.stats_server.repository.StatsRollupRepository;
+import ru.practicum.stats_server.sketch.HyperLogLog;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional(readOnly = true)
+@Slf4j
+public class StatsRollupServiceImpl implements StatsRollupService {
+    private static final RollupGranularity[] LEVELS = {
+            RollupGranularity.DAY, RollupGranularity.HOUR, RollupGranularity.MINUTE
+    };
+    private static final int REBUILD_CHUNK_SIZE = 5000;
+    private static final Comparator<StatsRollup> KEY_ORDER = Comparator.comparing(StatsRollup::getBucketStart)
+            .thenComparing(StatsRollup::getApp)
+            .thenComparing(StatsRollup::getUri);
+
+    private final StatsRollupRepository statsRollupRepository;
+    private final StatsSketchMerger statsSketchMerger;
+    private final Map<RollupGranularity, Integer> retentionDays = new EnumMap<>(RollupGranularity.class);
+
+    @Autowired
+    public StatsRollupServiceImpl(StatsRollupRepository statsRollupRepository,
+                                  StatsSketchMerger statsSketchMerger,
+                                  @Value("${stats.rollup.minute-retention-days:7}") int minuteRetentionDays,
+                                  @Value("${stats.rollup.hour-retention-days:90}") int hourRetentionDays) {
+        if (minuteRetentionDays < 0 || hourRetentionDays < 0) {
+            throw new IllegalArgumentException("Срок хранения агрегатов не может быть отрицательным.");
+        }
+
+        this.statsRollupRepository = statsRollupRepository;
+        this.statsSketchMerger = statsSketchMerger;
+        this.retentionDays.put(RollupGranularity.MINUTE, minuteRetentionDays);
+        this.retentionDays.put(RollupGranularity.HOUR, hourRetentionDays);
+    }
+
+    @Override
+    @Transactional
+    public void addHits(List<Stats> stats) {
+        addHits(stats, false);
+    }
+
+    private void addHits(List<Stats> stats, boolean mergeSketchesNow) {
+        for (RollupGranularity granularity : LEVELS) {
+            Map<List<Object>, StatsRollup> deltas = new HashMap<>();
+
+            for (Stats hit : stats) {
+                LocalDateTime bucketStart = granularity.floor(hit.getTimestamp());
+                StatsRollup delta = deltas.computeIfAbsent(List.of(bucketStart, hit.getApp(), hit.getUri()),
+                        key -> StatsRollup.builder()
+                                .bucketStart(bucketStart)
+                                .app(hit.getApp())
+                                .uri(hit.getUri())
+                                .resourceId(hit.getResourceId())
+                                .hits(0L)
+                                .ipSketch(new HyperLogLog())
+                                .build());
+
+                delta.setHits(delta.getHits() + 1);
+                delta.getIpSketch().add(hit.getIp());
+            }
+
+            List<StatsRollup> sortedDeltas = new ArrayList<>(deltas.values());
+            sortedDeltas.sort(KEY_ORDER);
+
+            statsRollupRepository.addHits(granularity, sortedDeltas);
+
+            if (mergeSketchesNow) {
+                statsSketchMerger.merge(granularity, sortedDeltas);
+            } else {
+                statsSketchMerger.add(granularity, sortedDeltas);
+            }
+        }
+    }
+
+    @Override
+    public List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        Map<List<String>, Long> hits = new LinkedHashMap<>();
+
+        for (Segment segment : plan(start, end)) {
+            List<ViewStats> segmentStats = segment.getGranularity() == null
+                    ? statsRollupRepository.getRawStats(segment.getFrom(), segment.getTo(), uris)
+                    : statsRollupRepository.getStats(segment.getGranularity(), segment.getFrom(), segment.getTo(), uris);
+
+            for (ViewStats viewStats : segmentStats) {
+                hits.merge(List.of(viewStats.getApp(), viewStats.getUri()), viewStats.getHits(), Long::sum);
+            }
+        }
+
+        return toViewStats(hits);
+    }
+
+    @Override
+    public Map<Long, Long> getHitsByResource(LocalDateTime start, LocalDateTime end, Collection<Long> ids) {
+        Map<Long, Long> hits = new HashMap<>();
+
+        for (Segment segment : plan(start, end)) {
+            if (segment.getGranularity() == null) {
+                statsRollupRepository.addRawHitsByResource(segment.getFrom(), segment.getTo(), ids, hits);
+            } else {
+                statsRollupRepository.addHitsByResource(segment.getGranularity(), segment.getFrom(), segment.getTo(),
+                        ids, hits);
+            }
+        }
+
+        return hits;
+    }
+
+    @Override
+    public Map<Long, Long> getUniqueHitsByResource(LocalDateTime start, LocalDateTime end, Collection<Long> ids) {
+        Map<Long, Long> hits = new HashMap<>();
+
+        statsRollupRepository.addRawUniqueHitsByResource(start, end, ids, hits);
+
+        return hits;
+    }
+
+    @Override
+    public List<ViewStats> getApproximateUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        Map<List<String>, HyperLogLog> sketches = new LinkedHashMap<>();
+
+        for (Segment segment : plan(start, end)) {
+            if (segment.getGranularity() == null) {
+                statsRollupRepository.forEachRawIp(segment.getFrom(), segment.getTo(), uris, hit ->
+                        sketches.computeIfAbsent(List.of(hit.getApp(), hit.getUri()), key -> new HyperLogLog())
+                                .add(hit.getIp()));
+            } else {
+                statsRollupRepository.forEachSketch(segment.getGranularity(), segment.getFrom(), segment.getTo(), uris,
+                        rollup -> sketches.computeIfAbsent(List.of(rollup.getApp(), rollup.getUri()),
+                                key -> new HyperLogLog()).merge(rollup.getIpSketch()));
+            }
+        }
+
+        Map<List<String>, Long> hits = new LinkedHashMap<>();
+        sketches.forEach((key, sketch) -> hits.put(key, sketch.estimate()));
+
+        return toViewStats(hits);
+    }
+
+    @Override
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (!statsRollupRepository.isEmpty()) {
+            return;
+        }
+
+        log.info("Пересчет агрегатов статистики по сохраненным обращениям");
+
+        statsRollupRepository.forEachRawChunk(REBUILD_CHUNK_SIZE, chunk -> addHits(chunk, true));
+    }
+
+    @Override
+    @Scheduled(cron = "${stats.rollup.prune-cron:0 30 1 * * *}")
+    @Transactional
+    public int pruneExpired() {
+        int deleted = 0;
+
+        for (RollupGranularity granularity : LEVELS) {
+            LocalDateTime retainedFrom = getRetainedFrom(granularity);
+
+            if (retainedFrom != null) {
+                deleted += statsRollupRepository.deleteBefore(granularity, retainedFrom);
+            }
+        }
+
+        log.info("Удалено {} устаревших агрегатов статистики", deleted);
+
+        return deleted;
+    }
+
+    private LocalDateTime getRetainedFrom(RollupGranularity granularity) {
+        int days = retentionDays.getOrDefault(granularity, 0);
+
+        return days == 0 ? null : LocalDate.now().minusDays(days).atStartOfDay();
+    }
+
+    private List<Segment> plan(LocalDateTime start, LocalDateTime end) {
+        List<Segment> segments = new ArrayList<>();
+
+        plan(start, end.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1), 0, segments);
+
+        return segments;
+    }
+
+    private void plan(LocalDateTime from, LocalDateTime to, int level, List<Segment> segments) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+
+        if (level == LEVELS.length) {
+            segments.add(new Segment(null, from, to));
+            return;
+        }
+
+        RollupGranularity granularity = LEVELS[level];
+        LocalDateTime retainedFrom = getRetainedFrom(granularity);
+
+        if (retainedFrom != null && from.isBefore(retainedFrom)) {
+            LocalDateTime split = to.isBefore(retainedFrom) ? to : retainedFrom;
+
+            plan(from, split, level + 1, segments);
+            plan(split, to, level, segments);
+            return;
+        }
+
+        LocalDateTime firstBucket = granularity.ceil(from);
+        LocalDateTime lastBucket = granularity.floor(to);
+
+        if (firstBucket.isBefore(lastBucket)) {
+            segments.add(new Segment(granularity, firstBucket, lastBucket));
+            plan(from, firstBucket, level + 1, segments);
+            plan(lastBucket, to, level + 1, segments);
+        } else {
+            plan(from, to, level + 1, segments);
+        }
+    }
+
+    private List<ViewStats> toViewStats(Map<List<String>, Long> hits) {
+        return hits.entrySet().stream()
+                .map(entry -> ViewStats.builder()
+                        .app(entry.getKey().get(0))
+                        .uri(entry.getKey().get(1))
+                        .hits(entry.getValue())
+                        .build())
+                .sorted(Comparator.comparing(ViewStats::getHits).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class Segment {
+        private final RollupGranularity granularity;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+    }
+}
@@ -5,9 +5,15 @@ import ru.practicum.stats_common.model.ViewStats;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public interface StatsService {
     void addHit(EndpointHit endpointHit);
 
-    List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique);
+    void addHits(List<EndpointHit> endpointHits);
+
+    List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                             Boolean approximate);
+
+    Map<Long, Long> getHitsByResource(LocalDateTime start, LocalDateTime end, List<Long> ids, Boolean unique);
 }
@@ -8,10 +8,14 @@ import ru.practicum.stats_common.StatsCommonUtils;
 import ru.practicum.stats_common.model.EndpointHit;
 import ru.practicum.stats_common.model.ViewStats;
 import ru.practicum.stats_server.mapper.StatsMapper;
+import ru.practicum.stats_server.model.Stats;
 import ru.practicum.stats_server.repository.StatsRepository;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -20,33 +24,77 @@ import java.util.List;
 public class StatsServiceImpl implements StatsService {
     private final StatsRepository statsRepository;
     private final StatsMapper statsMapper;
+    private final StatsRollupService statsRollupService;
 
     @Override
     @Transactional
     public void addHit(EndpointHit endpointHit) {
         log.info("Регистрация обращения к {}", endpointHit);
 
-        statsRepository.save(statsMapper.toStats(endpointHit,
-                LocalDateTime.parse(endpointHit.getTimestamp(), StatsCommonUtils.DT_FORMATTER)));
+        Stats stats = statsMapper.toStats(endpointHit, getTimestamp(endpointHit));
+
+        statsRepository.save(stats);
+        statsRollupService.addHits(List.of(stats));
+    }
+
+    @Override
+    @Transactional
+    public void addHits(List<EndpointHit> endpointHits) {
+        log.info("Регистрация пакета из {} обращений", endpointHits.size());
+
+        if (endpointHits.isEmpty()) {
+            return;
+        }
+
+        List<Stats> stats = endpointHits.stream()
+                .map(endpointHit -> statsMapper.toStats(endpointHit, getTimestamp(endpointHit)))
+                .collect(Collectors.toList());
+
+        statsRepository.insertAll(stats);
+        statsRollupService.addHits(stats);
     }
 
     @Override
-    public List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
-        log.info("Вывод списка обращений по параметрам start = {}, end = {}, uris = {}, unique = {}",
-                start, end, uris, unique);
+    public List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                                    Boolean approximate) {
+        log.info("Вывод списка обращений по параметрам start = {}, end = {}, uris = {}, unique = {}, approximate = {}",
+                start, end, uris, unique, approximate);
+
+        if (!unique) {
+            return statsRollupService.getStats(start, end, uris);
+        }
+
+        if (approximate) {
+            return statsRollupService.getApproximateUniqueStats(start, end, uris);
+        }
 
         if (uris == null || uris.isEmpty()) {
-            if (unique) {
-                return statsRepository.getAllStatsDistinctIp(start, end);
-            } else {
-                return statsRepository.getAllStats(start, end);
-            }
+            return statsRepository.getAllStatsDistinctIp(start, end);
         } else {
-            if (unique) {
-                return statsRepository.getStatsByUrisDistinctIp(start, end, uris);
-            } else {
-                return statsRepository.getStatsByUris(start, end, uris);
-            }
+            return statsRepository.getStatsByUrisDistinctIp(start, end, uris);
+        }
+    }
+
+    @Override
+    public Map<Long, Long> getHitsByResource(LocalDateTime start, LocalDateTime end, List<Long> ids, Boolean unique) {
+        log.info("Вывод числа обращений по идентификаторам ресурсов start = {}, end = {}, ids = {}, unique = {}",
+                start, end, ids.size(), unique);
+
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        if (!unique) {
+            return statsRollupService.getHitsByResource(start, end, ids);
+        }
+
+        return statsRollupService.getUniqueHitsByResource(start, end, ids);
+    }
+
+    private LocalDateTime getTimestamp(EndpointHit endpointHit) {
+        if (endpointHit.getTimestampMillis() != null) {
+            return StatsCommonUtils.fromEpochMillis(endpointHit.getTimestampMillis());
         }
+        return LocalDateTime.parse(endpointHit.getTimestamp(), StatsCommonUtils.DT_FORMATTER);
     }
 }
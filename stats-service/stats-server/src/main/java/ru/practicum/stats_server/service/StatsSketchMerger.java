@@ -0,0 +1,148 @@
+package ru.practicum.stats_server.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats_server.enums.RollupGranularity;
+import ru.practicum.stats_server.model.StatsRollup;
+import ru.practicum.stats_server.repository.StatsRollupRepository;
+import ru.practicum.stats_server.sketch.HyperLogLog;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Component
+@Slf4j
+public class StatsSketchMerger {
+    private static final int CHUNK_SIZE = 500;
+    private static final int FLUSH_BATCH_SIZE = 5000;
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final StatsRollupRepository statsRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public StatsSketchMerger(StatsRollupRepository statsRollupRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.statsRollupRepository = statsRollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void add(RollupGranularity granularity, List<StatsRollup> deltas) {
+        statsRollupRepository.addPendingSketches(granularity, deltas);
+    }
+
+    @Scheduled(fixedDelayString = "${stats.rollup.sketch-flush-interval-ms:1000}")
+    public synchronized int flush() {
+        int merged = 0;
+        int batch;
+
+        do {
+            try {
+                batch = Objects.requireNonNull(transactionTemplate.execute(status -> flushBatch()));
+            } catch (RuntimeException exception) {
+                log.warn("Не удалось объединить скетчи уникальных посетителей, повтор при следующем запуске: {}",
+                        exception.getMessage());
+                return merged;
+            }
+
+            merged += batch;
+        } while (batch == FLUSH_BATCH_SIZE);
+
+        return merged;
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    public void merge(RollupGranularity granularity, List<StatsRollup> deltas) {
+        for (int from = 0; from < deltas.size(); from += CHUNK_SIZE) {
+            mergeChunk(granularity, deltas.subList(from, Math.min(from + CHUNK_SIZE, deltas.size())));
+        }
+    }
+
+    private int flushBatch() {
+        Map<RollupGranularity, Map<List<Object>, StatsRollup>> deltas = new EnumMap<>(RollupGranularity.class);
+        List<Long> ids = statsRollupRepository.forEachPendingSketch(FLUSH_BATCH_SIZE, (granularity, delta) ->
+                deltas.computeIfAbsent(granularity, key -> new HashMap<>())
+                        .merge(StatsRollupRepository.toKey(delta), delta, (existing, added) -> {
+                            existing.getIpSketch().merge(added.getIpSketch());
+                            return existing;
+                        }));
+
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        deltas.forEach((granularity, granularityDeltas) ->
+                merge(granularity, new ArrayList<>(granularityDeltas.values())));
+        statsRollupRepository.deletePendingSketches(ids);
+
+        return ids.size();
+    }
+
+    private void mergeChunk(RollupGranularity granularity, List<StatsRollup> deltas) {
+        List<StatsRollup> remaining = deltas;
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && !remaining.isEmpty(); attempt++) {
+            Map<List<Object>, byte[]> current = statsRollupRepository.findSketches(granularity, remaining);
+            List<StatsRollup> updates = new ArrayList<>(remaining.size());
+            List<byte[]> expected = new ArrayList<>(remaining.size());
+            List<StatsRollup> deltasToUpdate = new ArrayList<>(remaining.size());
+
+            for (StatsRollup delta : remaining) {
+                byte[] currentBytes = current.get(StatsRollupRepository.toKey(delta));
+
+                if (currentBytes == null) {
+                    continue;
+                }
+
+                HyperLogLog sketch = HyperLogLog.fromBytes(currentBytes);
+                sketch.merge(delta.getIpSketch());
+
+                if (Arrays.equals(currentBytes, sketch.toBytes())) {
+                    continue;
+                }
+
+                updates.add(StatsRollup.builder()
+                        .bucketStart(delta.getBucketStart())
+                        .app(delta.getApp())
+                        .uri(delta.getUri())
+                        .ipSketch(sketch)
+                        .build());
+                expected.add(currentBytes);
+                deltasToUpdate.add(delta);
+            }
+
+            if (updates.isEmpty()) {
+                return;
+            }
+
+            int[] counts = statsRollupRepository.compareAndSetSketches(granularity, updates, expected);
+            List<StatsRollup> conflicts = new ArrayList<>();
+
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    conflicts.add(deltasToUpdate.get(i));
+                }
+            }
+
+            remaining = conflicts;
+        }
+
+        if (!remaining.isEmpty()) {
+            throw new IllegalStateException(String.format(
+                    "Не удалось объединить %d скетчей в %s из-за конкурентных изменений.", remaining.size(),
+                    granularity.getTable()));
+        }
+    }
+}
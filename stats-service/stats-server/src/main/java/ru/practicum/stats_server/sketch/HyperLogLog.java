@@ -0,0 +1,140 @@
+package ru.practicum.stats_server.sketch;
+
+import java.util.Arrays;
+
+public class HyperLogLog {
+    public static final int PRECISION = 12;
+    public static final int REGISTERS = 1 << PRECISION;
+    public static final double STANDARD_ERROR = 1.04 / Math.sqrt(REGISTERS);
+
+    private static final byte SPARSE = 1;
+    private static final byte DENSE = 2;
+    private static final int SPARSE_ENTRY_SIZE = 3;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return new HyperLogLog();
+        }
+
+        if (bytes[0] == DENSE && bytes.length == REGISTERS + 1) {
+            return new HyperLogLog(Arrays.copyOfRange(bytes, 1, bytes.length));
+        }
+
+        if (bytes[0] == SPARSE && (bytes.length - 1) % SPARSE_ENTRY_SIZE == 0) {
+            byte[] registers = new byte[REGISTERS];
+
+            for (int i = 1; i < bytes.length; i += SPARSE_ENTRY_SIZE) {
+                int index = ((bytes[i] & 0xff) << 8) | (bytes[i + 1] & 0xff);
+
+                if (index >= REGISTERS) {
+                    throw new IllegalArgumentException("Некорректный индекс регистра HyperLogLog: " + index);
+                }
+
+                registers[index] = bytes[i + 2];
+            }
+
+            return new HyperLogLog(registers);
+        }
+
+        throw new IllegalArgumentException("Некорректный формат HyperLogLog.");
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double alpha = 0.7213 / (1 + 1.079 / REGISTERS);
+        double estimate = alpha * REGISTERS * REGISTERS / sum;
+
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+
+        return Math.round(estimate);
+    }
+
+    public byte[] toBytes() {
+        int filled = 0;
+
+        for (byte register : registers) {
+            if (register != 0) {
+                filled++;
+            }
+        }
+
+        if (filled * SPARSE_ENTRY_SIZE >= REGISTERS) {
+            byte[] bytes = new byte[REGISTERS + 1];
+            bytes[0] = DENSE;
+            System.arraycopy(registers, 0, bytes, 1, REGISTERS);
+            return bytes;
+        }
+
+        byte[] bytes = new byte[1 + filled * SPARSE_ENTRY_SIZE];
+        bytes[0] = SPARSE;
+
+        for (int i = 0, position = 1; i < REGISTERS; i++) {
+            if (registers[i] != 0) {
+                bytes[position++] = (byte) (i >>> 8);
+                bytes[position++] = (byte) i;
+                bytes[position++] = registers[i];
+            }
+        }
+
+        return bytes;
+    }
+
+    private static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb3fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+}
@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS stats (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    app_name VARCHAR(255) NOT NULL,
+    user_ip VARCHAR(15) NOT NULL,
+    created TIMESTAMP NOT NULL,
+    uri VARCHAR(255) NOT NULL,
+    resource_id BIGINT
+);
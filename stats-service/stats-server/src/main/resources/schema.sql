@@ -1,7 +1,53 @@
-CREATE TABLE IF NOT EXISTS stats (
+CREATE TABLE IF NOT EXISTS stats_minute (
+    bucket_start TIMESTAMP NOT NULL,
+    app_name VARCHAR(255) NOT NULL,
+    uri VARCHAR(255) NOT NULL,
+    resource_id BIGINT,
+    hits BIGINT NOT NULL,
+    ip_sketch BYTEA NOT NULL,
+    CONSTRAINT pk_stats_minute PRIMARY KEY (bucket_start, app_name, uri)
+);
+
+CREATE TABLE IF NOT EXISTS stats_hour (
+    bucket_start TIMESTAMP NOT NULL,
+    app_name VARCHAR(255) NOT NULL,
+    uri VARCHAR(255) NOT NULL,
+    resource_id BIGINT,
+    hits BIGINT NOT NULL,
+    ip_sketch BYTEA NOT NULL,
+    CONSTRAINT pk_stats_hour PRIMARY KEY (bucket_start, app_name, uri)
+);
+
+CREATE TABLE IF NOT EXISTS stats_day (
+    bucket_start TIMESTAMP NOT NULL,
+    app_name VARCHAR(255) NOT NULL,
+    uri VARCHAR(255) NOT NULL,
+    resource_id BIGINT,
+    hits BIGINT NOT NULL,
+    ip_sketch BYTEA NOT NULL,
+    CONSTRAINT pk_stats_day PRIMARY KEY (bucket_start, app_name, uri)
+);
+
+CREATE TABLE IF NOT EXISTS stats_sketch_pending (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    granularity VARCHAR(16) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
     app_name VARCHAR(255) NOT NULL,
-    user_ip VARCHAR(15) NOT NULL,
-    created TIMESTAMP NOT NULL,
-    uri VARCHAR(255) NOT NULL
-);
\ No newline at end of file
+    uri VARCHAR(255) NOT NULL,
+    ip_sketch BYTEA NOT NULL
+);
+
+ALTER TABLE stats ADD COLUMN IF NOT EXISTS resource_id BIGINT;
+ALTER TABLE stats_minute ADD COLUMN IF NOT EXISTS resource_id BIGINT;
+ALTER TABLE stats_hour ADD COLUMN IF NOT EXISTS resource_id BIGINT;
+ALTER TABLE stats_day ADD COLUMN IF NOT EXISTS resource_id BIGINT;
+
+CREATE INDEX IF NOT EXISTS ix_stats_minute_uri_bucket ON stats_minute (uri, bucket_start);
+CREATE INDEX IF NOT EXISTS ix_stats_hour_uri_bucket ON stats_hour (uri, bucket_start);
+CREATE INDEX IF NOT EXISTS ix_stats_day_uri_bucket ON stats_day (uri, bucket_start);
+CREATE INDEX IF NOT EXISTS ix_stats_minute_resource_bucket ON stats_minute (resource_id, bucket_start);
+CREATE INDEX IF NOT EXISTS ix_stats_hour_resource_bucket ON stats_hour (resource_id, bucket_start);
+CREATE INDEX IF NOT EXISTS ix_stats_day_resource_bucket ON stats_day (resource_id, bucket_start);
+
+CREATE INDEX IF NOT EXISTS ix_stats_created_uri_app_ip ON stats (created, uri, app_name, user_ip);
+CREATE INDEX IF NOT EXISTS ix_stats_created_resource_ip ON stats (created, resource_id, user_ip);
@@ -0,0 +1,66 @@
+package ru.practicum.stats_server;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats_common.StatsCommonUtils;
+import ru.practicum.stats_common.model.EndpointHit;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EndpointHitValidationTest {
+    private static final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+    private final Validator validator = validatorFactory.getValidator();
+
+    @AfterAll
+    public static void afterAll() {
+        validatorFactory.close();
+    }
+
+    @Test
+    public void shouldAcceptTextTimestamp() {
+        assertTrue(validator.validate(hit("2020-05-05 10:00:00", null)).isEmpty());
+    }
+
+    @Test
+    public void shouldAcceptEpochMillisTimestamp() {
+        EndpointHit endpointHit = hit(null, StatsCommonUtils.toEpochMillis(LocalDateTime.of(2020, 5, 5, 10, 0, 0, 250_000_000)));
+
+        assertTrue(validator.validate(endpointHit).isEmpty());
+        assertEquals("2020-05-05 10:00:00", endpointHit.getTimestamp());
+    }
+
+    @Test
+    public void shouldRejectIfNoTimestamp() {
+        assertTimestampViolation(hit(null, null));
+    }
+
+    @Test
+    public void shouldRejectIfTextTimestampBlank() {
+        assertTimestampViolation(hit(" ", null));
+    }
+
+    private void assertTimestampViolation(EndpointHit endpointHit) {
+        Set<ConstraintViolation<EndpointHit>> violations = validator.validate(endpointHit);
+
+        assertEquals(1, violations.size());
+        assertEquals("timestamp", violations.iterator().next().getPropertyPath().toString());
+    }
+
+    private EndpointHit hit(String timestamp, Long timestampMillis) {
+        return EndpointHit.builder()
+                .app("test APP")
+                .uri("/test/uri/1")
+                .ip("127.0.0.1")
+                .timestamp(timestamp)
+                .timestampMillis(timestampMillis)
+                .build();
+    }
+}
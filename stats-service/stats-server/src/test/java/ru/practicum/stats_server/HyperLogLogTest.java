@@ -0,0 +1,78 @@
+package ru.practicum.stats_server;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats_server.sketch.HyperLogLog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HyperLogLogTest {
+    @Test
+    public void shouldEstimateSmallCardinalityExactly() {
+        HyperLogLog sketch = new HyperLogLog();
+
+        for (int i = 0; i < 10; i++) {
+            sketch.add("127.0.0." + i);
+            sketch.add("127.0.0." + i);
+        }
+
+        assertEquals(10, sketch.estimate());
+    }
+
+    @Test
+    public void shouldEstimateLargeCardinalityWithinError() {
+        HyperLogLog sketch = new HyperLogLog();
+        int distinct = 100_000;
+
+        for (int i = 0; i < distinct; i++) {
+            sketch.add("10." + (i >>> 16) + "." + ((i >>> 8) & 0xff) + "." + (i & 0xff));
+        }
+
+        assertTrue(Math.abs(sketch.estimate() - distinct) < distinct * 3 * HyperLogLog.STANDARD_ERROR);
+    }
+
+    @Test
+    public void shouldMergeAsUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+
+        for (int i = 0; i < 3000; i++) {
+            first.add("ip-" + i);
+            union.add("ip-" + i);
+        }
+        for (int i = 2000; i < 5000; i++) {
+            second.add("ip-" + i);
+            union.add("ip-" + i);
+        }
+
+        first.merge(second);
+
+        assertEquals(union.estimate(), first.estimate());
+    }
+
+    @Test
+    public void shouldRestoreFromSparseAndDenseBytes() {
+        HyperLogLog sparse = new HyperLogLog();
+        HyperLogLog dense = new HyperLogLog();
+
+        for (int i = 0; i < 20; i++) {
+            sparse.add("ip-" + i);
+        }
+        for (int i = 0; i < 20_000; i++) {
+            dense.add("ip-" + i);
+        }
+
+        assertTrue(sparse.toBytes().length < 100);
+        assertEquals(HyperLogLog.REGISTERS + 1, dense.toBytes().length);
+        assertEquals(sparse.estimate(), HyperLogLog.fromBytes(sparse.toBytes()).estimate());
+        assertEquals(dense.estimate(), HyperLogLog.fromBytes(dense.toBytes()).estimate());
+        assertEquals(0, HyperLogLog.fromBytes(new HyperLogLog().toBytes()).estimate());
+    }
+
+    @Test
+    public void shouldThrowIfBytesAreCorrupted() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[]{3, 1}));
+    }
+}
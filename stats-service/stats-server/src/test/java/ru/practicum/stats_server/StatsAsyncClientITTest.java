@@ -0,0 +1,81 @@
+package ru.practicum.stats_server;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.stats_client.StatsAsyncClient;
+import ru.practicum.stats_common.StatsCommonUtils;
+import ru.practicum.stats_common.model.EndpointHit;
+import ru.practicum.stats_common.model.ViewStats;
+import ru.practicum.stats_server.service.StatsService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(classes = {StatsAsyncClient.class, StatsServiceApp.class},
+        webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class StatsAsyncClientITTest {
+    private final StatsAsyncClient statsAsyncClient;
+    private final StatsService statsService;
+    private final EndpointHit endpointHit1 = EndpointHit.builder()
+            .app("main-service")
+            .uri("/events/1")
+            .ip("127.0.0.1")
+            .timestamp("2020-05-05 10:00:00")
+            .build();
+    private final EndpointHit endpointHit2 = EndpointHit.builder()
+            .app("main-service")
+            .uri("/events/2")
+            .ip("127.0.0.2")
+            .timestamp("2020-05-05 11:00:00")
+            .build();
+    private final LocalDateTime start = LocalDateTime.parse(endpointHit1.getTimestamp(), StatsCommonUtils.DT_FORMATTER);
+    private final LocalDateTime end = LocalDateTime.parse(endpointHit2.getTimestamp(), StatsCommonUtils.DT_FORMATTER);
+
+    @Test
+    public void shouldAddHitsAndGetEventViewsConcurrently() {
+        CompletableFuture.allOf(
+                statsAsyncClient.addHit(endpointHit1),
+                statsAsyncClient.addHits(List.of(endpointHit1, endpointHit2))
+        ).join();
+
+        CompletableFuture<Map<Long, Long>> views = statsAsyncClient.getEventViews(start, end, List.of(1L, 2L, 3L), null);
+        CompletableFuture<Map<Long, Long>> uniqueViews = statsAsyncClient.getEventViews(start, end, List.of(1L), true);
+
+        assertEquals(Map.of(1L, 2L, 2L, 1L), views.join());
+        assertEquals(Map.of(1L, 1L), uniqueViews.join());
+    }
+
+    @Test
+    public void shouldGetStats() {
+        statsService.addHits(List.of(endpointHit1, endpointHit2, endpointHit2));
+
+        List<ViewStats> stats = statsAsyncClient.getStats(start, end,
+                List.of(endpointHit1.getUri(), endpointHit2.getUri()), false).join();
+
+        assertEquals(2, stats.size());
+        assertEquals(endpointHit2.getUri(), stats.get(0).getUri());
+        assertEquals(2L, stats.get(0).getHits());
+        assertEquals(endpointHit1.getUri(), stats.get(1).getUri());
+        assertEquals(1L, stats.get(1).getHits());
+    }
+
+    @Test
+    public void shouldFailWithoutCallIfBadTimeRange() {
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> statsAsyncClient.getStats(end, start, null, false).join());
+
+        assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+    }
+}
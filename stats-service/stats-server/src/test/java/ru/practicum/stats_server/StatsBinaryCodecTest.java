@@ -0,0 +1,93 @@
+package ru.practicum.stats_server;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats_common.StatsBinaryCodec;
+import ru.practicum.stats_common.StatsCommonUtils;
+import ru.practicum.stats_common.model.EndpointHit;
+import ru.practicum.stats_common.model.ViewStats;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StatsBinaryCodecTest {
+    private final LocalDateTime timestamp = LocalDateTime.of(2020, 5, 5, 10, 0, 0, 250_000_000);
+    private final EndpointHit endpointHit = EndpointHit.builder()
+            .app("test APP")
+            .uri("/события/1")
+            .ip("127.0.0.1")
+            .timestampMillis(StatsCommonUtils.toEpochMillis(timestamp))
+            .build();
+
+    @Test
+    public void shouldWriteAndReadHits() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        StatsBinaryCodec.writeHits(List.of(endpointHit, endpointHit), out);
+
+        List<EndpointHit> endpointHits = StatsBinaryCodec.readHits(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(2, endpointHits.size());
+        assertEquals(timestamp.withNano(0), StatsCommonUtils.fromEpochMillis(endpointHits.get(0).getTimestampMillis()));
+        assertEquals("2020-05-05 10:00:00", endpointHits.get(0).getTimestamp());
+        assertEquals(endpointHits.get(0), endpointHits.get(1));
+    }
+
+    @Test
+    public void shouldTruncateTimestampToSecondsLikeText() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        StatsBinaryCodec.writeHit(endpointHit, out);
+
+        EndpointHit read = StatsBinaryCodec.readHit(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(StatsCommonUtils.toEpochMillis(LocalDateTime.parse(endpointHit.getTimestamp(),
+                StatsCommonUtils.DT_FORMATTER)), read.getTimestampMillis());
+    }
+
+    @Test
+    public void shouldWriteTextTimestampAsEpochMillis() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        StatsBinaryCodec.writeHit(EndpointHit.builder()
+                .app("test APP")
+                .uri("/test/uri/1")
+                .ip("127.0.0.1")
+                .timestamp("2020-05-05 10:00:00")
+                .build(), out);
+
+        EndpointHit read = StatsBinaryCodec.readHit(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(StatsCommonUtils.toEpochMillis(LocalDateTime.of(2020, 5, 5, 10, 0)), read.getTimestampMillis());
+        assertEquals("2020-05-05 10:00:00", read.getTimestamp());
+    }
+
+    @Test
+    public void shouldWriteAndReadViewStatsAndViews() throws IOException {
+        List<ViewStats> stats = List.of(new ViewStats("test APP", "/test/uri/1", 7L), new ViewStats(null, "/", 0L));
+        ByteArrayOutputStream statsOut = new ByteArrayOutputStream();
+        ByteArrayOutputStream viewsOut = new ByteArrayOutputStream();
+
+        StatsBinaryCodec.writeViewStats(stats, statsOut);
+        StatsBinaryCodec.writeViews(Map.of(1L, 5L, 2L, 0L), viewsOut);
+
+        assertEquals(stats, StatsBinaryCodec.readViewStats(new ByteArrayInputStream(statsOut.toByteArray())));
+        assertEquals(Map.of(1L, 5L, 2L, 0L), StatsBinaryCodec.readViews(new ByteArrayInputStream(viewsOut.toByteArray())));
+    }
+
+    @Test
+    public void shouldThrowExceptionIfVersionNotSupported() {
+        assertThrows(IOException.class, () -> StatsBinaryCodec.readHits(new ByteArrayInputStream(new byte[]{2, 0, 0, 0, 0})));
+    }
+
+    @Test
+    public void shouldThrowExceptionIfCountNegative() {
+        assertThrows(IOException.class, () -> StatsBinaryCodec.readViews(new ByteArrayInputStream(new byte[]{1, -1, -1, -1, -1})));
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.stats_server;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats_client.StatsCircuitBreaker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StatsCircuitBreakerTest {
+    private final AtomicLong now = new AtomicLong();
+    private final StatsCircuitBreaker circuitBreaker = new StatsCircuitBreaker(50, 4, 1000, 2, now::get);
+
+    @Test
+    public void shouldOpenIfFailureRateReached() {
+        complete(true, true, false);
+
+        assertEquals(StatsCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        complete(false);
+
+        assertEquals(StatsCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void shouldStayClosedIfOldFailuresLeftWindow() {
+        complete(false, true, true, true, true, false, true);
+
+        assertEquals(StatsCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void shouldCloseAfterSuccessfulTrialCalls() {
+        complete(false, false, false, false);
+        now.addAndGet(1000);
+
+        assertTrue(circuitBreaker.tryAcquire());
+        assertTrue(circuitBreaker.tryAcquire());
+        assertFalse(circuitBreaker.tryAcquire());
+        assertEquals(StatsCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        circuitBreaker.onComplete(true);
+        circuitBreaker.onComplete(true);
+
+        assertEquals(StatsCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        complete(true, true, true, false);
+
+        assertEquals(StatsCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void shouldReopenIfTrialCallFailed() {
+        complete(false, false, false, false);
+        now.addAndGet(1000);
+
+        assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.onComplete(false);
+
+        assertEquals(StatsCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+
+        now.addAndGet(999);
+
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void shouldThrowIfParametersInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new StatsCircuitBreaker(0, 4, 1000, 2, now::get));
+        assertThrows(IllegalArgumentException.class, () -> new StatsCircuitBreaker(101, 4, 1000, 2, now::get));
+        assertThrows(IllegalArgumentException.class, () -> new StatsCircuitBreaker(50, 0, 1000, 2, now::get));
+    }
+
+    private void complete(boolean... outcomes) {
+        for (boolean success : outcomes) {
+            assertTrue(circuitBreaker.tryAcquire());
+            circuitBreaker.onComplete(success);
+        }
+    }
+}
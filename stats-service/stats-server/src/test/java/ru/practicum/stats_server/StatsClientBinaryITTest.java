@@ -0,0 +1,64 @@
+package ru.practicum.stats_server;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.stats_client.StatsClient;
+import ru.practicum.stats_common.StatsCommonUtils;
+import ru.practicum.stats_common.model.EndpointHit;
+import ru.practicum.stats_common.model.ViewStats;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(classes = {StatsClient.class, StatsServiceApp.class}, webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT,
+        properties = "stats-server.client.binary=true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class StatsClientBinaryITTest {
+    private final StatsClient statsClient;
+    private final LocalDateTime start = LocalDateTime.of(2020, 5, 5, 10, 0);
+    private final LocalDateTime end = LocalDateTime.of(2020, 5, 5, 11, 0);
+
+    @Test
+    public void shouldAddHitsAndGetStats() {
+        statsClient.addHits(List.of(
+                createHit("/events/1", "127.0.0.1", start.plusSeconds(1)),
+                createHit("/events/1", "127.0.0.2", start.plusMinutes(30)),
+                createHit("/events/1", "127.0.0.2", start.plusMinutes(40)),
+                createHit("/events/2", "127.0.0.1", end)));
+        statsClient.addHit("main-service", "/events/2", "127.0.0.1", end.minusNanos(1_000_000));
+
+        assertEquals(List.of(new ViewStats("main-service", "/events/1", 3L),
+                        new ViewStats("main-service", "/events/2", 2L)),
+                statsClient.getStats(start, end, List.of("/events/1", "/events/2"), false));
+        assertEquals(List.of(new ViewStats("main-service", "/events/1", 2L),
+                        new ViewStats("main-service", "/events/2", 1L)),
+                statsClient.getStats(start, end, List.of("/events/1", "/events/2"), true));
+    }
+
+    @Test
+    public void shouldGetEventViews() {
+        statsClient.addHits(List.of(
+                createHit("/events/1", "127.0.0.1", start),
+                createHit("/events/1", "127.0.0.1", start),
+                createHit("/events/3", "127.0.0.1", end.plusMinutes(1))));
+
+        assertEquals(Map.of(1L, 2L), statsClient.getEventViews(start, end, List.of(1L, 2L, 3L), null));
+        assertEquals(Map.of(), statsClient.getEventViews(start, end, List.of(), null));
+    }
+
+    private EndpointHit createHit(String uri, String ip, LocalDateTime timestamp) {
+        return EndpointHit.builder()
+                .app("main-service")
+                .uri(uri)
+                .ip(ip)
+                .timestampMillis(StatsCommonUtils.toEpochMillis(timestamp))
+                .build();
+    }
+}
@@ -1,11 +1,9 @@
 package ru.practicum.stats_server;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.stats_client.StatsClient;
 import ru.practicum.stats_common.StatsCommonUtils;
@@ -13,13 +11,16 @@ import ru.practicum.stats_common.model.EndpointHit;
 import ru.practicum.stats_common.model.ViewStats;
 import ru.practicum.stats_server.service.StatsService;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest(classes = {StatsClient.class, StatsServiceApp.class}, webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
@@ -27,7 +28,6 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 public class StatsClientITTest {
     private final StatsClient statsClient;
     private final StatsService statsService;
-    private final ObjectMapper mapper = new ObjectMapper();
     private final EndpointHit endpointHit1 = EndpointHit.builder()
             .app("test APP")
             .uri("/test/uri/1 %01$&#@!8*7?/8")
@@ -50,6 +50,7 @@ public class StatsClientITTest {
                 LocalDateTime.parse(endpointHit1.getTimestamp(), StatsCommonUtils.DT_FORMATTER),
                 LocalDateTime.parse(endpointHit1.getTimestamp(), StatsCommonUtils.DT_FORMATTER),
                 List.of(endpointHit1.getUri()),
+                false,
                 false
         );
 
@@ -62,36 +63,102 @@ public class StatsClientITTest {
         assertEquals(1L, viewStats1.getHits());
     }
 
+    @Test
+    public void shouldAddHitsInBatch() {
+        statsClient.addHits(List.of(endpointHit1, endpointHit2, endpointHit2));
+
+        List<ViewStats> stats = statsService.getStats(
+                LocalDateTime.parse(endpointHit1.getTimestamp(), StatsCommonUtils.DT_FORMATTER),
+                LocalDateTime.parse(endpointHit2.getTimestamp(), StatsCommonUtils.DT_FORMATTER),
+                null,
+                false,
+                false
+        );
+
+        assertEquals(2, stats.size());
+        assertEquals(endpointHit2.getUri(), stats.get(0).getUri());
+        assertEquals(2L, stats.get(0).getHits());
+        assertEquals(endpointHit1.getUri(), stats.get(1).getUri());
+        assertEquals(1L, stats.get(1).getHits());
+    }
+
     @Test
     public void shouldGetStats() {
         statsService.addHit(endpointHit1);
         statsService.addHit(endpointHit2);
         statsService.addHit(endpointHit2);
 
-        ResponseEntity<Object> response = statsClient.getStats(
+        List<ViewStats> stats = statsClient.getStats(
                 LocalDateTime.parse(endpointHit1.getTimestamp(), StatsCommonUtils.DT_FORMATTER),
                 LocalDateTime.parse(endpointHit2.getTimestamp(), StatsCommonUtils.DT_FORMATTER)
         );
-        try {
-            List<ViewStats> stats = Arrays.asList(mapper.readValue(
-                    mapper.writeValueAsString(response.getBody()), ViewStats[].class));
 
-            assertNotNull(stats);
-            assertEquals(2, stats.size());
+        assertNotNull(stats);
+        assertEquals(2, stats.size());
+
+        ViewStats viewStats1 = stats.get(0);
+        ViewStats viewStats2 = stats.get(1);
 
-            ViewStats viewStats1 = stats.get(0);
-            ViewStats viewStats2 = stats.get(1);
+        assertEquals(endpointHit2.getApp(), viewStats1.getApp());
+        assertEquals(endpointHit2.getUri(), viewStats1.getUri());
+        assertEquals(2, viewStats1.getHits());
 
-            assertEquals(endpointHit2.getApp(), viewStats1.getApp());
-            assertEquals(endpointHit2.getUri(), viewStats1.getUri());
-            assertEquals(2, viewStats1.getHits());
+        assertEquals(endpointHit1.getApp(), viewStats2.getApp());
+        assertEquals(endpointHit1.getUri(), viewStats2.getUri());
+        assertEquals(1, viewStats2.getHits());
+    }
 
-            assertEquals(endpointHit1.getApp(), viewStats2.getApp());
-            assertEquals(endpointHit1.getUri(), viewStats2.getUri());
-            assertEquals(1, viewStats2.getHits());
-        } catch (IOException exception) {
-            throw new ClassCastException(exception.getMessage());
+    @Test
+    public void shouldGetStatsByPostForManyUris() {
+        List<String> uris = new ArrayList<>();
+        List<EndpointHit> endpointHits = new ArrayList<>();
+
+        for (int i = 1; i <= 200; i++) {
+            uris.add("/events/" + i);
+            for (int j = 0; j < i % 3; j++) {
+                endpointHits.add(EndpointHit.builder()
+                        .app(endpointHit2.getApp())
+                        .uri("/events/" + i)
+                        .ip(endpointHit2.getIp())
+                        .timestamp(endpointHit2.getTimestamp())
+                        .build());
+            }
         }
+        statsService.addHits(endpointHits);
+        statsService.addHit(endpointHit2);
+
+        LocalDateTime start = LocalDateTime.parse(endpointHit1.getTimestamp(), StatsCommonUtils.DT_FORMATTER);
+        LocalDateTime end = LocalDateTime.parse(endpointHit2.getTimestamp(), StatsCommonUtils.DT_FORMATTER);
+
+        List<ViewStats> stats = statsClient.getStats(start, end, uris, false);
+        List<ViewStats> mixedStats = statsClient.getStats(start, end,
+                Stream.concat(Stream.of(endpointHit2.getUri()), uris.stream()).collect(Collectors.toList()), false);
+
+        assertEquals(134, stats.size());
+        assertEquals(endpointHits.size(), stats.stream().mapToLong(ViewStats::getHits).sum());
+        assertTrue(stats.stream().allMatch(viewStats ->
+                viewStats.getHits() == Long.parseLong(viewStats.getUri().substring("/events/".length())) % 3));
+        assertEquals(135, mixedStats.size());
     }
-}
 
+    @Test
+    public void shouldGetEventViews() {
+        statsClient.addHits(List.of(
+                EndpointHit.builder().app("main-service").uri("/events/1").ip("127.0.0.1")
+                        .timestamp(endpointHit1.getTimestamp()).build(),
+                EndpointHit.builder().app("main-service").uri("/events/1").ip("127.0.0.2")
+                        .timestamp(endpointHit1.getTimestamp()).build(),
+                EndpointHit.builder().app("main-service").uri("/events/1").ip("127.0.0.2")
+                        .timestamp(endpointHit1.getTimestamp()).build(),
+                EndpointHit.builder().app("main-service").uri("/events/2").ip("127.0.0.1")
+                        .timestamp(endpointHit2.getTimestamp()).build(),
+                endpointHit2));
+
+        LocalDateTime start = LocalDateTime.parse(endpointHit1.getTimestamp(), StatsCommonUtils.DT_FORMATTER);
+        LocalDateTime end = LocalDateTime.parse(endpointHit2.getTimestamp(), StatsCommonUtils.DT_FORMATTER);
+
+        assertEquals(Map.of(1L, 3L, 2L, 1L), statsClient.getEventViews(start, end, List.of(1L, 2L, 3L), null));
+        assertEquals(Map.of(1L, 2L), statsClient.getEventViews(start, end, List.of(1L), true));
+        assertEquals(Map.of(), statsClient.getEventViews(start, end, List.of(), null));
+    }
+}
@@ -0,0 +1,126 @@
+package ru.practicum.stats_server;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import ru.practicum.stats_client.StatsCircuitBreaker;
+import ru.practicum.stats_client.StatsClient;
+import ru.practicum.stats_client.StatsUnavailableException;
+import ru.practicum.stats_common.model.EndpointHit;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StatsClientResilienceTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LocalDateTime end = LocalDateTime.of(2030, 1, 1, 0, 0, 0);
+    private StatsClient statsClient;
+
+    @AfterEach
+    public void afterEach() {
+        if (statsClient != null) {
+            statsClient.close();
+        }
+    }
+
+    @Test
+    public void shouldShortCircuitIfServerUnavailable() throws IOException {
+        statsClient = createClient(getClosedPort(), 1000, 2);
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(ResourceAccessException.class, this::getEventViews);
+        }
+
+        assertEquals(StatsCircuitBreaker.State.OPEN, statsClient.getCircuitState());
+        assertThrows(StatsUnavailableException.class, this::getEventViews);
+        assertEquals(1.0, meterRegistry.get("stats.client.calls.rejected").tag("reason", "circuit_open").counter()
+                .count());
+        assertEquals(1.0, meterRegistry.get("stats.client.circuit.state").tag("state", "open").gauge().value());
+        assertEquals(0.0, meterRegistry.get("stats.client.circuit.state").tag("state", "closed").gauge().value());
+    }
+
+    @Test
+    public void shouldRejectIfBulkheadFull() throws Exception {
+        try (ServerSocket silentServer = new ServerSocket(0)) {
+            statsClient = createClient(silentServer.getLocalPort(), 2000, 1);
+
+            CompletableFuture<Void> slowCall = CompletableFuture.runAsync(this::getEventViews);
+
+            while (meterRegistry.get("stats.client.bulkhead.available").gauge().value() > 0) {
+                Thread.onSpinWait();
+            }
+
+            assertThrows(StatsUnavailableException.class, this::getEventViews);
+            assertEquals(1.0, meterRegistry.get("stats.client.calls.rejected").tag("reason", "bulkhead_full").counter()
+                    .count());
+
+            assertThrows(Exception.class, slowCall::join);
+        }
+    }
+
+    @Test
+    public void shouldRaiseOnErrorStatus() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/hit/batch", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(400, -1);
+            exchange.close();
+        });
+        server.createContext("/hit", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            statsClient = createClient(server.getAddress().getPort(), 1000, 2);
+            EndpointHit endpointHit = EndpointHit.builder()
+                    .app("main-service")
+                    .uri("/events/1")
+                    .ip("127.0.0.1")
+                    .timestamp("2030-01-01 00:00:00")
+                    .build();
+
+            RestClientResponseException clientError = assertThrows(RestClientResponseException.class,
+                    () -> statsClient.addHits(List.of(endpointHit)));
+            RestClientResponseException serverError = assertThrows(RestClientResponseException.class,
+                    () -> statsClient.addHit(endpointHit));
+
+            assertEquals(400, clientError.getRawStatusCode());
+            assertEquals(500, serverError.getRawStatusCode());
+            assertEquals(1.0, meterRegistry.get("stats.client.calls.failed").tag("status", "4xx").counter().count());
+            assertEquals(1.0, meterRegistry.get("stats.client.calls.failed").tag("status", "5xx").counter().count());
+            assertEquals(StatsCircuitBreaker.State.CLOSED, statsClient.getCircuitState());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private void getEventViews() {
+        statsClient.getEventViews(end.minusDays(1), end, List.of(1L), null);
+    }
+
+    private StatsClient createClient(int port, int readTimeoutMs, int maxConcurrentCalls) {
+        return new StatsClient("http://localhost:" + port, 50, 500, readTimeoutMs, maxConcurrentCalls,
+                50, 4, 60_000, 1, false, new RestTemplateBuilder(), meterRegistry);
+    }
+
+    private int getClosedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
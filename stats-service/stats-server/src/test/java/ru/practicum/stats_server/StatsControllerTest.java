@@ -11,19 +11,29 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.stats_common.StatsBinaryCodec;
 import ru.practicum.stats_common.StatsCommonUtils;
 import ru.practicum.stats_common.model.EndpointHit;
+import ru.practicum.stats_common.model.StatsQuery;
+import ru.practicum.stats_common.model.ViewStats;
 import ru.practicum.stats_server.controller.StatsController;
 import ru.practicum.stats_server.service.StatsService;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = StatsController.class)
@@ -65,6 +75,25 @@ public class StatsControllerTest {
             verify(statsService, times(1)).addHit(ArgumentMatchers.eq(endpointHit));
         }
 
+        @Test
+        public void shouldAddIfTimestampIsEpochMillis() throws Exception {
+            EndpointHit sent = EndpointHit.builder()
+                    .app("test APP")
+                    .uri("/test/uri/1")
+                    .ip("127.0.0.1")
+                    .timestampMillis(1_577_872_800_250L)
+                    .build();
+
+            mvc.perform(post(StatsCommonUtils.HIT_ENDPOINT)
+                            .content(mapper.writeValueAsString(sent))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isCreated());
+
+            verify(statsService, times(1)).addHit(ArgumentMatchers.eq(endpointHit));
+        }
+
         @Test
         public void shouldThrowExceptionIfAppIsNull() throws Exception {
             endpointHit.setApp(null);
@@ -234,6 +263,62 @@ public class StatsControllerTest {
         }
     }
 
+    @Nested
+    class AddHits {
+        @BeforeEach
+        public void beforeEach() {
+            endpointHit = EndpointHit.builder()
+                    .app("test APP")
+                    .uri("/test/uri/1")
+                    .ip("127.0.0.1")
+                    .timestamp("2020-01-01 10:00:00")
+                    .build();
+        }
+
+        @Test
+        public void shouldAdd() throws Exception {
+            mvc.perform(post(StatsCommonUtils.HIT_BATCH_ENDPOINT)
+                            .content(mapper.writeValueAsString(List.of(endpointHit, endpointHit)))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isCreated());
+
+            verify(statsService, times(1)).addHits(ArgumentMatchers.eq(List.of(endpointHit, endpointHit)));
+        }
+
+        @Test
+        public void shouldThrowExceptionIfOneHitNotValid() throws Exception {
+            EndpointHit notValidHit = EndpointHit.builder()
+                    .app("test APP")
+                    .uri(" ")
+                    .ip("127.0.0.1")
+                    .timestamp("2020-01-01 10:00:00")
+                    .build();
+
+            mvc.perform(post(StatsCommonUtils.HIT_BATCH_ENDPOINT)
+                            .content(mapper.writeValueAsString(List.of(endpointHit, notValidHit)))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+
+            verify(statsService, never()).addHits(ArgumentMatchers.any());
+        }
+
+        @Test
+        public void shouldThrowExceptionIfBodyIsNotArray() throws Exception {
+            mvc.perform(post(StatsCommonUtils.HIT_BATCH_ENDPOINT)
+                            .content(mapper.writeValueAsString(endpointHit))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+
+            verify(statsService, never()).addHits(ArgumentMatchers.any());
+        }
+    }
+
     @Nested
     class GetStats {
         @BeforeEach
@@ -254,7 +339,20 @@ public class StatsControllerTest {
                     .andExpect(status().isOk());
 
             verify(statsService, times(1)).getStats(ArgumentMatchers.any(), ArgumentMatchers.any(),
-                    ArgumentMatchers.eq(uris), ArgumentMatchers.eq(unique));
+                    ArgumentMatchers.eq(uris), ArgumentMatchers.eq(unique), ArgumentMatchers.eq(false));
+        }
+
+        @Test
+        public void shouldGetApproximate() throws Exception {
+            mvc.perform(get(StatsCommonUtils.STATS_ENDPOINT + "?start={start}&end={end}&unique={unique}&approximate=true",
+                            start, end, unique)
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk());
+
+            verify(statsService, times(1)).getStats(ArgumentMatchers.any(), ArgumentMatchers.any(),
+                    ArgumentMatchers.eq(null), ArgumentMatchers.eq(unique), ArgumentMatchers.eq(true));
         }
 
         @Test
@@ -267,7 +365,7 @@ public class StatsControllerTest {
                     .andExpect(status().isOk());
 
             verify(statsService, times(1)).getStats(ArgumentMatchers.any(), ArgumentMatchers.any(),
-                    ArgumentMatchers.eq(uris), ArgumentMatchers.eq(false));
+                    ArgumentMatchers.eq(uris), ArgumentMatchers.eq(false), ArgumentMatchers.eq(false));
         }
 
         @Test
@@ -280,7 +378,7 @@ public class StatsControllerTest {
                     .andExpect(status().isOk());
 
             verify(statsService, times(1)).getStats(ArgumentMatchers.any(), ArgumentMatchers.any(),
-                    ArgumentMatchers.eq(null), ArgumentMatchers.eq(unique));
+                    ArgumentMatchers.eq(null), ArgumentMatchers.eq(unique), ArgumentMatchers.eq(false));
         }
 
         @Test
@@ -293,7 +391,7 @@ public class StatsControllerTest {
                     .andExpect(status().isOk());
 
             verify(statsService, times(1)).getStats(ArgumentMatchers.any(), ArgumentMatchers.any(),
-                    ArgumentMatchers.eq(null), ArgumentMatchers.eq(false));
+                    ArgumentMatchers.eq(null), ArgumentMatchers.eq(false), ArgumentMatchers.eq(false));
         }
 
         @Test
@@ -308,7 +406,7 @@ public class StatsControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(statsService, never()).getStats(ArgumentMatchers.any(), ArgumentMatchers.any(),
-                    ArgumentMatchers.any(), ArgumentMatchers.any());
+                    ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
         }
 
         @Test
@@ -323,7 +421,7 @@ public class StatsControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(statsService, never()).getStats(ArgumentMatchers.any(), ArgumentMatchers.any(),
-                    ArgumentMatchers.any(), ArgumentMatchers.any());
+                    ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
         }
 
         @Test
@@ -338,7 +436,268 @@ public class StatsControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(statsService, never()).getStats(ArgumentMatchers.any(), ArgumentMatchers.any(),
+                    ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        }
+    }
+
+    @Nested
+    class GetStatsByQuery {
+        private StatsQuery query;
+
+        @BeforeEach
+        public void beforeEach() {
+            query = StatsQuery.builder()
+                    .start("2020-01-01 00:00:00")
+                    .end("2035-01-01 00:00:00")
+                    .uris(List.of("/test/uri/1"))
+                    .unique(true)
+                    .build();
+        }
+
+        @Test
+        public void shouldGetByUris() throws Exception {
+            mvc.perform(post(StatsCommonUtils.STATS_QUERY_ENDPOINT)
+                            .content(mapper.writeValueAsString(query))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk());
+
+            verify(statsService, times(1)).getStats(ArgumentMatchers.any(), ArgumentMatchers.any(),
+                    ArgumentMatchers.eq(List.of("/test/uri/1")), ArgumentMatchers.eq(true), ArgumentMatchers.eq(false));
+        }
+
+        @Test
+        public void shouldGetByIds() throws Exception {
+            query.setUriPrefix("/events/");
+            query.setIds(List.of(1L, 2L));
+            query.setUnique(null);
+
+            mvc.perform(post(StatsCommonUtils.STATS_QUERY_ENDPOINT)
+                            .content(mapper.writeValueAsString(query))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk());
+
+            verify(statsService, times(1)).getStats(ArgumentMatchers.any(), ArgumentMatchers.any(),
+                    ArgumentMatchers.eq(List.of("/test/uri/1", "/events/1", "/events/2")), ArgumentMatchers.eq(false),
+                    ArgumentMatchers.eq(false));
+        }
+
+        @Test
+        public void shouldThrowExceptionIfIdsWithoutPrefix() throws Exception {
+            query.setIds(List.of(1L, 2L));
+
+            mvc.perform(post(StatsCommonUtils.STATS_QUERY_ENDPOINT)
+                            .content(mapper.writeValueAsString(query))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+
+            verify(statsService, never()).getStats(ArgumentMatchers.any(), ArgumentMatchers.any(),
+                    ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        }
+
+        @Test
+        public void shouldThrowExceptionIfStartNotValid() throws Exception {
+            query.setStart("2020-01-01T00:00:00");
+
+            mvc.perform(post(StatsCommonUtils.STATS_QUERY_ENDPOINT)
+                            .content(mapper.writeValueAsString(query))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+
+            verify(statsService, never()).getStats(ArgumentMatchers.any(), ArgumentMatchers.any(),
+                    ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        }
+
+        @Test
+        public void shouldThrowExceptionIfStartAfterEnd() throws Exception {
+            query.setEnd("2005-01-01 00:00:00");
+
+            mvc.perform(post(StatsCommonUtils.STATS_QUERY_ENDPOINT)
+                            .content(mapper.writeValueAsString(query))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+
+            verify(statsService, never()).getStats(ArgumentMatchers.any(), ArgumentMatchers.any(),
+                    ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        }
+    }
+
+    @Nested
+    class GetEventHits {
+        private StatsQuery query;
+
+        @BeforeEach
+        public void beforeEach() {
+            query = StatsQuery.builder()
+                    .start("2020-01-01 00:00:00")
+                    .end("2035-01-01 00:00:00")
+                    .ids(List.of(1L, 2L))
+                    .build();
+        }
+
+        @Test
+        public void shouldGet() throws Exception {
+            when(statsService.getHitsByResource(ArgumentMatchers.any(), ArgumentMatchers.any(),
+                    ArgumentMatchers.eq(List.of(1L, 2L)), ArgumentMatchers.eq(false))).thenReturn(Map.of(1L, 5L));
+
+            mvc.perform(post(StatsCommonUtils.STATS_EVENTS_ENDPOINT)
+                            .content(mapper.writeValueAsString(query))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(content().json("{\"1\": 5}", true));
+        }
+
+        @Test
+        public void shouldThrowExceptionIfIdsIsNull() throws Exception {
+            query.setIds(null);
+
+            mvc.perform(post(StatsCommonUtils.STATS_EVENTS_ENDPOINT)
+                            .content(mapper.writeValueAsString(query))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+
+            verify(statsService, never()).getHitsByResource(ArgumentMatchers.any(), ArgumentMatchers.any(),
                     ArgumentMatchers.any(), ArgumentMatchers.any());
         }
     }
+
+    @Nested
+    class BinaryFormat {
+        @BeforeEach
+        public void beforeEach() {
+            endpointHit = EndpointHit.builder()
+                    .app("test APP")
+                    .uri("/test/uri/1")
+                    .ip("127.0.0.1")
+                    .timestampMillis(1_577_872_800_000L)
+                    .build();
+        }
+
+        @Test
+        public void shouldAddHits() throws Exception {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            StatsBinaryCodec.writeHits(List.of(endpointHit, endpointHit), body);
+
+            mvc.perform(post(StatsCommonUtils.HIT_BATCH_ENDPOINT)
+                            .content(body.toByteArray())
+                            .contentType(StatsBinaryCodec.MEDIA_TYPE)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isCreated());
+
+            verify(statsService, times(1)).addHits(ArgumentMatchers.eq(List.of(endpointHit, endpointHit)));
+        }
+
+        @Test
+        public void shouldTruncateTimestampToSeconds() throws Exception {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            StatsBinaryCodec.writeHit(EndpointHit.builder()
+                    .app("test APP")
+                    .uri("/test/uri/1")
+                    .ip("127.0.0.1")
+                    .timestampMillis(1_577_872_800_250L)
+                    .build(), body);
+
+            mvc.perform(post(StatsCommonUtils.HIT_ENDPOINT)
+                            .content(body.toByteArray())
+                            .contentType(StatsBinaryCodec.MEDIA_TYPE)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isCreated());
+
+            verify(statsService, times(1)).addHit(ArgumentMatchers.eq(endpointHit));
+        }
+
+        @Test
+        public void shouldThrowExceptionIfHitNotValid() throws Exception {
+            endpointHit.setIp(" ");
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            StatsBinaryCodec.writeHit(endpointHit, body);
+
+            mvc.perform(post(StatsCommonUtils.HIT_ENDPOINT)
+                            .content(body.toByteArray())
+                            .contentType(StatsBinaryCodec.MEDIA_TYPE)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+
+            verify(statsService, never()).addHit(ArgumentMatchers.any());
+        }
+
+        @Test
+        public void shouldThrowExceptionIfBodyIsTruncated() throws Exception {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            StatsBinaryCodec.writeHits(List.of(endpointHit), body);
+
+            mvc.perform(post(StatsCommonUtils.HIT_BATCH_ENDPOINT)
+                            .content(Arrays.copyOf(body.toByteArray(), body.size() - 1))
+                            .contentType(StatsBinaryCodec.MEDIA_TYPE)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+
+            verify(statsService, never()).addHits(ArgumentMatchers.any());
+        }
+
+        @Test
+        public void shouldGetStatsIfAccepted() throws Exception {
+            List<ViewStats> stats = List.of(new ViewStats("test APP", "/test/uri/1", 3L));
+
+            when(statsService.getStats(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(),
+                    ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(stats);
+
+            byte[] body = mvc.perform(get(StatsCommonUtils.STATS_ENDPOINT + "?start={start}&end={end}",
+                            "2020-01-01 00:00:00", "2035-01-01 00:00:00")
+                            .accept(StatsBinaryCodec.MEDIA_TYPE + ", " + MediaType.APPLICATION_JSON_VALUE))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(StatsBinaryCodec.MEDIA_TYPE))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            assertEquals(stats, StatsBinaryCodec.readViewStats(new ByteArrayInputStream(body)));
+        }
+
+        @Test
+        public void shouldGetJsonByDefault() throws Exception {
+            when(statsService.getStats(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(),
+                    ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(List.of());
+
+            mvc.perform(get(StatsCommonUtils.STATS_ENDPOINT + "?start={start}&end={end}",
+                            "2020-01-01 00:00:00", "2035-01-01 00:00:00")
+                            .accept(MediaType.ALL))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(content().json("[]", true));
+        }
+
+        @Test
+        public void shouldGetEventHitsIfAccepted() throws Exception {
+            StatsQuery query = StatsQuery.builder()
+                    .start("2020-01-01 00:00:00")
+                    .end("2035-01-01 00:00:00")
+                    .ids(List.of(1L, 2L))
+                    .build();
+
+            when(statsService.getHitsByResource(ArgumentMatchers.any(), ArgumentMatchers.any(),
+                    ArgumentMatchers.eq(List.of(1L, 2L)), ArgumentMatchers.eq(false))).thenReturn(Map.of(1L, 5L));
+
+            byte[] body = mvc.perform(post(StatsCommonUtils.STATS_EVENTS_ENDPOINT)
+                            .content(mapper.writeValueAsString(query))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(StatsBinaryCodec.MEDIA_TYPE))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            assertEquals(Map.of(1L, 5L), StatsBinaryCodec.readViews(new ByteArrayInputStream(body)));
+        }
+    }
 }
@@ -0,0 +1,139 @@
+package ru.practicum.stats_server;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.stats_server.enums.PartitionRetentionAction;
+import ru.practicum.stats_server.service.StatsPartitionManager;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StatsPartitionManagerTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDate today = LocalDate.now();
+
+    @Nested
+    class MaintainPartitions {
+        @Test
+        public void shouldCreateDefaultAndFuturePartitions() {
+            when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(true);
+            when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(partition(today)));
+
+            new StatsPartitionManager(jdbcTemplate, 2, 0, PartitionRetentionAction.DROP).maintainPartitions();
+
+            verify(jdbcTemplate, times(1))
+                    .execute("CREATE TABLE IF NOT EXISTS stats_default PARTITION OF stats DEFAULT");
+            verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE IF NOT EXISTS " + partition(today)));
+            verify(jdbcTemplate, times(1)).execute("CREATE TABLE IF NOT EXISTS " + partition(today.plusDays(1)) +
+                    " PARTITION OF stats FOR VALUES FROM ('" + today.plusDays(1) + "') TO ('" + today.plusDays(2) + "')");
+            verify(jdbcTemplate, times(1)).execute(startsWith("CREATE TABLE IF NOT EXISTS " + partition(today.plusDays(2))));
+            verify(jdbcTemplate, never()).execute(startsWith("DROP"));
+            verify(jdbcTemplate, never()).update(anyString());
+        }
+
+        @Test
+        public void shouldDetachExpiredPartitions() {
+            when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(true);
+            when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                    "stats_default", partition(today.minusDays(31)), partition(today.minusDays(30)), partition(today)));
+
+            new StatsPartitionManager(jdbcTemplate, 0, 30, PartitionRetentionAction.DETACH).maintainPartitions();
+
+            verify(jdbcTemplate, times(1)).execute("ALTER TABLE stats DETACH PARTITION " + partition(today.minusDays(31)));
+            verify(jdbcTemplate, never()).execute("ALTER TABLE stats DETACH PARTITION " + partition(today.minusDays(30)));
+            verify(jdbcTemplate, never()).execute("ALTER TABLE stats DETACH PARTITION stats_default");
+            verify(jdbcTemplate, never()).execute(startsWith("CREATE"));
+        }
+
+        @Test
+        public void shouldDropExpiredPartitions() {
+            when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(true);
+            when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                    "stats_default", partition(today.minusDays(400)), partition(today)));
+
+            new StatsPartitionManager(jdbcTemplate, 0, 365, PartitionRetentionAction.DROP).maintainPartitions();
+
+            verify(jdbcTemplate, times(1)).execute("DROP TABLE IF EXISTS " + partition(today.minusDays(400)));
+        }
+
+        @Test
+        public void shouldRemoveExpiredRowsAfterPartitions() {
+            when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(true);
+            when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                    "stats_default", partition(today.minusDays(31)), partition(today.minusDays(32)), partition(today)));
+
+            new StatsPartitionManager(jdbcTemplate, 0, 30, PartitionRetentionAction.DROP).maintainPartitions();
+
+            LocalDate firstRetainedDay = today.minusDays(30);
+            InOrder inOrder = inOrder(jdbcTemplate);
+
+            inOrder.verify(jdbcTemplate).queryForObject(anyString(), eq(Boolean.class));
+            inOrder.verify(jdbcTemplate).queryForList(anyString(), eq(String.class));
+            inOrder.verify(jdbcTemplate).execute("DROP TABLE IF EXISTS " + partition(today.minusDays(32)));
+            inOrder.verify(jdbcTemplate).execute("DROP TABLE IF EXISTS " + partition(today.minusDays(31)));
+            inOrder.verify(jdbcTemplate)
+                    .update("DELETE FROM stats_default WHERE created < '" + firstRetainedDay + "'");
+            inOrder.verify(jdbcTemplate)
+                    .update("DELETE FROM stats_day WHERE bucket_start < '" + firstRetainedDay + "'");
+            inOrder.verify(jdbcTemplate)
+                    .update("DELETE FROM stats_hour WHERE bucket_start < '" + firstRetainedDay + "'");
+            inOrder.verify(jdbcTemplate)
+                    .update("DELETE FROM stats_minute WHERE bucket_start < '" + firstRetainedDay + "'");
+            verifyNoMoreInteractions(jdbcTemplate);
+        }
+
+        @Test
+        public void shouldContinueIfPartitionCannotBeCreated() {
+            when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(true);
+            when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of("stats_default"));
+            doThrow(new DataIntegrityViolationException("default partition contains rows"))
+                    .when(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS " + partition(today)));
+
+            new StatsPartitionManager(jdbcTemplate, 1, 0, PartitionRetentionAction.DROP).maintainPartitions();
+
+            verify(jdbcTemplate, times(1)).execute(startsWith("CREATE TABLE IF NOT EXISTS " + partition(today.plusDays(1))));
+        }
+
+        @Test
+        public void shouldSkipIfTableIsNotPartitioned() {
+            when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(false);
+
+            new StatsPartitionManager(jdbcTemplate, 7, 30, PartitionRetentionAction.DROP).maintainPartitions();
+
+            verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class));
+            verify(jdbcTemplate, never()).execute(anyString());
+        }
+    }
+
+    @Test
+    public void shouldThrowIfParametersNegative() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new StatsPartitionManager(jdbcTemplate, -1, 0, PartitionRetentionAction.DROP));
+    }
+
+    private String partition(LocalDate day) {
+        return "stats_p" + day.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+    }
+}
@@ -6,21 +6,26 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.stats_common.model.ViewStats;
 import ru.practicum.stats_server.model.Stats;
 import ru.practicum.stats_server.repository.StatsRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 public class StatsRepositoryTest {
     private final StatsRepository statsRepository;
+    private final JdbcTemplate jdbcTemplate;
 
     private final Stats stats1 = Stats.builder()
             .id(1L)
@@ -71,6 +76,38 @@ public class StatsRepositoryTest {
         statsRepository.save(stats5);
     }
 
+    @Nested
+    class InsertAll {
+        @Test
+        public void shouldInsertAll() {
+            Stats stats6 = Stats.builder()
+                    .app("test APP")
+                    .ip("127.0.0.6")
+                    .uri("/test/uri/3")
+                    .timestamp(LocalDateTime.of(2020, 1, 1, 15, 30, 0))
+                    .build();
+            Stats stats7 = Stats.builder()
+                    .app("test APP")
+                    .ip("127.0.0.7")
+                    .uri("/test/uri/3")
+                    .timestamp(LocalDateTime.of(2020, 1, 1, 15, 30, 0))
+                    .build();
+
+            statsRepository.insertAll(List.of(stats6, stats7));
+
+            assertEquals(7, statsRepository.count());
+
+            List<ViewStats> viewStatsFromRepository = statsRepository.getStatsByUris(
+                    LocalDateTime.of(2020, 1, 1, 15, 0, 0),
+                    LocalDateTime.of(2020, 1, 1, 16, 0, 0),
+                    List.of(stats6.getUri())
+            );
+
+            assertEquals(1, viewStatsFromRepository.size());
+            assertEquals(2, viewStatsFromRepository.get(0).getHits());
+        }
+    }
+
     @Nested
     class GetAllStatsDistinctIp {
         @Test
@@ -276,4 +313,49 @@ public class StatsRepositoryTest {
             assertEquals(0, viewStatsFromRepository.size());
         }
     }
+
+    @Nested
+    class Indexes {
+        @BeforeEach
+        public void beforeEach() {
+            List<Stats> stats = new ArrayList<>();
+
+            for (int i = 0; i < 5000; i++) {
+                stats.add(Stats.builder()
+                        .app("test APP")
+                        .ip("127.0.0." + i % 250)
+                        .uri("/test/uri/" + i % 100)
+                        .timestamp(LocalDateTime.of(2021, 1, 1, 0, 0, 0).plusMinutes(i * 7L))
+                        .build());
+            }
+
+            statsRepository.insertAll(stats);
+            jdbcTemplate.execute("ANALYZE");
+        }
+
+        @Test
+        public void shouldUseIndexForStatsInRange() {
+            String plan = explain("SELECT app_name, uri, COUNT(DISTINCT user_ip) FROM stats " +
+                    "WHERE created BETWEEN '2021-01-10 00:00:00' AND '2021-01-11 00:00:00' " +
+                    "GROUP BY app_name, uri");
+
+            assertTrue(plan.contains("IX_STATS_CREATED_URI_APP_IP"), plan);
+            assertFalse(plan.contains("tableScan"), plan);
+        }
+
+        @Test
+        public void shouldUseIndexForStatsByUrisInRange() {
+            String plan = explain("SELECT app_name, uri, COUNT(user_ip) FROM stats " +
+                    "WHERE created BETWEEN '2021-01-10 00:00:00' AND '2021-01-11 00:00:00' " +
+                    "AND uri IN ('/test/uri/1', '/test/uri/2') " +
+                    "GROUP BY app_name, uri");
+
+            assertTrue(plan.contains("IX_STATS_CREATED_URI_APP_IP"), plan);
+            assertFalse(plan.contains("tableScan"), plan);
+        }
+
+        private String explain(String sql) {
+            return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        }
+    }
 }
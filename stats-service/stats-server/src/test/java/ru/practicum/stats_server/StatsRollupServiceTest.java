@@ -0,0 +1,349 @@
+package ru.practicum.stats_server;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.stats_common.model.EndpointHit;
+import ru.practicum.stats_common.model.ViewStats;
+import ru.practicum.stats_server.model.Stats;
+import ru.practicum.stats_server.repository.StatsRepository;
+import ru.practicum.stats_server.repository.StatsRollupRepository;
+import ru.practicum.stats_server.service.StatsRollupService;
+import ru.practicum.stats_server.service.StatsService;
+import ru.practicum.stats_server.service.StatsSketchMerger;
+import ru.practicum.stats_server.sketch.HyperLogLog;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.stats_common.StatsCommonUtils.DT_FORMATTER;
+
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class StatsRollupServiceTest {
+    private final StatsService statsService;
+    private final StatsRollupService statsRollupService;
+    private final StatsRepository statsRepository;
+    private final StatsSketchMerger statsSketchMerger;
+    private final StatsRollupRepository statsRollupRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime origin = LocalDateTime.of(2020, 1, 1, 0, 0, 0);
+    private final List<String> uris = List.of("/events/1", "/events/2", "/events/3");
+
+    @Nested
+    class GetStats {
+        @Test
+        public void shouldMatchRawStatsForAnyRange() {
+            Random random = new Random(42);
+            List<EndpointHit> hits = new ArrayList<>();
+
+            for (int i = 0; i < 2000; i++) {
+                hits.add(EndpointHit.builder()
+                        .app("ewm-main-service")
+                        .uri(uris.get(random.nextInt(uris.size())))
+                        .ip("10.0.0." + random.nextInt(50))
+                        .timestamp(origin.plusSeconds(random.nextInt(5 * 24 * 60 * 60)).format(DT_FORMATTER))
+                        .build());
+            }
+
+            statsService.addHits(hits);
+
+            assertSameAsRaw(origin, origin.plusDays(5), null);
+            assertSameAsRaw(origin.plusMinutes(1), origin.plusDays(3).plusMinutes(59), null);
+            assertSameAsRaw(origin.plusHours(7).plusSeconds(13), origin.plusDays(2).plusHours(3).plusSeconds(7), null);
+            assertSameAsRaw(origin.plusSeconds(30), origin.plusSeconds(50), null);
+            assertSameAsRaw(origin.plusHours(1), origin.plusHours(1), null);
+            assertSameAsRaw(origin.plusHours(2).plusMinutes(30), origin.plusDays(4), List.of("/events/2"));
+
+            for (int i = 0; i < 50; i++) {
+                LocalDateTime start = origin.plusSeconds(random.nextInt(5 * 24 * 60 * 60));
+                LocalDateTime end = start.plusSeconds(random.nextInt(3 * 24 * 60 * 60));
+
+                assertSameAsRaw(start, end, i % 2 == 0 ? null : uris.subList(0, 2));
+            }
+        }
+
+        @Test
+        public void shouldCountSingleHits() {
+            EndpointHit endpointHit = EndpointHit.builder()
+                    .app("ewm-main-service")
+                    .uri("/events/1")
+                    .ip("127.0.0.1")
+                    .timestamp("2020-01-01 10:00:00")
+                    .build();
+
+            statsService.addHit(endpointHit);
+            statsService.addHit(endpointHit);
+
+            assertEquals(List.of(new ViewStats("ewm-main-service", "/events/1", 2L)),
+                    statsRollupService.getStats(origin, origin.plusDays(1), null));
+            assertEquals(List.of(new ViewStats("ewm-main-service", "/events/1", 2L)),
+                    statsRollupService.getStats(origin.plusHours(10), origin.plusHours(10), null));
+            assertEquals(List.of(),
+                    statsRollupService.getStats(origin.plusHours(10).plusSeconds(1), origin.plusDays(1), null));
+        }
+    }
+
+    @Nested
+    class GetHitsByResource {
+        @Test
+        public void shouldMatchRawStatsForAnyRange() {
+            Random random = new Random(11);
+            List<String> allUris = List.of("/events/1", "/events/2", "/events/3", "/events/01", "/events",
+                    "/compilations/1");
+            List<EndpointHit> hits = new ArrayList<>();
+
+            for (int i = 0; i < 2000; i++) {
+                hits.add(EndpointHit.builder()
+                        .app(i % 5 == 0 ? "other-service" : "ewm-main-service")
+                        .uri(allUris.get(random.nextInt(allUris.size())))
+                        .ip("10.0.0." + random.nextInt(50))
+                        .timestamp(origin.plusSeconds(random.nextInt(5 * 24 * 60 * 60)).format(DT_FORMATTER))
+                        .build());
+            }
+
+            statsService.addHits(hits);
+
+            assertSameAsRawByResource(origin, origin.plusDays(5));
+            assertSameAsRawByResource(origin.plusHours(7).plusSeconds(13), origin.plusDays(2).plusHours(3));
+
+            for (int i = 0; i < 20; i++) {
+                LocalDateTime start = origin.plusSeconds(random.nextInt(5 * 24 * 60 * 60));
+
+                assertSameAsRawByResource(start, start.plusSeconds(random.nextInt(3 * 24 * 60 * 60)));
+            }
+        }
+    }
+
+    @Nested
+    class GetApproximateUniqueStats {
+        @Test
+        public void shouldStayWithinErrorBound() {
+            Random random = new Random(7);
+            List<EndpointHit> hits = new ArrayList<>();
+
+            for (int i = 0; i < 5000; i++) {
+                hits.add(EndpointHit.builder()
+                        .app("ewm-main-service")
+                        .uri(uris.get(random.nextInt(uris.size())))
+                        .ip("10.0." + random.nextInt(20) + "." + random.nextInt(250))
+                        .timestamp(origin.plusSeconds(random.nextInt(3 * 24 * 60 * 60)).format(DT_FORMATTER))
+                        .build());
+            }
+
+            statsService.addHits(hits);
+            statsSketchMerger.flush();
+
+            assertWithinErrorBound(origin, origin.plusDays(3), null);
+            assertWithinErrorBound(origin.plusHours(5).plusSeconds(17), origin.plusDays(2).plusMinutes(3), null);
+            assertWithinErrorBound(origin.plusMinutes(90), origin.plusMinutes(150), uris.subList(1, 3));
+        }
+    }
+
+    @Nested
+    class AddHits {
+        @Test
+        public void shouldCountConcurrentHitsOnSameBucket() throws Exception {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (int thread = 0; thread < 8; thread++) {
+                int threadNumber = thread;
+
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        statsService.addHit(EndpointHit.builder()
+                                .app("ewm-main-service")
+                                .uri("/events/1")
+                                .ip("10.0." + threadNumber + "." + i)
+                                .timestamp("2020-01-01 10:00:00")
+                                .build());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+
+            assertEquals(List.of(new ViewStats("ewm-main-service", "/events/1", 200L)),
+                    statsRollupService.getStats(origin, origin.plusDays(1), null));
+            statsSketchMerger.flush();
+
+            assertWithinErrorBound(origin, origin.plusDays(1), null);
+        }
+    }
+
+    @Nested
+    class MergeSketches {
+        @Test
+        public void shouldKeepPendingSketchesUntilMerged() {
+            List<EndpointHit> hits = new ArrayList<>();
+
+            for (int i = 0; i < 300; i++) {
+                hits.add(EndpointHit.builder()
+                        .app("ewm-main-service")
+                        .uri(uris.get(i % uris.size()))
+                        .ip("10.0.1." + i % 200)
+                        .timestamp(origin.plusMinutes(i).format(DT_FORMATTER))
+                        .build());
+            }
+
+            statsService.addHits(hits);
+
+            assertTrue(countPendingSketches() > 0);
+
+            new StatsSketchMerger(statsRollupRepository, transactionManager).flush();
+
+            assertEquals(0, countPendingSketches());
+            assertWithinErrorBound(origin, origin.plusDays(1), null);
+        }
+
+        private long countPendingSketches() {
+            return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stats_sketch_pending", Long.class);
+        }
+    }
+
+    @Nested
+    class PruneExpired {
+        @Test
+        public void shouldMatchRawStatsAfterPrune() {
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+            LocalDateTime first = now.minusDays(120);
+            Random random = new Random(5);
+            List<EndpointHit> hits = new ArrayList<>();
+
+            for (int i = 0; i < 2000; i++) {
+                hits.add(EndpointHit.builder()
+                        .app("ewm-main-service")
+                        .uri(uris.get(random.nextInt(uris.size())))
+                        .ip("10.0.0." + random.nextInt(50))
+                        .timestamp(first.plusSeconds(random.nextInt(120 * 24 * 60 * 60)).format(DT_FORMATTER))
+                        .build());
+            }
+
+            statsService.addHits(hits);
+
+            assertTrue(statsRollupService.pruneExpired() > 0);
+            assertEquals(0, countBucketsBefore("stats_minute", LocalDate.now().minusDays(7).atStartOfDay()));
+            assertEquals(0, countBucketsBefore("stats_hour", LocalDate.now().minusDays(90).atStartOfDay()));
+            assertTrue(countBucketsBefore("stats_day", LocalDate.now().minusDays(90).atStartOfDay()) > 0);
+
+            assertSameAsRaw(first, now, null);
+
+            for (int i = 0; i < 50; i++) {
+                LocalDateTime start = first.plusSeconds(random.nextInt(120 * 24 * 60 * 60));
+                LocalDateTime end = start.plusSeconds(random.nextInt(30 * 24 * 60 * 60));
+
+                assertSameAsRaw(start, end, i % 2 == 0 ? null : uris.subList(0, 2));
+            }
+        }
+
+        private long countBucketsBefore(String table, LocalDateTime before) {
+            return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE bucket_start < ?",
+                    Long.class, before);
+        }
+    }
+
+    @Nested
+    class RebuildIfEmpty {
+        @Test
+        public void shouldRebuildFromRawStats() {
+            List<Stats> stats = new ArrayList<>();
+
+            for (int i = 0; i < 100; i++) {
+                stats.add(Stats.builder()
+                        .app("ewm-main-service")
+                        .uri(uris.get(i % uris.size()))
+                        .resourceId((long) (i % uris.size() + 1))
+                        .ip("127.0.0.1")
+                        .timestamp(origin.plusMinutes(i * 37L))
+                        .build());
+            }
+
+            statsRepository.insertAll(stats);
+
+            statsRollupService.rebuildIfEmpty();
+
+            assertSameAsRaw(origin, origin.plusDays(5), null);
+            assertSameAsRaw(origin.plusHours(3).plusMinutes(20), origin.plusDays(1).plusHours(2), null);
+            assertSameAsRawByResource(origin, origin.plusDays(5));
+            assertWithinErrorBound(origin, origin.plusDays(5), null);
+
+            statsRollupService.rebuildIfEmpty();
+
+            assertSameAsRaw(origin, origin.plusDays(5), null);
+        }
+    }
+
+    private void assertSameAsRaw(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        List<ViewStats> expected = uris == null
+                ? statsRepository.getAllStats(start, end)
+                : statsRepository.getStatsByUris(start, end, uris);
+
+        assertEquals(sorted(expected), sorted(statsRollupService.getStats(start, end, uris)));
+    }
+
+    private void assertSameAsRawByResource(LocalDateTime start, LocalDateTime end) {
+        Map<Long, Long> expected = new HashMap<>();
+        Map<Long, Long> expectedUnique = new HashMap<>();
+
+        statsRepository.getStatsByUris(start, end, uris).forEach(viewStats ->
+                expected.merge(Long.parseLong(viewStats.getUri().substring("/events/".length())), viewStats.getHits(),
+                        Long::sum));
+        statsRepository.findAll().stream()
+                .filter(stats -> uris.contains(stats.getUri()))
+                .filter(stats -> !stats.getTimestamp().isBefore(start) && !stats.getTimestamp().isAfter(end))
+                .collect(Collectors.groupingBy(Stats::getResourceId,
+                        Collectors.mapping(Stats::getIp, Collectors.toSet())))
+                .forEach((id, ips) -> expectedUnique.put(id, (long) ips.size()));
+
+        assertEquals(expected, statsRollupService.getHitsByResource(start, end, List.of(1L, 2L, 3L, 4L)));
+        assertEquals(expectedUnique, statsRollupService.getUniqueHitsByResource(start, end, List.of(1L, 2L, 3L)));
+    }
+
+    private void assertWithinErrorBound(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        List<ViewStats> expected = uris == null
+                ? statsRepository.getAllStatsDistinctIp(start, end)
+                : statsRepository.getStatsByUrisDistinctIp(start, end, uris);
+        Map<String, Long> actual = statsRollupService.getApproximateUniqueStats(start, end, uris).stream()
+                .collect(Collectors.toMap(ViewStats::getUri, ViewStats::getHits));
+
+        assertEquals(expected.size(), actual.size());
+
+        for (ViewStats viewStats : expected) {
+            long error = Math.abs(actual.get(viewStats.getUri()) - viewStats.getHits());
+
+            assertTrue(error <= Math.max(1, viewStats.getHits() * 3 * HyperLogLog.STANDARD_ERROR),
+                    viewStats.getUri() + ": " + actual.get(viewStats.getUri()) + " vs " + viewStats.getHits());
+        }
+    }
+
+    private List<ViewStats> sorted(List<ViewStats> stats) {
+        return stats.stream()
+                .sorted(Comparator.comparing(ViewStats::getHits).reversed().thenComparing(ViewStats::getUri))
+                .collect(Collectors.toList());
+    }
+}
@@ -35,6 +35,7 @@ public class StatsServerFullContextTest {
                 LocalDateTime.of(2020, 1, 1, 0, 0, 0),
                 LocalDateTime.of(2021, 1, 1, 0, 0, 0),
                 null,
+                false,
                 false
         );
 
@@ -46,6 +47,7 @@ public class StatsServerFullContextTest {
                 LocalDateTime.of(2020, 1, 1, 0, 0, 0),
                 LocalDateTime.of(2021, 1, 1, 0, 0, 0),
                 null,
+                false,
                 false
         );
 
@@ -14,13 +14,18 @@ import ru.practicum.stats_common.model.ViewStats;
 import ru.practicum.stats_server.mapper.StatsMapperImpl;
 import ru.practicum.stats_server.model.Stats;
 import ru.practicum.stats_server.repository.StatsRepository;
+import ru.practicum.stats_server.service.StatsRollupService;
 import ru.practicum.stats_server.service.StatsServiceImpl;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -33,12 +38,18 @@ public class StatsServiceImplTest {
     @Mock
     private StatsMapperImpl statsMapper;
 
+    @Mock
+    private StatsRollupService statsRollupService;
+
     @InjectMocks
     private StatsServiceImpl statsServiceImpl;
 
     @Captor
     private ArgumentCaptor<Stats> statsArgumentCaptor;
 
+    @Captor
+    private ArgumentCaptor<List<Stats>> statsListArgumentCaptor;
+
     private final EndpointHit endpointHit = EndpointHit.builder()
             .app("test APP")
             .uri("/test/uri/1")
@@ -76,11 +87,73 @@ public class StatsServiceImplTest {
 
             Stats savedStats = statsArgumentCaptor.getValue();
 
+            verify(statsRollupService, times(1)).addHits(List.of(savedStats));
+
             assertEquals(endpointHit.getApp(), savedStats.getApp());
             assertEquals(endpointHit.getUri(), savedStats.getUri());
             assertEquals(endpointHit.getIp(), savedStats.getIp());
             assertEquals(LocalDateTime.parse(endpointHit.getTimestamp(), StatsCommonUtils.DT_FORMATTER), savedStats.getTimestamp());
         }
+
+        @Test
+        public void shouldExtractEventId() {
+            when(statsMapper.toStats(any(), any())).thenCallRealMethod();
+            when(statsMapper.toResourceId(any())).thenCallRealMethod();
+            endpointHit.setUri("/events/42");
+
+            statsServiceImpl.addHit(endpointHit);
+
+            verify(statsRepository, times(1)).save(statsArgumentCaptor.capture());
+
+            assertEquals(42L, statsArgumentCaptor.getValue().getResourceId());
+        }
+
+        @Test
+        public void shouldNotExtractEventIdFromOtherUris() {
+            StatsMapperImpl mapper = new StatsMapperImpl();
+
+            assertEquals(1L, mapper.toResourceId("/events/1"));
+            assertEquals(999999999999999999L, mapper.toResourceId("/events/999999999999999999"));
+            assertNull(mapper.toResourceId("/events"));
+            assertNull(mapper.toResourceId("/events/"));
+            assertNull(mapper.toResourceId("/events/01"));
+            assertNull(mapper.toResourceId("/events/1/comments"));
+            assertNull(mapper.toResourceId("/events/1a"));
+            assertNull(mapper.toResourceId("/events/9999999999999999999"));
+            assertNull(mapper.toResourceId("/compilations/1"));
+            assertNull(mapper.toResourceId(null));
+        }
+    }
+
+    @Nested
+    class AddHits {
+        @Test
+        public void shouldAddInOneBatch() {
+            when(statsMapper.toStats(any(), any())).thenCallRealMethod();
+
+            statsServiceImpl.addHits(List.of(endpointHit, endpointHit));
+
+            verify(statsMapper, times(2)).toStats(any(), any());
+            verify(statsRepository, never()).save(any());
+            verify(statsRepository, times(1)).insertAll(statsListArgumentCaptor.capture());
+
+            List<Stats> savedStats = statsListArgumentCaptor.getValue();
+
+            verify(statsRollupService, times(1)).addHits(savedStats);
+
+            assertEquals(2, savedStats.size());
+            assertEquals(endpointHit.getUri(), savedStats.get(0).getUri());
+            assertEquals(LocalDateTime.parse(endpointHit.getTimestamp(), StatsCommonUtils.DT_FORMATTER),
+                    savedStats.get(1).getTimestamp());
+        }
+
+        @Test
+        public void shouldSkipEmpty() {
+            statsServiceImpl.addHits(List.of());
+
+            verify(statsRepository, never()).insertAll(any());
+            verify(statsRollupService, never()).addHits(any());
+        }
     }
 
     @Nested
@@ -89,7 +162,7 @@ public class StatsServiceImplTest {
         public void shouldGetAllUniqueIfUriIsNull() {
             when(statsRepository.getAllStatsDistinctIp(start, end)).thenReturn(List.of(viewStats1, viewStats2));
 
-            List<ViewStats> stats = statsServiceImpl.getStats(start, end, null, true);
+            List<ViewStats> stats = statsServiceImpl.getStats(start, end, null, true, false);
 
             verify(statsRepository, times(1)).getAllStatsDistinctIp(start, end);
 
@@ -100,11 +173,12 @@ public class StatsServiceImplTest {
 
         @Test
         public void shouldGetAllNoUniqueIfUriIsNull() {
-            when(statsRepository.getAllStats(start, end)).thenReturn(List.of(viewStats1, viewStats2));
+            when(statsRollupService.getStats(start, end, null)).thenReturn(List.of(viewStats1, viewStats2));
 
-            List<ViewStats> stats = statsServiceImpl.getStats(start, end, null, false);
+            List<ViewStats> stats = statsServiceImpl.getStats(start, end, null, false, false);
 
-            verify(statsRepository, times(1)).getAllStats(start, end);
+            verify(statsRollupService, times(1)).getStats(start, end, null);
+            verify(statsRepository, never()).getAllStats(any(), any());
 
             assertEquals(2, stats.size());
             assertEquals(viewStats1, stats.get(0));
@@ -115,7 +189,7 @@ public class StatsServiceImplTest {
         public void shouldGetAllUniqueIfUriIsEmpty() {
             when(statsRepository.getAllStatsDistinctIp(start, end)).thenReturn(List.of(viewStats1, viewStats2));
 
-            List<ViewStats> stats = statsServiceImpl.getStats(start, end, List.of(), true);
+            List<ViewStats> stats = statsServiceImpl.getStats(start, end, List.of(), true, false);
 
             verify(statsRepository, times(1)).getAllStatsDistinctIp(start, end);
 
@@ -126,11 +200,12 @@ public class StatsServiceImplTest {
 
         @Test
         public void shouldGetAllNoUniqueIfUriIsEmpty() {
-            when(statsRepository.getAllStats(start, end)).thenReturn(List.of(viewStats1, viewStats2));
+            when(statsRollupService.getStats(start, end, List.of())).thenReturn(List.of(viewStats1, viewStats2));
 
-            List<ViewStats> stats = statsServiceImpl.getStats(start, end, List.of(), false);
+            List<ViewStats> stats = statsServiceImpl.getStats(start, end, List.of(), false, false);
 
-            verify(statsRepository, times(1)).getAllStats(start, end);
+            verify(statsRollupService, times(1)).getStats(start, end, List.of());
+            verify(statsRepository, never()).getAllStats(any(), any());
 
             assertEquals(2, stats.size());
             assertEquals(viewStats1, stats.get(0));
@@ -141,7 +216,7 @@ public class StatsServiceImplTest {
         public void shouldGetUniqueByUri() {
             when(statsRepository.getStatsByUrisDistinctIp(start, end, uris)).thenReturn(List.of(viewStats1, viewStats2));
 
-            List<ViewStats> stats = statsServiceImpl.getStats(start, end, uris, true);
+            List<ViewStats> stats = statsServiceImpl.getStats(start, end, uris, true, false);
 
             verify(statsRepository, times(1)).getStatsByUrisDistinctIp(start, end, uris);
 
@@ -152,15 +227,74 @@ public class StatsServiceImplTest {
 
         @Test
         public void shouldGetNoUniqueByUri() {
-            when(statsRepository.getStatsByUris(start, end, uris)).thenReturn(List.of(viewStats1, viewStats2));
+            when(statsRollupService.getStats(start, end, uris)).thenReturn(List.of(viewStats1, viewStats2));
 
-            List<ViewStats> stats = statsServiceImpl.getStats(start, end, uris, false);
+            List<ViewStats> stats = statsServiceImpl.getStats(start, end, uris, false, false);
 
-            verify(statsRepository, times(1)).getStatsByUris(start, end, uris);
+            verify(statsRollupService, times(1)).getStats(start, end, uris);
+            verify(statsRepository, never()).getStatsByUris(any(), any(), any());
 
             assertEquals(2, stats.size());
             assertEquals(viewStats1, stats.get(0));
             assertEquals(viewStats2, stats.get(1));
         }
+
+        @Test
+        public void shouldGetApproximateUnique() {
+            when(statsRollupService.getApproximateUniqueStats(start, end, uris))
+                    .thenReturn(List.of(viewStats1, viewStats2));
+
+            List<ViewStats> stats = statsServiceImpl.getStats(start, end, uris, true, true);
+
+            verify(statsRollupService, times(1)).getApproximateUniqueStats(start, end, uris);
+            verify(statsRepository, never()).getStatsByUrisDistinctIp(any(), any(), any());
+
+            assertEquals(2, stats.size());
+            assertEquals(viewStats1, stats.get(0));
+            assertEquals(viewStats2, stats.get(1));
+        }
+
+        @Test
+        public void shouldGetHitsByResource() {
+            when(statsRollupService.getHitsByResource(start, end, List.of(1L, 2L))).thenReturn(Map.of(1L, 3L));
+
+            Map<Long, Long> hits = statsServiceImpl.getHitsByResource(start, end, List.of(1L, 2L), false);
+
+            verify(statsRollupService, never()).getUniqueHitsByResource(any(), any(), any());
+
+            assertEquals(Map.of(1L, 3L), hits);
+        }
+
+        @Test
+        public void shouldGetUniqueHitsByResource() {
+            when(statsRollupService.getUniqueHitsByResource(start, end, List.of(1L, 2L))).thenReturn(Map.of(2L, 1L));
+
+            Map<Long, Long> hits = statsServiceImpl.getHitsByResource(start, end, List.of(1L, 2L), true);
+
+            verify(statsRollupService, never()).getHitsByResource(any(), any(), any());
+
+            assertEquals(Map.of(2L, 1L), hits);
+        }
+
+        @Test
+        public void shouldGetEmptyHitsByResourceForEmptyIds() {
+            Map<Long, Long> hits = statsServiceImpl.getHitsByResource(start, end, List.of(), false);
+
+            verify(statsRollupService, never()).getHitsByResource(any(), any(), any());
+
+            assertTrue(hits.isEmpty());
+        }
+
+        @Test
+        public void shouldIgnoreApproximateIfNotUnique() {
+            when(statsRollupService.getStats(start, end, uris)).thenReturn(List.of(viewStats1, viewStats2));
+
+            List<ViewStats> stats = statsServiceImpl.getStats(start, end, uris, false, true);
+
+            verify(statsRollupService, times(1)).getStats(start, end, uris);
+            verify(statsRollupService, never()).getApproximateUniqueStats(any(), any(), any());
+
+            assertEquals(2, stats.size());
+        }
     }
 }